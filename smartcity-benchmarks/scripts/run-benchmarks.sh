@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Runs the JMH suites and stores machine-readable results for later comparison.
+#
+# Results go to results/<server version>-<git sha>.json. Extra arguments are passed to JMH,
+# e.g. a benchmark regex or "-f 1 -wi 2 -i 3" for a quick run.
+#
+# Usage: scripts/run-benchmarks.sh [jmh args...]
+#        scripts/run-benchmarks.sh compare <baseline.json> <current.json> [thresholdPercent]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=target/benchmarks.jar
+[ -f "$JAR" ] || { echo "$JAR not found, run: mvn package" >&2; exit 1; }
+
+if [ "${1:-}" = "compare" ]; then
+  shift
+  exec java -cp "$JAR" com.smartcity.smartcityserver.benchmarks.CompareResults "$@"
+fi
+
+VERSION=$(grep -A1 '<artifactId>smartcity-server</artifactId>' pom.xml | sed -n 's:.*<version>\(.*\)</version>.*:\1:p')
+SHA=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+mkdir -p results
+OUT="results/${VERSION:-snapshot}-${SHA}.json"
+
+java -jar "$JAR" -rf json -rff "$OUT" "$@"
+echo "Results written to $OUT"
@@ -0,0 +1,123 @@
+package com.smartcity.smartcityserver.advice;
+
+import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.MediaType;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of large bill and complaint lists in the response envelope, JSON versus
+ * CBOR and Smile. Encoded sizes are printed once per fork, e.g. "cbor bills x10000: 612345 bytes".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EnvelopeFormatBenchmark {
+
+    /** Client-side view of the envelope. */
+    public static class Envelope<T> {
+        public List<T> data;
+        public String timeStamp;
+    }
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"bills", "complaints"})
+    private String payload;
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private EnvelopeHttpMessageConverter converter;
+    private JavaType envelopeType;
+    private List<?> items;
+    private byte[] encoded;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> JsonMapper.builder().build();
+        };
+        converter = new EnvelopeHttpMessageConverter(mapper, MediaType.ALL);
+        Class<?> itemType = payload.equals("bills") ? BillDTO.class : ComplaintDTO.class;
+        envelopeType = mapper.getTypeFactory().constructParametricType(Envelope.class, itemType);
+        items = payload.equals("bills") ? bills(size) : complaints(size);
+
+        out = new ByteArrayOutputStream(8 * 1024 * 1024);
+        converter.writeTo(items, out);
+        encoded = out.toByteArray();
+        System.out.printf("%s %s x%d: %d bytes%n", format, payload, size, encoded.length);
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        out.reset();
+        converter.writeTo(items, out);
+        blackhole.consume(out.size());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return mapper.readValue(encoded, envelopeType);
+    }
+
+    private static List<BillDTO> bills(int size) {
+        List<BillDTO> bills = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            BillDTO dto = new BillDTO();
+            dto.setBillId((long) i);
+            dto.setBillType(BillType.values()[i % BillType.values().length]);
+            dto.setUserId((long) (i % 500));
+            dto.setAmount(100 + (i % 997) * 1.37);
+            dto.setPaid(i % 3 == 0);
+            dto.setPaidAt(i % 3 == 0 ? now.minusDays(i % 30) : null);
+            dto.setCreatedAt(now.minusDays(i % 365));
+            bills.add(dto);
+        }
+        return bills;
+    }
+
+    private static List<ComplaintDTO> complaints(int size) {
+        List<ComplaintDTO> complaints = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            ComplaintDTO dto = new ComplaintDTO();
+            dto.setId((long) i);
+            dto.setUserId((long) (i % 500));
+            dto.setComplaintType("ROAD_DAMAGE");
+            dto.setDescription("Large pothole near the bus stop causing traffic to swerve into the next lane, complaint #" + i);
+            dto.setAttachmentUrl("https://res.cloudinary.com/smartcity/image/upload/v1/complaints/" + i + ".jpg");
+            dto.setAddress(i + " Station Road, Ward " + (i % 40));
+            dto.setStatus(ComplaintStatus.values()[i % ComplaintStatus.values().length]);
+            dto.setPriority(Priority.values()[i % Priority.values().length]);
+            dto.setCreatedAt(now.minusMinutes(i));
+            dto.setUpdatedAt(now);
+            complaints.add(dto);
+        }
+        return complaints;
+    }
+}
@@ -0,0 +1,76 @@
+package com.smartcity.smartcityserver.advice;
+
+import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialisation of complaint lists (one item up to 10k): the old per-response
+ * {@link APIResponse} wrapping versus the streaming envelope writer.
+ * Lives in the advice package to reach the package-private APIResponse constructor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EnvelopeSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private JsonMapper jsonMapper;
+    private EnvelopeHttpMessageConverter converter;
+    private List<ComplaintDTO> complaints;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        converter = new EnvelopeHttpMessageConverter(jsonMapper);
+        complaints = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            ComplaintDTO dto = new ComplaintDTO();
+            dto.setId((long) i);
+            dto.setUserId((long) (i % 500));
+            dto.setComplaintType("ROAD_DAMAGE");
+            dto.setDescription("Large pothole near the bus stop causing traffic to swerve into the next lane, complaint #" + i);
+            dto.setAttachmentUrl("https://res.cloudinary.com/smartcity/image/upload/v1/complaints/" + i + ".jpg");
+            dto.setAddress(i + " Station Road, Ward " + (i % 40));
+            dto.setStatus(ComplaintStatus.values()[i % ComplaintStatus.values().length]);
+            dto.setPriority(Priority.values()[i % Priority.values().length]);
+            dto.setCreatedAt(now.minusMinutes(i));
+            dto.setUpdatedAt(now);
+            complaints.add(dto);
+        }
+        out = new ByteArrayOutputStream(4 * 1024 * 1024);
+    }
+
+    @Benchmark
+    public void legacyEnvelope(Blackhole blackhole) {
+        out.reset();
+        APIResponse<List<ComplaintDTO>> response = new APIResponse<>(complaints);
+        // The previous implementation stamped every response with a fresh LocalDateTime.now()
+        response.setTimeStamp(LocalDateTime.now());
+        jsonMapper.writeValue(out, response);
+        blackhole.consume(out.size());
+    }
+
+    @Benchmark
+    public void streamingEnvelope(Blackhole blackhole) {
+        out.reset();
+        converter.writeTo(complaints, out);
+        blackhole.consume(out.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.smartcity.smartcityserver.benchmarks;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Diffs two JMH JSON result files ({@code -rf json}) benchmark by benchmark.
+ * <p>
+ * A change counts as a regression when the score got worse by more than the threshold and by more
+ * than the two runs' combined error. Exits with status 1 if any benchmark regressed.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.smartcity.smartcityserver.benchmarks.CompareResults baseline.json current.json [thresholdPercent]}
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+        JsonMapper mapper = JsonMapper.builder().build();
+        Map<String, JsonNode> baseline = load(mapper, new File(args[0]));
+        Map<String, JsonNode> current = load(mapper, new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode metric = now.get("primaryMetric");
+            String unit = metric.get("scoreUnit").asString();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), "-", format(metric.get("score").asDouble(), unit), "new");
+                continue;
+            }
+            double oldScore = before.get("primaryMetric").get("score").asDouble();
+            double newScore = metric.get("score").asDouble();
+            double error = finite(before.get("primaryMetric").get("scoreError").asDouble()) + finite(metric.get("scoreError").asDouble());
+            double change = (newScore - oldScore) / oldScore * 100;
+            // Throughput is better when higher, every time-based mode when lower
+            boolean higherIsBetter = "thrpt".equals(now.get("mode").asString());
+            double worsening = higherIsBetter ? -change : change;
+            boolean regressed = worsening > threshold && Math.abs(newScore - oldScore) > error;
+            if (regressed)
+                regressions++;
+            System.out.printf("%-90s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(oldScore, unit), format(newScore, unit),
+                    change, regressed ? "  REGRESSION" : "");
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-90s %14s %14s %9s%n", key, "", "-", "removed"));
+
+        System.out.printf("%n%d regression(s) above %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    // Keyed by benchmark method plus parameters, e.g. "...PasswordEncoderBenchmark.encode(strength=10)"
+    private static Map<String, JsonNode> load(JsonMapper mapper, File file) {
+        Map<String, JsonNode> results = new TreeMap<>();
+        for (JsonNode result : mapper.readTree(file)) {
+            String key = result.get("benchmark").asString();
+            JsonNode params = result.get("params");
+            if (params != null && !params.isEmpty()) {
+                key += params.properties().stream()
+                        .map(p -> p.getKey() + "=" + p.getValue().asString())
+                        .sorted()
+                        .collect(Collectors.joining(",", "(", ")"));
+            }
+            results.put(key, result);
+        }
+        return results;
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,104 @@
+package com.smartcity.smartcityserver.config;
+
+import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.dto.ContactDTO;
+import com.smartcity.smartcityserver.dto.UserDTO;
+import com.smartcity.smartcityserver.entity.Bill;
+import com.smartcity.smartcityserver.entity.Complaint;
+import com.smartcity.smartcityserver.entity.Contact;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import com.smartcity.smartcityserver.entity.enums.Role;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping with the {@link ModelMapper} bean from {@link AppConfig}; every list
+ * endpoint does this once per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ModelMapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private User user;
+    private Bill bill;
+    private Complaint complaint;
+    private Contact contact;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new AppConfig().modelMapper();
+        LocalDateTime now = LocalDateTime.now();
+
+        user = new User();
+        user.setUserId(42L);
+        user.setName("Bench User");
+        user.setEmail("bench@smartcity.local");
+        user.setRole(Role.CITIZEN);
+        user.setPhoneNumber("9999999999");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+
+        bill = new Bill();
+        bill.setBillId(7L);
+        bill.setBillType(BillType.ELECTRICITY);
+        bill.setUserId(42L);
+        bill.setAmount(1250.75);
+        bill.setCreatedAt(now);
+
+        complaint = new Complaint();
+        complaint.setId(11L);
+        complaint.setUser(user);
+        complaint.setComplaintType("ROAD_DAMAGE");
+        complaint.setDescription("Large pothole near the bus stop");
+        complaint.setAddress("12 Station Road");
+        complaint.setStatus(ComplaintStatus.IN_PROGRESS);
+        complaint.setPriority(Priority.HIGH);
+        complaint.setCreatedAt(now);
+        complaint.setUpdatedAt(now);
+
+        contact = new Contact();
+        contact.setId(3L);
+        contact.setUser(user);
+        contact.setName("Bench User");
+        contact.setEmail("bench@smartcity.local");
+        contact.setMessage("Street lights on Main Road have been out for a week.");
+        contact.setSubmittedAt(now);
+
+        // First mappings build ModelMapper's type maps; keep that out of the measurement
+        mapUser();
+        mapBill();
+        mapComplaint();
+        mapContact();
+    }
+
+    @Benchmark
+    public UserDTO mapUser() {
+        return modelMapper.map(user, UserDTO.class);
+    }
+
+    @Benchmark
+    public BillDTO mapBill() {
+        return modelMapper.map(bill, BillDTO.class);
+    }
+
+    @Benchmark
+    public ComplaintDTO mapComplaint() {
+        return modelMapper.map(complaint, ComplaintDTO.class);
+    }
+
+    @Benchmark
+    public ContactDTO mapContact() {
+        return modelMapper.map(contact, ContactDTO.class);
+    }
+}
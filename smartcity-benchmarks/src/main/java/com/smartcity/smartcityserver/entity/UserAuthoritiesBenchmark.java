@@ -0,0 +1,41 @@
+package com.smartcity.smartcityserver.entity;
+
+import com.smartcity.smartcityserver.entity.enums.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role checks on the principal: {@code getAuthorities()} runs in the security filter chain and
+ * {@code hasRole} in every service method that branches on admin access.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UserAuthoritiesBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setUserId(42L);
+        user.setEmail("bench@smartcity.local");
+        user.setRole(Role.CITIZEN);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean hasRole() {
+        return user.hasRole("ADMIN");
+    }
+}
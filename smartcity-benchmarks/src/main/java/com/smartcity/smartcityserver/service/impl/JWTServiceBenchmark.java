@@ -0,0 +1,53 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.Role;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token signing and parsing, which {@code JWTFilter} does on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class JWTServiceBenchmark {
+
+    private JWTServiceImpl jwtService;
+    private User user;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        // Single-tenant, as a deployment without smartcity.tenancy.enabled
+        jwtService = new JWTServiceImpl(new TenantRegistry(false, List.of(), ""));
+        Field secret = ReflectionUtils.findField(JWTServiceImpl.class, "jwtSecretKey");
+        ReflectionUtils.makeAccessible(secret);
+        ReflectionUtils.setField(secret, jwtService, "benchmark-secret-key-that-is-long-enough-for-hs256");
+
+        user = new User();
+        user.setUserId(42L);
+        user.setName("Bench User");
+        user.setEmail("bench@smartcity.local");
+        user.setRole(Role.CITIZEN);
+        accessToken = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String parseAccessToken() {
+        return jwtService.getUserIdFromToken(accessToken);
+    }
+}
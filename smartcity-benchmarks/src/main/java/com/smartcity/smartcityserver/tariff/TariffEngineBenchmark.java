@@ -0,0 +1,64 @@
+package com.smartcity.smartcityserver.tariff;
+
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bills priced per second by {@link CompiledTariffs} with the bundled tariff set, on one thread and
+ * split across the common fork-join pool. Readings mix electricity and water, with and without a
+ * time-of-use slot, and spread usage over all tiers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TariffEngineBenchmark {
+
+    private static final int BATCH = 1_000_000;
+
+    private CompiledTariffs tariffs;
+    private int[] types;
+    private double[] usage;
+    private int[] slots;
+    private double[] amounts;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = TariffEngineBenchmark.class.getResourceAsStream("/tariffs.json")) {
+            tariffs = CompiledTariffs.compile(JsonMapper.builder().build().readValue(in, TariffSet.class));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        types = new int[BATCH];
+        usage = new double[BATCH];
+        slots = new int[BATCH];
+        amounts = new double[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            boolean water = random.nextInt(3) == 0;
+            types[i] = (water ? BillType.WATER_SUPPLY : BillType.ELECTRICITY).ordinal();
+            usage[i] = water ? random.nextDouble(40_000) : random.nextDouble(600);
+            slots[i] = random.nextBoolean() ? CompiledTariffs.NO_SLOT : random.nextInt(CompiledTariffs.SLOTS);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] singleThread() {
+        tariffs.compute(types, usage, slots, amounts, 0, BATCH);
+        return amounts;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] parallel() {
+        tariffs.computeParallel(types, usage, slots, amounts, BATCH);
+        return amounts;
+    }
+}
@@ -0,0 +1,223 @@
+package com.smartcity.smartcityserver.datagen;
+
+import com.smartcity.smartcityserver.datagen.Distributions.Weighted;
+import com.smartcity.smartcityserver.datagen.Distributions.Zipf;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates one user and everything that user owns. Each user draws from its own random stream seeded by
+ * (seed, user index), so users can be produced in any order and on any thread with identical results.
+ * <p>
+ * The shapes are chosen to stress what the real city stresses: complaints per user are heavy-tailed, a few
+ * streets attract most complaints (Zipf), usage grows over the history, and status and payment depend on age.
+ * Reminders, late fees, escalations and SLA breaches are filled in as the server's jobs would have set them
+ * with their default settings.
+ */
+final class CityModel {
+
+    /** Rows a user owns besides the user row itself; drawn first from the user's stream. */
+    record Counts(int bills, int complaints, int contacts) {
+    }
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Priya", "Rohan", "Ananya", "Vikram", "Meera", "Arjun", "Kavya",
+            "Rahul", "Sneha", "Aditya", "Pooja", "Karan", "Divya", "Nikhil", "Isha", "Sanjay", "Neha", "Amit", "Riya"};
+    private static final String[] LAST_NAMES = {"Sharma", "Verma", "Patel", "Singh", "Gupta", "Reddy", "Iyer", "Nair",
+            "Das", "Joshi", "Mehta", "Kapoor", "Rao", "Khan", "Bose", "Pillai"};
+    private static final String[] STREETS = {"MG Road", "Station Road", "Park Street", "Lake View Road", "Temple Street",
+            "Market Road", "Ring Road", "Hill Road", "Church Street", "College Road", "Canal Road", "Gandhi Nagar"};
+
+    private static final Weighted<String> BILL_TYPES = new Weighted<>(
+            new String[]{"ELECTRICITY", "WATER_SUPPLY", "WASTE_MANAGEMENT", "PARKING"}, 40, 30, 20, 10);
+    private static final Weighted<String> COMPLAINT_TYPES = new Weighted<>(
+            new String[]{"Road", "Water", "Electricity", "Garbage", "Streetlight", "Drainage", "Noise"},
+            25, 20, 15, 18, 10, 8, 4);
+    private static final Weighted<String> PRIORITIES = new Weighted<>(
+            new String[]{"LOW", "NORMAL", "HIGH", "CRITICAL"}, 20, 55, 20, 5);
+
+    private static final String[] ISSUES = {"has not been fixed for weeks", "is getting worse every day",
+            "was reported before but nothing happened", "is a danger to children and elderly people",
+            "needs urgent attention", "has been a problem since the last monsoon"};
+    private static final String[] MESSAGES = {"I would like to know the status of my complaint.",
+            "The payment page showed an error but my account was debited.", "Please update my phone number.",
+            "Thank you for resolving the issue quickly.", "How do I get a copy of last month's bill?",
+            "The mobile app logs me out frequently."};
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    // Defaults of smartcity.dunning
+    private static final int PAYMENT_TERM_DAYS = 15;
+    private static final int REMINDER_DAYS_BEFORE = 3;
+    private static final double LATE_FEE_PERCENT = 2.0;
+    private static final double LATE_FEE_MINIMUM = 25.0;
+
+    // Wildcard rules of the bundled sla-rules.json
+    private static final String[] PRIORITY_ORDER = {"LOW", "NORMAL", "HIGH", "CRITICAL"};
+    private static final Duration[] ESCALATE_PENDING_AFTER = {Duration.ofDays(7), Duration.ofDays(3), Duration.ofDays(1)};
+    private static final Duration FLAG_CRITICAL_PENDING_AFTER = Duration.ofHours(12);
+    private static final Duration FLAG_IN_PROGRESS_AFTER = Duration.ofDays(14);
+    private static final Duration FLAG_CRITICAL_IN_PROGRESS_AFTER = Duration.ofDays(2);
+
+    // Generated contacts are stored as if flushed from this contact journal, numbered by contact id
+    private static final String JOURNAL_INSTANCE = "datagen";
+
+    private final DataGenConfig config;
+    private final String passwordHash;
+    private final Zipf addressPopularity;
+    private final LocalDateTime start;
+    private final long spanSeconds;
+
+    CityModel(DataGenConfig config, String passwordHash) {
+        this.config = config;
+        this.passwordHash = passwordHash;
+        this.addressPopularity = new Zipf(config.addresses(), config.zipfExponent());
+        this.start = config.asOf().minusDays(config.days());
+        this.spanSeconds = config.days() * SECONDS_PER_DAY;
+    }
+
+    Counts counts(long userIndex) {
+        return drawCounts(stream(userIndex));
+    }
+
+    /**
+     * Writes the user with the given index and its bills, complaints and contacts.
+     *
+     * @param ids next free id of users, bills, complaints and contacts; advanced by the rows written
+     */
+    void generate(long userIndex, long[] ids, RowWriter out) throws Exception {
+        SplittableRandom random = stream(userIndex);
+        Counts counts = drawCounts(random);
+
+        long userId = ids[Table.USERS.ordinal()]++;
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String name = first + " " + last;
+        String email = (first + "." + last).toLowerCase(Locale.ROOT) + "." + userId + "@example.com";
+        String phone = "+91" + (6_000_000_000L + random.nextLong(4_000_000_000L));
+        out.write(Table.USERS, new Object[]{userId, name, "CITIZEN", email, random.nextDouble() >= 0.02, phone,
+                passwordHash, null, random.nextDouble() < 0.6});
+
+        for (int i = 0; i < counts.bills(); i++)
+            out.write(Table.BILLS, bill(random, ids[Table.BILLS.ordinal()]++, userId));
+        for (int i = 0; i < counts.complaints(); i++)
+            out.write(Table.COMPLAINTS, complaint(random, ids[Table.COMPLAINTS.ordinal()]++, userId));
+        for (int i = 0; i < counts.contacts(); i++) {
+            LocalDateTime submittedAt = timestamp(random);
+            long contactId = ids[Table.CONTACTS.ordinal()]++;
+            out.write(Table.CONTACTS, new Object[]{contactId, userId, name, email, phone,
+                    MESSAGES[random.nextInt(MESSAGES.length)], submittedAt, JOURNAL_INSTANCE, contactId});
+        }
+    }
+
+    private Object[] bill(SplittableRandom random, long billId, long userId) {
+        String type = BILL_TYPES.sample(random);
+        double mean = switch (type) {
+            case "ELECTRICITY" -> 1800;
+            case "WATER_SUPPLY" -> 450;
+            case "WASTE_MANAGEMENT" -> 200;
+            default -> 120;
+        };
+        double amount = Math.max(1, Math.round(Distributions.logNormal(random, mean, 0.6) * 100) / 100.0);
+        LocalDateTime createdAt = timestamp(random);
+        // Old bills are almost all settled, recent ones often still open
+        long ageDays = Duration.between(createdAt, config.asOf()).toDays();
+        double paidProbability = ageDays < 30 ? 0.45 : ageDays < 90 ? 0.85 : 0.97;
+        boolean paid = random.nextDouble() < paidProbability;
+        LocalDateTime paidAt = paid ? after(createdAt, Distributions.exponential(random, 6 * SECONDS_PER_DAY)) : null;
+
+        // Dunning steps that came due before the bill was paid
+        LocalDate dueDate = createdAt.toLocalDate().plusDays(PAYMENT_TERM_DAYS);
+        LocalDateTime openUntil = paid ? paidAt : config.asOf();
+        LocalDateTime remindAt = dueDate.minusDays(REMINDER_DAYS_BEFORE).atStartOfDay();
+        LocalDateTime reminderSentAt = remindAt.isBefore(openUntil) ? remindAt : null;
+        LocalDateTime lateFeeAt = dueDate.plusDays(1).atStartOfDay();
+        Double lateFee = null;
+        LocalDateTime lateFeeAppliedAt = null;
+        if (lateFeeAt.isBefore(openUntil)) {
+            lateFee = Math.max(LATE_FEE_MINIMUM, Math.round(amount * LATE_FEE_PERCENT) / 100.0);
+            amount = Math.round((amount + lateFee) * 100) / 100.0;
+            lateFeeAppliedAt = lateFeeAt;
+        }
+        return new Object[]{billId, type, userId, amount, paid, paidAt, createdAt,
+                dueDate, reminderSentAt, lateFee, lateFeeAppliedAt};
+    }
+
+    private Object[] complaint(SplittableRandom random, long complaintId, long userId) {
+        String type = COMPLAINT_TYPES.sample(random);
+        int rank = addressPopularity.sample(random);
+        String address = (rank / STREETS.length + 1) + " " + STREETS[rank % STREETS.length] + ", Ward " + (rank % 48 + 1);
+        String description = type + " issue near " + address + " " + ISSUES[random.nextInt(ISSUES.length)] + ".";
+        String attachment = random.nextDouble() < 0.15 ? "https://cdn.smartcity.example/attachments/" + complaintId + ".jpg" : null;
+        LocalDateTime createdAt = timestamp(random);
+        String status = status(random, Duration.between(createdAt, config.asOf()).toDays());
+        LocalDateTime updatedAt = status.equals("PENDING") ? createdAt
+                : after(createdAt, Distributions.exponential(random, 5 * SECONDS_PER_DAY));
+        LocalDateTime statusChangedAt = updatedAt;
+
+        // Each escalation while pending raises the priority one step
+        int priority = indexOf(PRIORITY_ORDER, PRIORITIES.sample(random));
+        LocalDateTime pendingUntil = status.equals("PENDING") ? config.asOf() : updatedAt;
+        LocalDateTime escalatedAt = null;
+        for (LocalDateTime since = createdAt; priority < ESCALATE_PENDING_AFTER.length; priority++) {
+            LocalDateTime at = since.plus(ESCALATE_PENDING_AFTER[priority]);
+            if (!at.isBefore(pendingUntil))
+                break;
+            escalatedAt = since = at;
+        }
+
+        // Only a breach in the current status is still flagged
+        boolean critical = priority == PRIORITY_ORDER.length - 1;
+        Duration flagAfter = switch (status) {
+            case "PENDING" -> critical ? FLAG_CRITICAL_PENDING_AFTER : null;
+            case "IN_PROGRESS" -> critical ? FLAG_CRITICAL_IN_PROGRESS_AFTER : FLAG_IN_PROGRESS_AFTER;
+            default -> null;
+        };
+        LocalDateTime slaBreachedAt = flagAfter != null && statusChangedAt.plus(flagAfter).isBefore(config.asOf())
+                ? statusChangedAt.plus(flagAfter) : null;
+
+        return new Object[]{complaintId, userId, type, description, attachment, address, status,
+                PRIORITY_ORDER[priority], createdAt, updatedAt, statusChangedAt, escalatedAt, slaBreachedAt};
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++)
+            if (values[i].equals(value))
+                return i;
+        throw new IllegalArgumentException("Unknown value " + value);
+    }
+
+    // Complaints age from PENDING towards RESOLVED/REJECTED
+    private static String status(SplittableRandom random, long ageDays) {
+        double roll = random.nextDouble();
+        if (ageDays < 2)
+            return roll < 0.7 ? "PENDING" : "IN_PROGRESS";
+        if (ageDays < 14)
+            return roll < 0.3 ? "PENDING" : roll < 0.8 ? "IN_PROGRESS" : roll < 0.95 ? "RESOLVED" : "REJECTED";
+        return roll < 0.05 ? "PENDING" : roll < 0.15 ? "IN_PROGRESS" : roll < 0.9 ? "RESOLVED" : "REJECTED";
+    }
+
+    private Counts drawCounts(SplittableRandom random) {
+        int bills = Distributions.skewedCount(random, config.billsPerUser(), 0.5);
+        int complaints = Distributions.skewedCount(random, config.complaintsPerUser(), 1.3);
+        int contacts = Distributions.skewedCount(random, config.contactsPerUser(), 1.0);
+        return new Counts(bills, complaints, contacts);
+    }
+
+    // Density grows linearly over the history: the city had fewer users at the start
+    private LocalDateTime timestamp(SplittableRandom random) {
+        return start.plusSeconds((long) (spanSeconds * Math.sqrt(random.nextDouble())));
+    }
+
+    private LocalDateTime after(LocalDateTime from, double seconds) {
+        LocalDateTime at = from.plusSeconds((long) seconds);
+        return at.isAfter(config.asOf()) ? config.asOf() : at;
+    }
+
+    private SplittableRandom stream(long userIndex) {
+        return new SplittableRandom(Distributions.mix(config.seed(), userIndex));
+    }
+}
@@ -0,0 +1,161 @@
+package com.smartcity.smartcityserver.datagen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes one CSV file per table and chunk ({@code <out>/<table>/<chunk>.csv}) plus {@code load.sql}, a script of
+ * MySQL {@code LOAD DATA LOCAL INFILE} statements that loads them in dependency order. Ids start at 1, so the
+ * target tables should be empty.
+ */
+final class CsvRowSink implements RowSink {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NULL = "\\N";
+
+    private final Path outputDir;
+
+    CsvRowSink(DataGenConfig config) {
+        this.outputDir = config.outputDir();
+    }
+
+    @Override
+    public long[] firstIds() throws IOException {
+        for (Table table : Table.values())
+            Files.createDirectories(outputDir.resolve(table.tableName()));
+        long[] ids = new long[Table.values().length];
+        Arrays.fill(ids, 1);
+        return ids;
+    }
+
+    @Override
+    public RowWriter open(long chunk) {
+        return new ChunkWriter(chunk);
+    }
+
+    @Override
+    public void finish(long chunks) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("-- Generated by smartcity-datagen. Run with: mysql --local-infile=1 <database> < load.sql");
+        lines.add("SET unique_checks = 0;");
+        lines.add("SET foreign_key_checks = 0;");
+        for (Table table : Table.values()) {
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                Path file = file(table, chunk);
+                if (Files.exists(file))
+                    lines.add(loadStatement(table, file.toAbsolutePath()));
+            }
+        }
+        lines.add("SET foreign_key_checks = 1;");
+        lines.add("SET unique_checks = 1;");
+        Files.write(outputDir.resolve("load.sql"), lines, StandardCharsets.UTF_8);
+    }
+
+    // Booleans go through user variables: text '0' loaded straight into a BIT(1) column would become 1
+    private static String loadStatement(Table table, Path file) {
+        String columns = table.columns().stream()
+                .map(c -> c.type() == Table.Type.BOOLEAN ? "@" + c.name() : c.name())
+                .collect(Collectors.joining(", "));
+        String booleans = table.columns().stream()
+                .filter(c -> c.type() == Table.Type.BOOLEAN)
+                .map(c -> c.name() + " = (@" + c.name() + " = '1')")
+                .collect(Collectors.joining(", "));
+        return "LOAD DATA LOCAL INFILE '" + file.toString().replace("\\", "\\\\").replace("'", "\\'") + "'"
+                + " INTO TABLE " + table.tableName() + " CHARACTER SET utf8mb4"
+                + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'"
+                + " LINES TERMINATED BY '\\n'"
+                + " (" + columns + ")"
+                + (booleans.isEmpty() ? "" : " SET " + booleans) + ";";
+    }
+
+    private Path file(Table table, long chunk) {
+        return outputDir.resolve(table.tableName()).resolve(String.format("%06d.csv", chunk));
+    }
+
+    private final class ChunkWriter implements RowWriter {
+
+        private final long chunk;
+        private final Writer[] writers = new Writer[Table.values().length];
+        private final StringBuilder line = new StringBuilder(256);
+
+        ChunkWriter(long chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void write(Table table, Object[] row) throws IOException {
+            Writer writer = writers[table.ordinal()];
+            if (writer == null)
+                writer = writers[table.ordinal()] = Files.newBufferedWriter(file(table, chunk), StandardCharsets.UTF_8);
+            line.setLength(0);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0)
+                    line.append(',');
+                append(table.columns().get(i).type(), row[i]);
+            }
+            line.append('\n');
+            writer.append(line);
+        }
+
+        private void append(Table.Type type, Object value) {
+            if (value == null) {
+                line.append(NULL);
+                return;
+            }
+            switch (type) {
+                case BOOLEAN -> line.append((Boolean) value ? '1' : '0');
+                case TIMESTAMP -> TIMESTAMP.formatTo((LocalDateTime) value, line);
+                case STRING -> {
+                    line.append('"');
+                    String text = (String) value;
+                    for (int i = 0; i < text.length(); i++) {
+                        char c = text.charAt(i);
+                        if (c == '"' || c == '\\')
+                            line.append('\\');
+                        line.append(c);
+                    }
+                    line.append('"');
+                }
+                default -> line.append(value);
+            }
+        }
+
+        @Override
+        public void commit() throws IOException {
+            IOException failure = null;
+            for (Writer writer : writers) {
+                if (writer == null)
+                    continue;
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null)
+                throw failure;
+        }
+
+        @Override
+        public void abort() {
+            for (Table table : Table.values()) {
+                try {
+                    if (writers[table.ordinal()] != null)
+                        writers[table.ordinal()].close();
+                    Files.deleteIfExists(file(table, chunk));
+                } catch (IOException e) {
+                    // best effort; load.sql is not written after a failure
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.smartcity.smartcityserver.datagen;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entry point of the synthetic dataset generator.
+ * <p>
+ * Users are split into chunks. A first pass replays only the per-user counts to give every chunk its id range,
+ * then the chunks are generated in parallel. Every id and value therefore depends only on the seed and options,
+ * not on the number of threads or the order in which chunks finish.
+ * <p>
+ * Usage: {@code java -jar target/datagen.jar --users=600000 --url=jdbc:mysql://localhost:3306/smartcity --username=root --db-password=...}
+ */
+public final class DataGen {
+
+    private DataGen() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        DataGenConfig config;
+        try {
+            config = DataGenConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(DataGenConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        CityModel model = new CityModel(config, passwordHash(config));
+        RowSink sink = config.mode().equals("csv") ? new CsvRowSink(config) : new JdbcRowSink(config);
+        long chunks = config.chunkCount();
+        LongAdder rowsWritten = new LongAdder();
+        long startedAt = System.nanoTime();
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        try {
+            long[][] firstIds = assignIds(model, config, sink.firstIds(), workers);
+            long expected = expectedRows(firstIds, chunks);
+            System.out.printf("Generating %,d users and %,d rows in %,d chunks with seed %d as of %s%n",
+                    config.users(), expected, chunks, config.seed(), config.asOf().toLocalDate());
+
+            progress.scheduleAtFixedRate(() -> report(rowsWritten.sum(), expected, startedAt), 5, 5, TimeUnit.SECONDS);
+            List<Future<?>> results = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long index = chunk;
+                results.add(workers.submit(() -> {
+                    long[] ids = firstIds[(int) index].clone();
+                    long from = index * config.chunkSize();
+                    long to = Math.min(from + config.chunkSize(), config.users());
+                    RowWriter writer = new CountingWriter(sink.open(index), rowsWritten);
+                    try {
+                        for (long user = from; user < to; user++)
+                            model.generate(user, ids, writer);
+                    } catch (Exception e) {
+                        writer.abort();
+                        throw e;
+                    }
+                    writer.commit();
+                    return null;
+                }));
+            }
+            for (Future<?> result : results)
+                result.get();
+            sink.finish(chunks);
+        } finally {
+            progress.shutdownNow();
+            workers.shutdownNow();
+        }
+        report(rowsWritten.sum(), rowsWritten.sum(), startedAt);
+    }
+
+    // firstIds[c] holds the first id of every table in chunk c; firstIds[chunks] is one past the last
+    private static long[][] assignIds(CityModel model, DataGenConfig config, long[] start, ExecutorService workers)
+            throws Exception {
+        int chunks = Math.toIntExact(config.chunkCount());
+        List<Future<long[]>> counts = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            long from = (long) chunk * config.chunkSize();
+            long to = Math.min(from + config.chunkSize(), config.users());
+            counts.add(workers.submit(() -> {
+                long[] rows = new long[Table.values().length];
+                for (long user = from; user < to; user++) {
+                    CityModel.Counts c = model.counts(user);
+                    rows[Table.USERS.ordinal()]++;
+                    rows[Table.BILLS.ordinal()] += c.bills();
+                    rows[Table.COMPLAINTS.ordinal()] += c.complaints();
+                    rows[Table.CONTACTS.ordinal()] += c.contacts();
+                }
+                return rows;
+            }));
+        }
+        long[][] firstIds = new long[chunks + 1][];
+        firstIds[0] = start.clone();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            long[] rows = counts.get(chunk).get();
+            firstIds[chunk + 1] = firstIds[chunk].clone();
+            for (int t = 0; t < rows.length; t++)
+                firstIds[chunk + 1][t] += rows[t];
+        }
+        return firstIds;
+    }
+
+    private static long expectedRows(long[][] firstIds, long chunks) {
+        long rows = 0;
+        for (int t = 0; t < Table.values().length; t++)
+            rows += firstIds[(int) chunks][t] - firstIds[0][t];
+        return rows;
+    }
+
+    // BCrypt with a salt derived from the seed, so reruns produce byte-identical user rows
+    private static String passwordHash(DataGenConfig config) throws Exception {
+        SecureRandom saltSource = SecureRandom.getInstance("SHA1PRNG");
+        saltSource.setSeed(config.seed());
+        return BCrypt.hashpw(config.password(), BCrypt.gensalt(10, saltSource));
+    }
+
+    private static void report(long rows, long expected, long startedAt) {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        System.out.printf("%,d / %,d rows (%.0f%%) in %.0fs, %,.0f rows/s%n", rows, expected,
+                expected == 0 ? 100 : rows * 100.0 / expected, seconds, rows / Math.max(seconds, 0.001));
+    }
+
+    private record CountingWriter(RowWriter delegate, LongAdder rows) implements RowWriter {
+
+        @Override
+        public void write(Table table, Object[] row) throws Exception {
+            delegate.write(table, row);
+            rows.increment();
+        }
+
+        @Override
+        public void commit() throws Exception {
+            delegate.commit();
+        }
+
+        @Override
+        public void abort() {
+            delegate.abort();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.smartcity.smartcityserver.datagen;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Command line options of a generator run.
+ *
+ * @param users             number of citizen accounts; every other table scales with it
+ * @param seed              seed of every random stream; the same seed and options give the same rows
+ * @param asOf              "now" of the generated city; timestamps fall in the {@code days} before it
+ * @param days              length of the simulated history
+ * @param billsPerUser      mean bills per user
+ * @param complaintsPerUser mean complaints per user; heavy-tailed, most users file few and some file many
+ * @param contactsPerUser   mean contact messages per user
+ * @param addresses         size of the street address pool complaints are filed against
+ * @param zipfExponent      skew of address popularity
+ * @param password          plain password of every generated user (stored as a BCrypt hash)
+ * @param mode              {@code jdbc} to insert into a database, {@code csv} to write bulk-load files
+ * @param url               JDBC URL in jdbc mode
+ * @param dbUsername        database user in jdbc mode
+ * @param dbPassword        database password in jdbc mode
+ * @param outputDir         target directory in csv mode
+ * @param threads           parallel workers
+ * @param batchSize         rows per JDBC batch
+ * @param chunkSize         users per unit of work (one transaction in jdbc mode, one file per table in csv mode)
+ */
+public record DataGenConfig(long users, long seed, LocalDateTime asOf, int days, double billsPerUser,
+                            double complaintsPerUser, double contactsPerUser, int addresses, double zipfExponent,
+                            String password, String mode, String url, String dbUsername, String dbPassword,
+                            Path outputDir, int threads, int batchSize, int chunkSize) {
+
+    static final String USAGE = """
+            Usage: java -jar datagen.jar --users=<n> (--url=<jdbc url> | --mode=csv) [options]
+              --seed=<n>                  random seed (default 42)
+              --as-of=<yyyy-MM-dd>        end of the simulated history (default today; set it for reproducible output)
+              --days=<n>                  length of the history (default 730)
+              --bills-per-user=<x>        mean bills per user (default 12)
+              --complaints-per-user=<x>   mean complaints per user (default 3)
+              --contacts-per-user=<x>     mean contact messages per user (default 0.3)
+              --addresses=<n>             street address pool (default 20000)
+              --zipf=<s>                  address popularity skew (default 1.07)
+              --password=<text>           password of every generated user (default password1)
+              --mode=jdbc|csv             insert directly or write LOAD DATA files (default jdbc)
+              --url=<jdbc url> --username=<user> --db-password=<password>
+              --out=<dir>                 csv output directory (default output)
+              --threads=<n>               workers (default: available processors)
+              --batch-size=<n>            rows per JDBC batch (default 1000)
+              --chunk-size=<n>            users per transaction or file (default 5000)
+            """;
+
+    public static DataGenConfig parse(String[] args) {
+        long users = 0;
+        long seed = 42;
+        LocalDateTime asOf = LocalDate.now().atStartOfDay();
+        int days = 730;
+        double bills = 12;
+        double complaints = 3;
+        double contacts = 0.3;
+        int addresses = 20_000;
+        double zipf = 1.07;
+        String password = "password1";
+        String mode = "jdbc";
+        String url = null;
+        String username = null;
+        String dbPassword = null;
+        Path out = Path.of("output");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchSize = 1000;
+        int chunkSize = 5000;
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0)
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(2, eq)) {
+                case "users" -> users = Long.parseLong(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "as-of" -> asOf = LocalDate.parse(value).atStartOfDay();
+                case "days" -> days = Integer.parseInt(value);
+                case "bills-per-user" -> bills = Double.parseDouble(value);
+                case "complaints-per-user" -> complaints = Double.parseDouble(value);
+                case "contacts-per-user" -> contacts = Double.parseDouble(value);
+                case "addresses" -> addresses = Integer.parseInt(value);
+                case "zipf" -> zipf = Double.parseDouble(value);
+                case "password" -> password = value;
+                case "mode" -> mode = value;
+                case "url" -> url = value;
+                case "username" -> username = value;
+                case "db-password" -> dbPassword = value;
+                case "out" -> out = Path.of(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                case "batch-size" -> batchSize = Integer.parseInt(value);
+                case "chunk-size" -> chunkSize = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (users <= 0)
+            throw new IllegalArgumentException("--users must be positive");
+        if (!mode.equals("jdbc") && !mode.equals("csv"))
+            throw new IllegalArgumentException("--mode must be jdbc or csv");
+        if (mode.equals("jdbc") && url == null)
+            throw new IllegalArgumentException("--url is required in jdbc mode");
+        if (days <= 0 || addresses <= 0 || threads <= 0 || batchSize <= 0 || chunkSize <= 0)
+            throw new IllegalArgumentException("--days, --addresses, --threads, --batch-size and --chunk-size must be positive");
+        return new DataGenConfig(users, seed, asOf, days, bills, complaints, contacts, addresses, zipf, password, mode,
+                url, username, dbPassword, out, threads, batchSize, chunkSize);
+    }
+
+    public long chunkCount() {
+        return (users + chunkSize - 1) / chunkSize;
+    }
+}
@@ -0,0 +1,89 @@
+package com.smartcity.smartcityserver.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Samplers used by {@link CityModel}. All of them draw from a caller-supplied {@link SplittableRandom}
+ * so the output depends only on the seed, never on thread scheduling.
+ */
+final class Distributions {
+
+    private Distributions() {
+    }
+
+    /** Zipf over ranks {@code 0..n-1}: rank k is drawn with probability proportional to 1/(k+1)^s. */
+    static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cdf[k] = sum;
+            }
+            for (int k = 0; k < n; k++)
+                cdf[k] /= sum;
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+    }
+
+    /** Picks an index with probability proportional to its weight. */
+    static final class Weighted<T> {
+        private final T[] values;
+        private final double[] cumulative;
+
+        Weighted(T[] values, double... weights) {
+            if (values.length != weights.length)
+                throw new IllegalArgumentException("One weight per value expected");
+            this.values = values;
+            this.cumulative = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+        }
+
+        T sample(SplittableRandom random) {
+            double roll = random.nextDouble() * cumulative[cumulative.length - 1];
+            for (int i = 0; i < cumulative.length; i++) {
+                if (roll < cumulative[i])
+                    return values[i];
+            }
+            return values[values.length - 1];
+        }
+    }
+
+    /** Log-normal with the given mean; sigma controls the tail (1.0+ is strongly skewed). */
+    static double logNormal(SplittableRandom random, double mean, double sigma) {
+        double mu = Math.log(mean) - sigma * sigma / 2;
+        return Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /** Non-negative count with the given mean and a long right tail, rounded stochastically so the mean holds. */
+    static int skewedCount(SplittableRandom random, double mean, double sigma) {
+        if (mean <= 0)
+            return 0;
+        double value = logNormal(random, mean, sigma);
+        int floor = (int) value;
+        return floor + (random.nextDouble() < value - floor ? 1 : 0);
+    }
+
+    static double exponential(SplittableRandom random, double mean) {
+        return -Math.log(1 - random.nextDouble()) * mean;
+    }
+
+    /** Mixes a seed and an index into an independent stream seed (SplitMix64 finaliser). */
+    static long mix(long seed, long index) {
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
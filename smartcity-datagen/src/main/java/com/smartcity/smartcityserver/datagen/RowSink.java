@@ -0,0 +1,16 @@
+package com.smartcity.smartcityserver.datagen;
+
+/**
+ * Destination of generated rows: a database ({@link JdbcRowSink}) or bulk-load files ({@link CsvRowSink}).
+ */
+interface RowSink {
+
+    /** First free id of every table, indexed by {@link Table#ordinal()}. */
+    long[] firstIds() throws Exception;
+
+    /** Opens a writer for one chunk; chunks are written concurrently. */
+    RowWriter open(long chunk) throws Exception;
+
+    /** Called once after every chunk was written. */
+    void finish(long chunks) throws Exception;
+}
@@ -0,0 +1,16 @@
+package com.smartcity.smartcityserver.datagen;
+
+/**
+ * Receives the rows of one chunk. Used by a single thread; exactly one of {@link #commit()} and {@link #abort()}
+ * is called at the end.
+ */
+interface RowWriter {
+
+    void write(Table table, Object[] row) throws Exception;
+
+    /** Makes the chunk durable and releases resources. */
+    void commit() throws Exception;
+
+    /** Discards whatever the chunk wrote so far; must not throw. */
+    void abort();
+}
@@ -0,0 +1,94 @@
+package com.smartcity.smartcityserver.datagen;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tables the generator fills, with the column names Hibernate derives from the server's entities.
+ * Rows are {@code Object[]} in column order.
+ */
+public enum Table {
+
+    USERS("users",
+            new Column("user_id", Type.LONG),
+            new Column("name", Type.STRING),
+            new Column("role", Type.STRING),
+            new Column("email", Type.STRING),
+            new Column("active", Type.BOOLEAN),
+            new Column("phone_number", Type.STRING),
+            new Column("password", Type.STRING),
+            new Column("profile_picture_url", Type.STRING),
+            new Column("email_verified", Type.BOOLEAN)),
+
+    BILLS("bills",
+            new Column("bill_id", Type.LONG),
+            new Column("bill_type", Type.STRING),
+            new Column("user_id", Type.LONG),
+            new Column("amount", Type.DOUBLE),
+            new Column("paid", Type.BOOLEAN),
+            new Column("paid_at", Type.TIMESTAMP),
+            new Column("created_at", Type.TIMESTAMP),
+            new Column("due_date", Type.DATE),
+            new Column("reminder_sent_at", Type.TIMESTAMP),
+            new Column("late_fee", Type.DOUBLE),
+            new Column("late_fee_applied_at", Type.TIMESTAMP)),
+
+    COMPLAINTS("complaints",
+            new Column("id", Type.LONG),
+            new Column("user_id", Type.LONG),
+            new Column("complaint_type", Type.STRING),
+            new Column("description", Type.STRING),
+            new Column("attachment_url", Type.STRING),
+            new Column("address", Type.STRING),
+            new Column("status", Type.STRING),
+            new Column("priority", Type.STRING),
+            new Column("created_at", Type.TIMESTAMP),
+            new Column("updated_at", Type.TIMESTAMP),
+            new Column("status_changed_at", Type.TIMESTAMP),
+            new Column("escalated_at", Type.TIMESTAMP),
+            new Column("sla_breached_at", Type.TIMESTAMP)),
+
+    CONTACTS("contact",
+            new Column("id", Type.LONG),
+            new Column("user_id", Type.LONG),
+            new Column("name", Type.STRING),
+            new Column("email", Type.STRING),
+            new Column("phone_number", Type.STRING),
+            new Column("message", Type.STRING),
+            new Column("submitted_at", Type.TIMESTAMP),
+            new Column("journal_instance", Type.STRING),
+            new Column("journal_sequence", Type.LONG));
+
+    public enum Type {LONG, DOUBLE, BOOLEAN, STRING, DATE, TIMESTAMP}
+
+    public record Column(String name, Type type) {
+    }
+
+    private final String tableName;
+    private final List<Column> columns;
+
+    Table(String tableName, Column... columns) {
+        this.tableName = tableName;
+        this.columns = List.of(columns);
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    // The first column is always the primary key
+    public String idColumn() {
+        return columns.get(0).name();
+    }
+
+    public String insertSql() {
+        String names = columns.stream().map(Column::name).collect(Collectors.joining(", "));
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        return "INSERT INTO " + tableName + " (" + names + ") VALUES (" + placeholders + ")";
+    }
+}
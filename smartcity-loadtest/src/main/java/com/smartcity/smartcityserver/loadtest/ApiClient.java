@@ -0,0 +1,81 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Thin JSON client for the smartcity-server REST API. One instance is shared by all virtual threads.
+ */
+public class ApiClient {
+
+    /** Status code and the unwrapped {@code data} of the response envelope; null for empty or error responses. */
+    public record Response(int status, JsonNode data) {
+
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    public ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public ObjectNode object() {
+        return mapper.createObjectNode();
+    }
+
+    public Response get(String path, String token) throws IOException, InterruptedException {
+        return send(request(path, token).GET());
+    }
+
+    public Response post(String path, String token, JsonNode body) throws IOException, InterruptedException {
+        return send(request(path, token).POST(bodyOf(body)));
+    }
+
+    public Response put(String path, String token, JsonNode body) throws IOException, InterruptedException {
+        return send(request(path, token).PUT(bodyOf(body)));
+    }
+
+    public Response patch(String path, String token, JsonNode body) throws IOException, InterruptedException {
+        return send(request(path, token).method("PATCH", bodyOf(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+        if (token != null)
+            builder.header("Authorization", "Bearer " + token);
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher bodyOf(JsonNode body) {
+        return body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+    }
+
+    private Response send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        byte[] bytes = response.body();
+        JsonNode data = null;
+        if (bytes.length > 0 && response.headers().firstValue("Content-Type").orElse("").contains("json"))
+            data = mapper.readTree(bytes).get("data");
+        return new Response(response.statusCode(), data);
+    }
+}
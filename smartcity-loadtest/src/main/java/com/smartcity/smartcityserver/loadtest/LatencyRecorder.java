@@ -0,0 +1,61 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-scenario latency histograms (microseconds) and outcome counters, safe to record into from any thread.
+ */
+public class LatencyRecorder {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    /** Samples and counters of one scenario. */
+    public static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        // Nothing left to act on, e.g. every bill is paid
+        final LongAdder skipped = new LongAdder();
+        // Arrivals dropped because max-in-flight was reached
+        final LongAdder dropped = new LongAdder();
+        final Map<Integer, LongAdder> failuresByStatus = new ConcurrentHashMap<>();
+    }
+
+    private final Map<Scenario, Stats> stats = new EnumMap<>(Scenario.class);
+
+    public LatencyRecorder() {
+        for (Scenario scenario : Scenario.values())
+            stats.put(scenario, new Stats());
+    }
+
+    // status 0 stands for a transport error (timeout, connection refused)
+    public void record(Scenario scenario, int status, long latencyNanos) {
+        Stats s = stats.get(scenario);
+        s.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_TRACKABLE_MICROS));
+        if (status >= 200 && status < 300) {
+            s.succeeded.increment();
+        } else {
+            s.failed.increment();
+            s.failuresByStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+    }
+
+    public void skipped(Scenario scenario) {
+        stats.get(scenario).skipped.increment();
+    }
+
+    public void dropped(Scenario scenario) {
+        stats.get(scenario).dropped.increment();
+    }
+
+    public Map<Scenario, Stats> stats() {
+        return stats;
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartcity.smartcityserver.loadtest;
+
+/**
+ * Entry point of the load-test harness: boots the server on the embedded profile (or targets {@code --url}),
+ * seeds accounts through the API, drives the scenario mix and writes the reports.
+ * <p>
+ * Usage: {@code java -jar target/loadtest.jar --jar=../smartcity-server/target/smartcity-server-0.0.1-SNAPSHOT.jar --rate=100}
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.printf(LoadTestConfig.USAGE, Scenario.keys());
+            System.exit(2);
+            return;
+        }
+
+        ServerProcess server = null;
+        try {
+            String baseUrl = config.baseUrl();
+            if (config.serverJar() != null) {
+                System.out.println("Starting " + config.serverJar() + " with the embedded profile...");
+                server = ServerProcess.start(config.serverJar(), config.outputDir());
+                baseUrl = server.baseUrl();
+            }
+            ApiClient client = new ApiClient(baseUrl);
+
+            System.out.printf("Seeding %d citizens against %s...%n", config.citizens(), baseUrl);
+            SeedData data = SeedData.seed(client, config);
+
+            System.out.printf("Running %.1f req/s for %ds (+%ds warm-up)...%n", config.ratePerSecond(),
+                    config.duration().toSeconds(), config.warmup().toSeconds());
+            LatencyRecorder recorder = new LatencyRecorder();
+            new OpenModelDriver(client, data, config, recorder).run();
+
+            new ReportWriter(config, recorder).write();
+        } finally {
+            if (server != null)
+                server.close();
+        }
+    }
+}
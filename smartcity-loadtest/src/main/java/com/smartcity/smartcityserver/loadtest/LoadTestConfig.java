@@ -0,0 +1,102 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command line options of a load-test run. Every option has a default so {@code --jar} (or {@code --url})
+ * is the only one needed.
+ *
+ * @param serverJar      executable smartcity-server jar to boot; null when {@code baseUrl} points at a running server
+ * @param baseUrl        base URL including the context path, e.g. {@code http://localhost:8080/api}
+ * @param ratePerSecond  mean arrival rate of the open model, in requests per second
+ * @param warmup         initial period whose samples are discarded
+ * @param duration       measured period
+ * @param citizens       number of citizen accounts to seed
+ * @param billsPerCitizen unpaid bills seeded per citizen, consumed by the pay-bill scenario
+ * @param maxInFlight    requests allowed in flight before new arrivals are dropped and counted
+ * @param adminEmail     admin account used by the admin scenarios; the embedded profile seeds it
+ * @param adminPassword  password of that account
+ * @param mix            relative weight of every scenario
+ * @param outputDir      directory for report.json and report.html
+ */
+public record LoadTestConfig(Path serverJar, String baseUrl, double ratePerSecond, Duration warmup, Duration duration,
+                             int citizens, int billsPerCitizen, int maxInFlight, String adminEmail,
+                             String adminPassword, Map<Scenario, Integer> mix, Path outputDir) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar (--jar=<smartcity-server.jar> | --url=<base url>) [options]
+              --rate=<n>            mean arrivals per second (default 50)
+              --warmup=<seconds>    discarded warm-up period (default 15)
+              --duration=<seconds>  measured period (default 60)
+              --citizens=<n>        seeded citizen accounts (default 50)
+              --bills=<n>           unpaid bills seeded per citizen (default 20)
+              --max-in-flight=<n>   arrivals beyond this are dropped and counted (default 1000)
+              --admin-email=<email> --admin-password=<password>
+                                    admin account (default: the one seeded by the embedded profile)
+              --mix=<name:weight,...>  scenario weights, names: %s
+              --out=<dir>           report directory (default reports/<timestamp>)
+            """;
+
+    public static LoadTestConfig parse(String[] args) {
+        Path jar = null;
+        String url = null;
+        double rate = 50;
+        Duration warmup = Duration.ofSeconds(15);
+        Duration duration = Duration.ofSeconds(60);
+        int citizens = 50;
+        int bills = 20;
+        int maxInFlight = 1000;
+        String adminEmail = "admin@smartcity.local";
+        String adminPassword = "admin123";
+        Map<Scenario, Integer> mix = Scenario.defaultMix();
+        Path out = Path.of("reports", String.valueOf(System.currentTimeMillis()));
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0)
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(2, eq)) {
+                case "jar" -> jar = Path.of(value);
+                case "url" -> url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "citizens" -> citizens = Integer.parseInt(value);
+                case "bills" -> bills = Integer.parseInt(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "admin-email" -> adminEmail = value;
+                case "admin-password" -> adminPassword = value;
+                case "mix" -> mix = parseMix(value);
+                case "out" -> out = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if ((jar == null) == (url == null))
+            throw new IllegalArgumentException("Exactly one of --jar and --url is required");
+        if (rate <= 0 || citizens <= 0 || maxInFlight <= 0)
+            throw new IllegalArgumentException("--rate, --citizens and --max-in-flight must be positive");
+        return new LoadTestConfig(jar, url, rate, warmup, duration, citizens, bills, maxInFlight, adminEmail, adminPassword,
+                mix, out);
+    }
+
+    // e.g. "login:5,listBills:40,payBill:10"; scenarios left out get weight 0
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Mix entries look like name:weight, got " + part);
+            int weight = Integer.parseInt(pair[1]);
+            if (weight < 0)
+                throw new IllegalArgumentException("Negative weight for " + pair[0]);
+            mix.put(Scenario.byName(pair[0]), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0)
+            throw new IllegalArgumentException("The mix needs at least one scenario with a positive weight");
+        return mix;
+    }
+}
@@ -0,0 +1,119 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive as a Poisson process at the configured rate regardless of how fast the
+ * server answers, the way independent users do. A closed loop of N workers would slow down together with the
+ * server and hide exactly the queueing we want to see.
+ * <p>
+ * Latency is measured from the scheduled arrival time, not from when the request actually went out, so time
+ * spent waiting behind a stalled generator still shows up in the percentiles (no coordinated omission).
+ */
+public class OpenModelDriver {
+
+    private final ApiClient client;
+    private final SeedData data;
+    private final LoadTestConfig config;
+    private final LatencyRecorder recorder;
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+
+    public OpenModelDriver(ApiClient client, SeedData data, LoadTestConfig config, LatencyRecorder recorder) {
+        this.client = client;
+        this.data = data;
+        this.config = config;
+        this.recorder = recorder;
+
+        Map<Scenario, Integer> mix = config.mix();
+        this.scenarios = mix.entrySet().stream().filter(e -> e.getValue() > 0).map(Map.Entry::getKey).toArray(Scenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += mix.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /** Runs warm-up plus the measured period and waits for outstanding requests. */
+    public void run() throws InterruptedException {
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        AtomicInteger inFlight = new AtomicInteger();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long arrival = start;
+            while (true) {
+                // Exponential inter-arrival gaps give a Poisson arrival process
+                arrival += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+                if (arrival >= end)
+                    break;
+                sleepUntil(arrival);
+
+                Scenario scenario = pick(random);
+                boolean measured = arrival >= measureFrom;
+                if (inFlight.incrementAndGet() > config.maxInFlight()) {
+                    inFlight.decrementAndGet();
+                    if (measured)
+                        recorder.dropped(scenario);
+                    continue;
+                }
+                long scheduledAt = arrival;
+                executor.execute(() -> {
+                    try {
+                        issue(scenario, scheduledAt, measured);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    private void issue(Scenario scenario, long scheduledAt, boolean measured) {
+        int status;
+        try {
+            ApiClient.Response response = scenario.execute(client, data);
+            if (response == null) {
+                if (measured)
+                    recorder.skipped(scenario);
+                return;
+            }
+            status = response.status();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            status = 0;
+        }
+        if (measured)
+            recorder.record(scenario, status, System.nanoTime() - scheduledAt);
+    }
+
+    private Scenario pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i])
+                return scenarios[i];
+        }
+        return scenarios[scenarios.length - 1];
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Writes report.json (for scripts and run-to-run comparison) and report.html (for people) into the output
+ * directory, and prints the same table to stdout.
+ */
+public class ReportWriter {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final LoadTestConfig config;
+    private final LatencyRecorder recorder;
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    public ReportWriter(LoadTestConfig config, LatencyRecorder recorder) {
+        this.config = config;
+        this.recorder = recorder;
+    }
+
+    public void write() throws IOException {
+        Files.createDirectories(config.outputDir());
+        ObjectNode report = toJson();
+        Files.writeString(config.outputDir().resolve("report.json"), mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        Files.writeString(config.outputDir().resolve("report.html"), toHtml());
+        printSummary();
+    }
+
+    private ObjectNode toJson() {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("generatedAt", Instant.now().toString());
+        ObjectNode settings = report.putObject("config");
+        settings.put("ratePerSecond", config.ratePerSecond());
+        settings.put("warmupSeconds", config.warmup().toSeconds());
+        settings.put("durationSeconds", config.duration().toSeconds());
+        settings.put("citizens", config.citizens());
+        settings.put("maxInFlight", config.maxInFlight());
+        ObjectNode mix = settings.putObject("mix");
+        config.mix().forEach((scenario, weight) -> mix.put(scenario.key(), weight));
+
+        ArrayNode endpoints = report.putArray("endpoints");
+        for (Map.Entry<Scenario, LatencyRecorder.Stats> entry : recorder.stats().entrySet()) {
+            Scenario scenario = entry.getKey();
+            LatencyRecorder.Stats stats = entry.getValue();
+            if (config.mix().getOrDefault(scenario, 0) == 0)
+                continue;
+            Histogram latency = stats.latency;
+            ObjectNode node = endpoints.addObject();
+            node.put("scenario", scenario.key());
+            node.put("endpoint", scenario.endpoint());
+            node.put("requests", latency.getTotalCount());
+            node.put("succeeded", stats.succeeded.sum());
+            node.put("failed", stats.failed.sum());
+            node.put("skipped", stats.skipped.sum());
+            node.put("dropped", stats.dropped.sum());
+            node.put("throughputPerSecond", throughput(stats));
+            ObjectNode millis = node.putObject("latencyMs");
+            for (double percentile : PERCENTILES)
+                millis.put("p" + (int) percentile, toMillis(latency.getValueAtPercentile(percentile)));
+            millis.put("max", toMillis(latency.getMaxValue()));
+            millis.put("mean", latency.getTotalCount() == 0 ? 0 : latency.getMean() / 1000.0);
+            ObjectNode failures = node.putObject("failuresByStatus");
+            stats.failuresByStatus.forEach((status, count) -> failures.put(status == 0 ? "transport" : status.toString(), count.sum()));
+        }
+        return report;
+    }
+
+    private String toHtml() {
+        StringBuilder rows = new StringBuilder();
+        for (Map.Entry<Scenario, LatencyRecorder.Stats> entry : recorder.stats().entrySet()) {
+            if (config.mix().getOrDefault(entry.getKey(), 0) == 0)
+                continue;
+            LatencyRecorder.Stats stats = entry.getValue();
+            Histogram latency = stats.latency;
+            rows.append("<tr><td>").append(escape(entry.getKey().endpoint())).append("</td>")
+                    .append(cell(latency.getTotalCount()))
+                    .append(cell(String.format("%.1f", throughput(stats))))
+                    .append(cell(String.format("%.2f", toMillis(latency.getValueAtPercentile(50)))))
+                    .append(cell(String.format("%.2f", toMillis(latency.getValueAtPercentile(95)))))
+                    .append(cell(String.format("%.2f", toMillis(latency.getValueAtPercentile(99)))))
+                    .append(cell(String.format("%.2f", toMillis(latency.getMaxValue()))))
+                    .append(cell(stats.failed.sum()))
+                    .append(cell(stats.skipped.sum()))
+                    .append(cell(stats.dropped.sum()))
+                    .append("</tr>\n");
+        }
+        return """
+                <!DOCTYPE html>
+                <html>
+                <head>
+                <meta charset="utf-8">
+                <title>SmartCity load test</title>
+                <style>
+                body { font-family: sans-serif; margin: 2em; }
+                table { border-collapse: collapse; }
+                th, td { border: 1px solid #ccc; padding: 4px 10px; }
+                td.num { text-align: right; font-variant-numeric: tabular-nums; }
+                </style>
+                </head>
+                <body>
+                <h1>SmartCity load test</h1>
+                <p>%s &middot; open model at %.1f req/s &middot; %ds warm-up, %ds measured &middot; %d citizens</p>
+                <table>
+                <tr><th>Endpoint</th><th>Requests</th><th>Throughput (req/s)</th><th>p50 (ms)</th><th>p95 (ms)</th>\
+                <th>p99 (ms)</th><th>Max (ms)</th><th>Failed</th><th>Skipped</th><th>Dropped</th></tr>
+                %s</table>
+                <p>Latency is measured from each request's scheduled arrival time. Skipped: nothing left to act on.
+                Dropped: arrivals refused because %d requests were already in flight.</p>
+                </body>
+                </html>
+                """.formatted(Instant.now(), config.ratePerSecond(), config.warmup().toSeconds(),
+                config.duration().toSeconds(), config.citizens(), rows, config.maxInFlight());
+    }
+
+    private void printSummary() {
+        System.out.printf("%-30s %9s %10s %9s %9s %9s %8s %8s%n", "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "failed", "dropped");
+        recorder.stats().forEach((scenario, stats) -> {
+            if (config.mix().getOrDefault(scenario, 0) == 0)
+                return;
+            Histogram latency = stats.latency;
+            System.out.printf("%-30s %9d %10.1f %9.2f %9.2f %9.2f %8d %8d%n", scenario.endpoint(), latency.getTotalCount(),
+                    throughput(stats), toMillis(latency.getValueAtPercentile(50)), toMillis(latency.getValueAtPercentile(95)),
+                    toMillis(latency.getValueAtPercentile(99)), stats.failed.sum(), stats.dropped.sum());
+        });
+        System.out.println("Reports written to " + config.outputDir().toAbsolutePath());
+    }
+
+    // Successful responses per second of the measured period
+    private double throughput(LatencyRecorder.Stats stats) {
+        return stats.succeeded.sum() / (double) config.duration().toSeconds();
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String cell(Object value) {
+        return "<td class=\"num\">" + value + "</td>";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
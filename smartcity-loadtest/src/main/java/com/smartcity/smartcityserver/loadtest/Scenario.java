@@ -0,0 +1,135 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * One request a simulated user makes. Every scenario is a single HTTP call so its latency maps to one endpoint.
+ */
+public enum Scenario {
+
+    LOGIN("login", "POST /auth/login", 5) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            SeedData.Citizen citizen = data.randomCitizen();
+            ObjectNode body = client.object().put("email", citizen.email).put("password", citizen.password);
+            ApiClient.Response response = client.post("/auth/login", null, body);
+            if (response.isSuccess() && response.data() != null)
+                citizen.token = response.data().get("accessToken").asString();
+            return response;
+        }
+    },
+    LIST_BILLS("listBills", "GET /citizen/bills", 35) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            return client.get("/citizen/bills", data.randomCitizen().token);
+        }
+    },
+    PAY_BILL("payBill", "PUT /citizen/bills/{id}", 10) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            SeedData.BillRef bill = data.unpaidBills.poll();
+            if (bill == null)
+                return null;
+            return client.put("/citizen/bills/" + bill.billId(), bill.owner().token, null);
+        }
+    },
+    CREATE_COMPLAINT("createComplaint", "POST /citizen/complaints", 15) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            SeedData.Citizen citizen = data.randomCitizen();
+            ObjectNode body = SeedData.complaintBody(client, citizen.userId);
+            ApiClient.Response response = client.post("/citizen/complaints", citizen.token, body);
+            if (response.isSuccess() && response.data() != null) {
+                data.openComplaints.add(new SeedData.ComplaintRef(response.data().get("id").asLong(), citizen.userId,
+                        body.get("complaintType").asString(), body.get("description").asString(), false));
+            }
+            return response;
+        }
+    },
+    ADMIN_LIST_COMPLAINTS("adminListComplaints", "GET /admin/complaints", 15) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            return client.get("/admin/complaints", data.adminToken);
+        }
+    },
+    ADMIN_CHANGE_STATUS("adminChangeStatus", "PATCH /admin/complaint/{id}", 10) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            SeedData.ComplaintRef complaint = data.openComplaints.poll();
+            if (complaint == null)
+                return null;
+            // PENDING -> IN_PROGRESS -> RESOLVED; resolved complaints leave the pool
+            String next = complaint.inProgress() ? "RESOLVED" : "IN_PROGRESS";
+            ObjectNode body = client.object()
+                    .put("userId", complaint.userId())
+                    .put("complaintType", complaint.complaintType())
+                    .put("description", complaint.description())
+                    .put("status", next);
+            ApiClient.Response response = client.patch("/admin/complaint/" + complaint.id(), data.adminToken, body);
+            if (!complaint.inProgress())
+                data.openComplaints.add(complaint.advanced());
+            return response;
+        }
+    },
+    ADMIN_CREATE_BILL("adminCreateBill", "POST /admin/bills", 10) {
+        @Override
+        ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException {
+            SeedData.Citizen citizen = data.randomCitizen();
+            ApiClient.Response response = client.post("/admin/bills", data.adminToken, SeedData.billBody(client, citizen.userId));
+            JsonNode created = response.data();
+            if (response.isSuccess() && created != null)
+                data.unpaidBills.add(new SeedData.BillRef(citizen, created.get("billId").asLong()));
+            return response;
+        }
+    };
+
+    private final String key;
+    private final String endpoint;
+    private final int defaultWeight;
+
+    Scenario(String key, String endpoint, int defaultWeight) {
+        this.key = key;
+        this.endpoint = endpoint;
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Issues the request.
+     *
+     * @return the response, or null when there is nothing to act on (e.g. every seeded bill is already paid)
+     */
+    abstract ApiClient.Response execute(ApiClient client, SeedData data) throws IOException, InterruptedException;
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    static Map<Scenario, Integer> defaultMix() {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : values())
+            mix.put(scenario, scenario.defaultWeight);
+        return mix;
+    }
+
+    static Scenario byName(String key) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario '" + key + "', expected one of " + keys()));
+    }
+
+    static String keys() {
+        return Arrays.stream(values()).map(Scenario::key).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,146 @@
+package com.smartcity.smartcityserver.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Accounts and records the scenarios operate on. Seeded through the public API before the run so the
+ * server sees exactly the traffic it would in production, then mutated by the scenarios themselves.
+ */
+public class SeedData {
+
+    static final String[] COMPLAINT_TYPES = {"Road", "Water", "Electricity", "Garbage", "Streetlight"};
+    static final String[] BILL_TYPES = {"ELECTRICITY", "PARKING", "WATER_SUPPLY", "WASTE_MANAGEMENT"};
+    private static final int COMPLAINTS_PER_CITIZEN = 2;
+
+    /** A seeded citizen; the token is refreshed by the login scenario. */
+    public static final class Citizen {
+        final long userId;
+        final String email;
+        final String password;
+        volatile String token;
+
+        Citizen(long userId, String email, String password, String token) {
+            this.userId = userId;
+            this.email = email;
+            this.password = password;
+            this.token = token;
+        }
+    }
+
+    /** An unpaid bill and its owner. */
+    public record BillRef(Citizen owner, long billId) {
+    }
+
+    /** An open complaint; status changes need the full body because the endpoint validates it. */
+    public record ComplaintRef(long id, long userId, String complaintType, String description, boolean inProgress) {
+
+        ComplaintRef advanced() {
+            return new ComplaintRef(id, userId, complaintType, description, true);
+        }
+    }
+
+    final List<Citizen> citizens;
+    final String adminToken;
+    final ConcurrentLinkedQueue<BillRef> unpaidBills = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<ComplaintRef> openComplaints = new ConcurrentLinkedQueue<>();
+
+    private SeedData(List<Citizen> citizens, String adminToken) {
+        this.citizens = citizens;
+        this.adminToken = adminToken;
+    }
+
+    public static SeedData seed(ApiClient client, LoadTestConfig config) throws Exception {
+        String adminToken = login(client, config.adminEmail(), config.adminPassword());
+        // Unique per run so repeated runs against the same server do not collide on email
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Citizen>> signups = new ArrayList<>();
+            for (int i = 0; i < config.citizens(); i++) {
+                String email = "load-" + runId + "-" + i + "@smartcity.local";
+                signups.add(executor.submit(() -> signUp(client, email, "loadtest1")));
+            }
+            List<Citizen> citizens = new ArrayList<>();
+            for (Future<Citizen> signup : signups)
+                citizens.add(signup.get());
+
+            SeedData data = new SeedData(citizens, adminToken);
+            List<Future<?>> records = new ArrayList<>();
+            for (Citizen citizen : citizens) {
+                records.add(executor.submit(() -> {
+                    for (int b = 0; b < config.billsPerCitizen(); b++)
+                        data.unpaidBills.add(new BillRef(citizen, data.createBill(client, citizen.userId)));
+                    for (int c = 0; c < COMPLAINTS_PER_CITIZEN; c++)
+                        data.openComplaints.add(data.createComplaint(client, citizen));
+                    return null;
+                }));
+            }
+            for (Future<?> record : records)
+                record.get();
+            return data;
+        }
+    }
+
+    Citizen randomCitizen() {
+        return citizens.get(ThreadLocalRandom.current().nextInt(citizens.size()));
+    }
+
+    long createBill(ApiClient client, long userId) throws IOException, InterruptedException {
+        ApiClient.Response response = client.post("/admin/bills", adminToken, billBody(client, userId));
+        return expect(response, "create bill").get("billId").asLong();
+    }
+
+    ComplaintRef createComplaint(ApiClient client, Citizen citizen) throws IOException, InterruptedException {
+        ObjectNode body = complaintBody(client, citizen.userId);
+        JsonNode created = expect(client.post("/citizen/complaints", citizen.token, body), "create complaint");
+        return new ComplaintRef(created.get("id").asLong(), citizen.userId,
+                body.get("complaintType").asString(), body.get("description").asString(), false);
+    }
+
+    static ObjectNode billBody(ApiClient client, long userId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return client.object()
+                .put("userId", userId)
+                .put("billType", BILL_TYPES[random.nextInt(BILL_TYPES.length)])
+                .put("amount", Math.round(random.nextDouble(50, 5000) * 100) / 100.0);
+    }
+
+    static ObjectNode complaintBody(ApiClient client, long userId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return client.object()
+                .put("userId", userId)
+                .put("complaintType", COMPLAINT_TYPES[random.nextInt(COMPLAINT_TYPES.length)])
+                .put("description", "Load test complaint " + random.nextInt(1_000_000))
+                .put("address", random.nextInt(1, 500) + " Main Street");
+    }
+
+    static String login(ApiClient client, String email, String password) throws IOException, InterruptedException {
+        ObjectNode body = client.object().put("email", email).put("password", password);
+        return expect(client.post("/auth/login", null, body), "login as " + email).get("accessToken").asString();
+    }
+
+    private static Citizen signUp(ApiClient client, String email, String password) throws IOException, InterruptedException {
+        ObjectNode body = client.object()
+                .put("name", "Load Citizen")
+                .put("email", email)
+                .put("password", password);
+        long userId = expect(client.post("/auth/signup", null, body), "sign up " + email).get("id").asLong();
+        return new Citizen(userId, email, password, login(client, email, password));
+    }
+
+    private static JsonNode expect(ApiClient.Response response, String action) {
+        if (!response.isSuccess() || response.data() == null)
+            throw new IllegalStateException("Seeding failed to " + action + ": HTTP " + response.status());
+        return response.data();
+    }
+}
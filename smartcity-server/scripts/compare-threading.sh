@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Load comparison of platform vs virtual request threads on the citizen endpoints.
+#
+# Boots the packaged server once per threading mode against the database configured in
+# application-dev.yml, signs up a throwaway citizen, and drives the citizen read endpoints
+# with wrk at increasing connection counts. Prints one summary line per run.
+#
+# Usage: scripts/compare-threading.sh [jar] [duration]
+# Requires: java 21+, wrk, curl, python3, and the usual DB_*/JWT_SECRET/FRONTEND_URL variables.
+set -euo pipefail
+
+JAR=${1:-target/smartcity-server-0.0.1-SNAPSHOT-exec.jar}
+DURATION=${2:-30s}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}/api"
+CONNECTIONS=(64 256 1024)
+ENDPOINTS=(/citizen/complaints /citizen/bills /citizen/contacts)
+
+command -v wrk >/dev/null || { echo "wrk is required" >&2; exit 1; }
+
+wait_until_ready() {
+  for _ in $(seq 1 120); do
+    curl -sf "${BASE_URL}/actuator/health/readiness" >/dev/null && return 0
+    sleep 1
+  done
+  echo "server did not become ready" >&2
+  return 1
+}
+
+login() {
+  local email="loadtest-$(date +%s%N)@smartcity.local"
+  curl -sf -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Load Test\",\"email\":\"${email}\",\"password\":\"secret123\"}" \
+    "${BASE_URL}/auth/signup" >/dev/null
+  curl -sf -H 'Content-Type: application/json' \
+    -d "{\"email\":\"${email}\",\"password\":\"secret123\"}" "${BASE_URL}/auth/login" \
+    | python3 -c 'import json,sys; print(json.load(sys.stdin)["data"]["accessToken"])'
+}
+
+printf '%-9s %-22s %6s %12s %10s %10s\n' mode endpoint conns req/s p50 p99
+for mode in platform virtual; do
+  enabled=false; [ "$mode" = virtual ] && enabled=true
+  java -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$enabled" >"target/threading-${mode}.log" 2>&1 &
+  pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  wait_until_ready
+  token=$(login)
+  for endpoint in "${ENDPOINTS[@]}"; do
+    for conns in "${CONNECTIONS[@]}"; do
+      out=$(wrk -t4 -c"$conns" -d"$DURATION" --latency -H "Authorization: Bearer ${token}" "${BASE_URL}${endpoint}")
+      rps=$(awk '/Requests\/sec/ {print $2}' <<<"$out")
+      p50=$(awk '$1=="50%" {print $2}' <<<"$out")
+      p99=$(awk '$1=="99%" {print $2}' <<<"$out")
+      printf '%-9s %-22s %6s %12s %10s %10s\n' "$mode" "$endpoint" "$conns" "$rps" "$p50" "$p99"
+    done
+  done
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+done
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Time-to-first-request of the regular JVM start vs. the fast-startup build (AOT + CDS archive).
+#
+# Both modes run the same extracted jar from target/cds on the in-memory database; the fast mode
+# adds the AOT-generated context and the class-data-sharing archive from the training run.
+# The clock starts at process launch and stops at the first successful readiness probe.
+#
+# Usage: mvn -Pfast-startup package && scripts/measure-startup.sh [runs]
+# Requires: the same java 21+ that ran the build (CDS archives are JVM-specific), curl.
+set -euo pipefail
+
+RUNS=${1:-5}
+CDS_DIR=${CDS_DIR:-target/cds}
+JAR=${JAR:-smartcity-server-0.0.1-SNAPSHOT-exec.jar}
+PROFILES=${PROFILES:-dev,embedded}
+PORT=${PORT:-8080}
+READY_URL="http://localhost:${PORT}/api/actuator/health/readiness"
+
+[ -f "${CDS_DIR}/application.jsa" ] || { echo "${CDS_DIR}/application.jsa missing, build with -Pfast-startup" >&2; exit 1; }
+
+# Prints milliseconds from launch to the first 200 from the readiness probe
+time_to_first_request() {
+  local start pid
+  start=$(date +%s%N)
+  (cd "$CDS_DIR" && exec java "$@" -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$PROFILES") \
+    >"target/startup-$(date +%s%N).log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$READY_URL"; do
+    kill -0 "$pid" 2>/dev/null || { echo "server exited during startup" >&2; return 1; }
+    sleep 0.02
+  done
+  echo $(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+median() {
+  sort -n | awk '{v[NR]=$1} END {print (NR % 2) ? v[(NR+1)/2] : int((v[NR/2] + v[NR/2+1]) / 2)}'
+}
+
+printf '%-8s %s\n' mode "median ms over ${RUNS} run(s)"
+regular=$(for _ in $(seq 1 "$RUNS"); do time_to_first_request; done | median)
+printf '%-8s %s\n' regular "$regular"
+fast=$(for _ in $(seq 1 "$RUNS"); do time_to_first_request -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true; done | median)
+printf '%-8s %s\n' fast "$fast"
+awk -v r="$regular" -v f="$fast" 'BEGIN {printf "speed-up  %.2fx\n", r / f}'
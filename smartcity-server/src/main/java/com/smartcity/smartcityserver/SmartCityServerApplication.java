@@ -3,13 +3,19 @@ package com.smartcity.smartcityserver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 @Slf4j
 public class SmartCityServerApplication {
 
+	// Enough for every bean of the context; read by StartupReport and /actuator/startup
+	private static final int STARTUP_STEP_CAPACITY = 8192;
+
 	public static void main(String[] args) {
-		SpringApplication.run(SmartCityServerApplication.class, args);
+		SpringApplication application = new SpringApplication(SmartCityServerApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		application.run(args);
 		log.info("Smart City Application is Running !");
 	}
 
@@ -1,5 +1,6 @@
 package com.smartcity.smartcityserver.advice;
 
+import com.smartcity.smartcityserver.utils.CachedClock;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -11,7 +12,7 @@ public class APIResponse <T>{
     private LocalDateTime timeStamp;
 
     APIResponse(){
-        timeStamp = LocalDateTime.now();
+        timeStamp = CachedClock.now();
     }
 
     APIResponse(T data) {
@@ -0,0 +1,120 @@
+package com.smartcity.smartcityserver.advice;
+
+import com.smartcity.smartcityserver.metrics.RequestTimings;
+import com.smartcity.smartcityserver.utils.CachedClock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import tools.jackson.core.JsonEncoding;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes controller bodies as {"data":...,"timeStamp":...} straight onto the response stream.
+ * <p>
+ * Replaces wrapping every body in a new {@link APIResponse}: the payload is serialised once
+ * inside the envelope, the timestamp comes from {@link CachedClock}, and empty bodies
+ * (e.g. {@code ResponseEntity<Void>}) never reach a converter so they stay empty.
+ * Error bodies are already {@link APIResponse} instances and go through the default converter.
+ * Only bodies returned by this application's controllers are wrapped: actuator endpoints and
+ * Boot's {@code /error} controller keep the shape their clients expect.
+ * <p>
+ * This bean writes JSON and is ordered first, so clients that accept anything still get JSON.
+ * {@link com.smartcity.smartcityserver.config.BinaryFormatConfig} adds CBOR and Smile instances
+ * that write the same envelope.
+ */
+@Component
+@Primary
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EnvelopeHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final String APPLICATION_PACKAGE = "com.smartcity.smartcityserver";
+
+    private final ObjectMapper mapper;
+
+    @Autowired
+    public EnvelopeHttpMessageConverter(JsonMapper jsonMapper) {
+        this(jsonMapper, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    public EnvelopeHttpMessageConverter(ObjectMapper mapper, MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return !APIResponse.class.isAssignableFrom(clazz)
+                && !CharSequence.class.isAssignableFrom(clazz)
+                && !byte[].class.equals(clazz)
+                && !Resource.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return super.canWrite(clazz, mediaType) && isApplicationHandler();
+    }
+
+    // The handler the current request was mapped to, including after an error dispatch
+    private static boolean isApplicationHandler() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return false;
+        Object handler = attributes.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod method
+                && method.getBeanType().getPackageName().startsWith(APPLICATION_PACKAGE);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        // Request bodies are plain DTOs; leave them to the default Jackson converter
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Envelope converter does not read request bodies", inputMessage);
+    }
+
+    // The same URL now has several representations; keep shared caches from mixing them up
+    @Override
+    protected void addDefaultHeaders(HttpHeaders headers, Object body, MediaType contentType) {
+        super.addDefaultHeaders(headers, body, contentType);
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT))
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        long startedAt = System.nanoTime();
+        writeTo(body, outputMessage.getBody());
+        RequestTimings.addSerialization(System.nanoTime() - startedAt);
+    }
+
+    public void writeTo(Object body, OutputStream out) {
+        try (JsonGenerator generator = mapper.createGenerator(StreamUtils.nonClosing(out), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeName("data");
+            mapper.writeValue(generator, body);
+            generator.writeStringProperty("timeStamp", CachedClock.isoNow());
+            generator.writeEndObject();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.smartcity.smartcityserver.exception.*;
 import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -39,6 +40,28 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<APIResponse<?>> handleInvalidFields(InvalidFieldsException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(BillImportException.class)
+    public ResponseEntity<APIResponse<?>> handleBillImport(BillImportException ex) {
+        log.warn("Bill import rejected: {}", ex.getMessage());
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(TariffNotDefinedException.class)
+    public ResponseEntity<APIResponse<?>> handleTariffNotDefined(TariffNotDefinedException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(UnknownTenantException.class)
+    public ResponseEntity<APIResponse<?>> handleUnknownTenant(UnknownTenantException ex) {
+        log.warn("Unknown tenant: {}", ex.getMessage());
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<APIResponse<?>> handleInvalidCredentials(InvalidCredentialsException ex) {
         log.warn("Invalid credentials: {}", ex.getMessage());
@@ -46,6 +69,23 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<APIResponse<?>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        APIError error = new APIError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new APIResponse<>(error));
+    }
+
+
+    // Only thrown with smartcity.sql-budget.fail-on-violation, i.e. in tests
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<APIResponse<?>> handleSqlBudgetExceeded(SqlBudgetExceededException ex) {
+        log.error("SQL budget exceeded: {}", ex.getMessage());
+        return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    }
+
     @ExceptionHandler(JwtException.class)
     public ResponseEntity<APIResponse<?>> handleJWTException(JwtException ex) {
         log.warn("JWT error: {}", ex.getMessage());
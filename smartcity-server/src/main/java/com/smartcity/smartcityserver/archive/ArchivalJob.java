@@ -0,0 +1,201 @@
+package com.smartcity.smartcityserver.archive;
+
+import com.smartcity.smartcityserver.archive.ArchiveTable.Column;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Moves aged rows out of the hot tables: each batch is written to month-partitioned archive chunks
+ * first and only then deleted, so a crash in between leaves a row in both places (the hot copy wins
+ * on reads and the next run archives it again).
+ * <p>
+ * Off unless enabled, and then only with an explicit {@code smartcity.archive.dir}: the rows exist
+ * nowhere else once deleted, so the directory must be durable and shared by every instance that
+ * serves archive reads. Runs take a lease row in {@code job_locks}, so only one instance archives
+ * a city at a time.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "smartcity.archive.enabled", havingValue = "true")
+public class ArchivalJob {
+
+    private static final String LOCK_NAME = "archival";
+    private static final String TAKE_OVER_SQL = "UPDATE job_locks SET owner = ?, locked_until = ? WHERE name = ? AND locked_until < ?";
+    private static final String INSERT_LOCK_SQL = "INSERT INTO job_locks (name, owner, locked_until) VALUES (?, ?, ?)";
+    private static final String RELEASE_SQL = "UPDATE job_locks SET locked_until = 0 WHERE name = ? AND owner = ?";
+
+    private final ArchiveStore archiveStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersionService resourceVersionService;
+    private final TenantRegistry tenants;
+    private final Map<ArchiveTable, Long> retentionDays;
+    private final int batchSize;
+    private final int maxRowsPerRun;
+    private final long leaseMs;
+    private final String owner = UUID.randomUUID().toString();
+    private final Map<ArchiveTable, Counter> archived = new EnumMap<>(ArchiveTable.class);
+
+    public ArchivalJob(@Lazy ArchiveStore archiveStore,
+                       JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       ResourceVersionService resourceVersionService,
+                       TenantRegistry tenants,
+                       @Value("${smartcity.archive.complaint-retention-days:90}") long complaintRetentionDays,
+                       @Value("${smartcity.archive.contact-retention-days:180}") long contactRetentionDays,
+                       @Value("${smartcity.archive.batch-size:1000}") int batchSize,
+                       @Value("${smartcity.archive.max-rows-per-run:100000}") int maxRowsPerRun,
+                       @Value("${smartcity.archive.dir:}") String dir,
+                       @Value("${smartcity.archive.lease-minutes:180}") long leaseMinutes,
+                       MeterRegistry meterRegistry) {
+        if (dir.isBlank())
+            throw new IllegalStateException("smartcity.archive.dir must be set when archival is enabled");
+        if (!Path.of(dir).isAbsolute())
+            log.warn("Archive directory {} is relative; archived rows are lost if it is not on durable storage", dir);
+        this.archiveStore = archiveStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceVersionService = resourceVersionService;
+        this.tenants = tenants;
+        this.retentionDays = Map.of(ArchiveTable.COMPLAINTS, complaintRetentionDays, ArchiveTable.CONTACTS, contactRetentionDays);
+        this.batchSize = batchSize;
+        this.maxRowsPerRun = maxRowsPerRun;
+        this.leaseMs = TimeUnit.MINUTES.toMillis(leaseMinutes);
+        for (ArchiveTable table : ArchiveTable.values()) {
+            archived.put(table, Counter.builder("smartcity.archive.rows").tag("table", table.getTableName()).register(meterRegistry));
+            Gauge.builder("smartcity.archive.size", archiveStore, store -> store.size(table))
+                    .tag("table", table.getTableName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(cron = "${smartcity.archive.cron:0 30 3 * * *}")
+    public void run() {
+        // Each city's rows go to that city's archive tree
+        tenants.forEach(() -> {
+            if (!tryLock()) {
+                log.info("Archival of tenant {} is running on another instance, skipping", tenants.current());
+                return;
+            }
+            try {
+                for (ArchiveTable table : ArchiveTable.values()) {
+                    try {
+                        int moved = archive(table);
+                        if (moved > 0)
+                            log.info("Archived {} row(s) from {} of tenant {}", moved, table.getTableName(), tenants.current());
+                    } catch (IOException | RuntimeException ex) {
+                        log.error("Archival of {} for tenant {} failed: {}", table.getTableName(), tenants.current(), ex.getMessage(), ex);
+                    }
+                }
+            } finally {
+                jdbcTemplate.update(RELEASE_SQL, LOCK_NAME, owner);
+            }
+        });
+    }
+
+    // The lease outlives a crashed run, so the next scheduled run elsewhere can take it over
+    private boolean tryLock() {
+        long now = System.currentTimeMillis();
+        if (jdbcTemplate.update(TAKE_OVER_SQL, owner, now + leaseMs, LOCK_NAME, now) == 1)
+            return true;
+        try {
+            return jdbcTemplate.update(INSERT_LOCK_SQL, LOCK_NAME, owner, now + leaseMs) == 1;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    private int archive(ArchiveTable table) throws IOException {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retentionDays.get(table), ChronoUnit.DAYS));
+        String columns = table.getColumns().stream().map(Column::name).collect(Collectors.joining(", "));
+        String condition = (table.getFilter() == null ? "" : table.getFilter() + " AND ") + table.getAgeColumn() + " < ?";
+        String selectSql = "SELECT " + columns + " FROM " + table.getTableName() + " WHERE " + condition + " ORDER BY id LIMIT ?";
+        // The condition is checked again so rows changed since they were read stay in the hot table
+        String deleteSql = "DELETE FROM " + table.getTableName() + " WHERE id = ? AND " + condition;
+        int partitionIndex = table.columnIndex(table.getPartitionColumn());
+        String runId = String.format("%013d", System.currentTimeMillis());
+
+        int moved = 0;
+        int chunkNo = 0;
+        while (moved < maxRowsPerRun) {
+            List<Object[]> batch = jdbcTemplate.query(selectSql, (rs, n) -> readRow(rs, table.getColumns()), cutoff, batchSize);
+            if (batch.isEmpty())
+                break;
+
+            Map<YearMonth, List<Object[]>> byMonth = new TreeMap<>();
+            for (Object[] row : batch) {
+                YearMonth month = YearMonth.from(Instant.ofEpochMilli((Long) row[partitionIndex]).atZone(ZoneId.systemDefault()));
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(row);
+            }
+            for (Map.Entry<YearMonth, List<Object[]>> partition : byMonth.entrySet())
+                archiveStore.append(table, partition.getKey(), String.format("%s-%05d", runId, chunkNo++), partition.getValue());
+
+            delete(table, deleteSql, batch, cutoff);
+            archived.get(table).increment(batch.size());
+            moved += batch.size();
+            if (batch.size() < batchSize)
+                break;
+        }
+        return moved;
+    }
+
+    private void delete(ArchiveTable table, String deleteSql, List<Object[]> batch, Timestamp cutoff) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(deleteSql, batch, batch.size(), (ps, row) -> {
+                ps.setLong(1, (Long) row[0]);
+                ps.setTimestamp(2, cutoff);
+            });
+            // Hot-table list responses change for every owner touched
+            Resource resource = table == ArchiveTable.COMPLAINTS ? Resource.COMPLAINTS : Resource.CONTACTS;
+            batch.stream()
+                    .map(row -> (Long) row[1])
+                    .distinct()
+                    .forEach(userId -> resourceVersionService.markChanged(resource, userId));
+        });
+    }
+
+    private static Object[] readRow(ResultSet rs, List<Column> columns) throws SQLException {
+        Object[] row = new Object[columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            Column column = columns.get(c);
+            switch (column.type()) {
+                case LONG -> {
+                    long value = rs.getLong(c + 1);
+                    row[c] = rs.wasNull() ? null : value;
+                }
+                case TIMESTAMP -> {
+                    Timestamp value = rs.getTimestamp(c + 1);
+                    row[c] = value == null ? null : value.getTime();
+                }
+                case STRING -> row[c] = rs.getString(c + 1);
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,227 @@
+package com.smartcity.smartcityserver.archive;
+
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Local cold storage for archived rows: {@code <dir>/<table>/<yyyy-MM>/<chunk>.col.gz}.
+ * Tenants other than the default one get their own tree under {@code <dir>/tenants/<tenant>}, and
+ * reads only see the current tenant's rows.
+ * <p>
+ * Chunks are immutable. An in-memory index maps each archived id to the newest chunk holding it
+ * and each user to the chunks holding their rows, so lookups decode only the chunks they need.
+ * <p>
+ * Other instances append to the same directory. List reads and id lookups that miss rescan the table
+ * directory first and index the chunks not seen yet, so rows archived elsewhere show up as soon as the
+ * hot rows are gone. The scan lists file names only; known chunks are not opened again.
+ * <p>
+ * Building the index reads every chunk, so the store is lazy: it is created on the first archive read
+ * or archival run instead of delaying startup. Inject it with {@code @Lazy}.
+ */
+@Component
+@Lazy
+@Slf4j
+public class ArchiveStore {
+
+    private static final String CHUNK_SUFFIX = ".col.gz";
+    private static final int DECODED_CACHE_SIZE = 16;
+    // id and user_id
+    private static final int KEY_COLUMNS = 2;
+
+    // Null when no archive directory is configured; the store is then empty
+    private final Path root;
+    private final TenantRegistry tenants;
+    // tenant -> table -> index
+    private final Map<String, Map<ArchiveTable, TableIndex>> indexes = new HashMap<>();
+
+    // Recently decoded chunks; archive reads tend to hit the same month repeatedly
+    private final Map<Path, List<Object[]>> decoded = new LinkedHashMap<>(DECODED_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, List<Object[]>> eldest) {
+            return size() > DECODED_CACHE_SIZE;
+        }
+    };
+
+    public ArchiveStore(@Value("${smartcity.archive.dir:}") String dir, TenantRegistry tenants) {
+        this.root = dir.isBlank() ? null : Path.of(dir);
+        this.tenants = tenants;
+        for (String tenantId : tenants.ids()) {
+            Map<ArchiveTable, TableIndex> tables = new EnumMap<>(ArchiveTable.class);
+            for (ArchiveTable table : ArchiveTable.values())
+                tables.put(table, new TableIndex());
+            indexes.put(tenantId, tables);
+        }
+    }
+
+    @PostConstruct
+    public void loadIndexes() throws IOException {
+        if (root == null)
+            return;
+        for (String tenantId : tenants.ids()) {
+            for (ArchiveTable table : ArchiveTable.values()) {
+                TableIndex index = indexes.get(tenantId).get(table);
+                int chunks = scan(tenantId, table, index);
+                log.info("Archive index for {} of tenant {} loaded: {} row(s) in {} chunk(s)", table, tenantId, index.byId.size(), chunks);
+            }
+        }
+    }
+
+    // Indexes the chunks of the table not indexed yet, whichever instance wrote them
+    private int scan(String tenantId, ArchiveTable table, TableIndex index) throws IOException {
+        Path dir = rootOf(tenantId).resolve(table.directoryName());
+        index.scanLock.lock();
+        try {
+            Files.createDirectories(dir);
+            List<Path> chunks;
+            try (Stream<Path> files = Files.walk(dir)) {
+                chunks = files.filter(p -> p.getFileName().toString().endsWith(CHUNK_SUFFIX))
+                        .filter(p -> !index.chunks.contains(p))
+                        .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                        .toList();
+            }
+            for (Path chunk : chunks)
+                index(index, chunk, ColumnarArchiveFile.read(chunk, KEY_COLUMNS));
+            if (!chunks.isEmpty())
+                log.debug("Indexed {} new archive chunk(s) of {} for tenant {}", chunks.size(), table, tenantId);
+            return chunks.size();
+        } finally {
+            index.scanLock.unlock();
+        }
+    }
+
+    /**
+     * Writes rows into a new chunk of the given month partition. The chunk is fsynced and renamed
+     * into place before this returns, so callers may delete the hot rows afterwards.
+     */
+    public void append(ArchiveTable table, YearMonth month, String chunkName, List<Object[]> rows) throws IOException {
+        if (root == null)
+            throw new IllegalStateException("No archive directory configured");
+        Path dir = rootOf(tenants.current()).resolve(table.directoryName()).resolve(month.toString());
+        Files.createDirectories(dir);
+        Path chunk = dir.resolve(chunkName + CHUNK_SUFFIX);
+        Path tmp = dir.resolve(chunkName + ".tmp");
+        ColumnarArchiveFile.write(tmp, table.getColumns(), rows);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, chunk, StandardCopyOption.ATOMIC_MOVE);
+        index(indexOf(table), chunk, rows);
+    }
+
+    public Optional<Object[]> findById(ArchiveTable table, long id) {
+        Path chunk = indexOf(table).byId.get(id);
+        // Possibly archived by another instance since the last scan
+        if (chunk == null)
+            chunk = rescanned(table).byId.get(id);
+        if (chunk == null)
+            return Optional.empty();
+        return rowsOf(table, chunk).stream().filter(row -> row[0].equals(id)).findFirst();
+    }
+
+    public List<Object[]> findByUserId(ArchiveTable table, long userId) {
+        TableIndex index = rescanned(table);
+        Set<Path> chunks = index.byUser.getOrDefault(userId, Set.of());
+        List<Object[]> rows = new ArrayList<>();
+        for (Path chunk : chunks)
+            for (Object[] row : rowsOf(table, chunk))
+                if (row[1].equals(userId) && chunk.equals(index.byId.get((Long) row[0])))
+                    rows.add(row);
+        rows.sort(Comparator.comparing(row -> (Long) row[0]));
+        return rows;
+    }
+
+    public List<Object[]> findAll(ArchiveTable table) {
+        TableIndex index = rescanned(table);
+        Set<Path> chunks = new TreeSet<>(index.byId.values());
+        List<Object[]> rows = new ArrayList<>();
+        for (Path chunk : chunks)
+            for (Object[] row : rowsOf(table, chunk))
+                if (chunk.equals(index.byId.get((Long) row[0])))
+                    rows.add(row);
+        rows.sort(Comparator.comparing(row -> (Long) row[0]));
+        return rows;
+    }
+
+    /**
+     * @return archived rows of the table across all tenants
+     */
+    public int size(ArchiveTable table) {
+        return indexes.values().stream().mapToInt(tables -> tables.get(table).byId.size()).sum();
+    }
+
+    private Path rootOf(String tenantId) {
+        return tenantId.equals(tenants.defaultTenant()) ? root : root.resolve("tenants").resolve(tenantId);
+    }
+
+    private TableIndex indexOf(ArchiveTable table) {
+        return indexes.get(tenants.current()).get(table);
+    }
+
+    private TableIndex rescanned(ArchiveTable table) {
+        TableIndex index = indexOf(table);
+        if (root == null)
+            return index;
+        try {
+            scan(tenants.current(), table, index);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not scan archive of " + table, ex);
+        }
+        return index;
+    }
+
+    private void index(TableIndex index, Path chunk, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            // Chunk names sort in write order, so a newer copy of an id wins whichever chunk is indexed first
+            index.byId.merge((Long) row[0], chunk, (indexed, added) ->
+                    added.getFileName().toString().compareTo(indexed.getFileName().toString()) > 0 ? added : indexed);
+            index.byUser.computeIfAbsent((Long) row[1], id -> ConcurrentHashMap.newKeySet()).add(chunk);
+        }
+        index.chunks.add(chunk);
+    }
+
+    private List<Object[]> rowsOf(ArchiveTable table, Path chunk) {
+        synchronized (decoded) {
+            List<Object[]> rows = decoded.get(chunk);
+            if (rows != null)
+                return rows;
+        }
+        try {
+            // Chunks written before a column was added hold fewer columns; the missing ones read as null
+            int width = table.getColumns().size();
+            List<Object[]> rows = ColumnarArchiveFile.read(chunk, Integer.MAX_VALUE).stream()
+                    .map(row -> row.length < width ? Arrays.copyOf(row, width) : row)
+                    .toList();
+            synchronized (decoded) {
+                decoded.put(chunk, rows);
+            }
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read archive chunk " + chunk, ex);
+        }
+    }
+
+    private static class TableIndex {
+        final Map<Long, Path> byId = new ConcurrentHashMap<>();
+        final Map<Long, Set<Path>> byUser = new ConcurrentHashMap<>();
+        final Set<Path> chunks = ConcurrentHashMap.newKeySet();
+        // Scans read files; a lock rather than a monitor keeps virtual threads unpinned
+        final ReentrantLock scanLock = new ReentrantLock();
+    }
+}
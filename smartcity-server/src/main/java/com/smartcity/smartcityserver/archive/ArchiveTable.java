@@ -0,0 +1,71 @@
+package com.smartcity.smartcityserver.archive;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Hot tables that are moved to cold storage, and the columns that are kept.
+ * The first two columns are always {@code id} and {@code user_id}; the archive indexes both.
+ * New columns go at the end: chunks written before they existed are read with those columns null.
+ */
+@Getter
+public enum ArchiveTable {
+
+    COMPLAINTS("complaints", "status IN ('RESOLVED', 'REJECTED')", "updated_at", "created_at", List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("user_id", ColumnType.LONG),
+            new Column("complaint_type", ColumnType.STRING),
+            new Column("description", ColumnType.STRING),
+            new Column("attachment_url", ColumnType.STRING),
+            new Column("address", ColumnType.STRING),
+            new Column("status", ColumnType.STRING),
+            new Column("priority", ColumnType.STRING),
+            new Column("created_at", ColumnType.TIMESTAMP),
+            new Column("updated_at", ColumnType.TIMESTAMP),
+            new Column("status_changed_at", ColumnType.TIMESTAMP),
+            new Column("escalated_at", ColumnType.TIMESTAMP),
+            new Column("sla_breached_at", ColumnType.TIMESTAMP))),
+
+    CONTACTS("contact", null, "submitted_at", "submitted_at", List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("user_id", ColumnType.LONG),
+            new Column("name", ColumnType.STRING),
+            new Column("email", ColumnType.STRING),
+            new Column("phone_number", ColumnType.STRING),
+            new Column("message", ColumnType.STRING),
+            new Column("submitted_at", ColumnType.TIMESTAMP),
+            new Column("journal_sequence", ColumnType.LONG),
+            new Column("journal_instance", ColumnType.STRING)));
+
+    private final String tableName;
+    // Extra condition a row must meet to be archived, may be null
+    private final String filter;
+    // Rows older than the retention period by this column are archived
+    private final String ageColumn;
+    // Month partition is taken from this column
+    private final String partitionColumn;
+    private final List<Column> columns;
+
+    ArchiveTable(String tableName, String filter, String ageColumn, String partitionColumn, List<Column> columns) {
+        this.tableName = tableName;
+        this.filter = filter;
+        this.ageColumn = ageColumn;
+        this.partitionColumn = partitionColumn;
+        this.columns = columns;
+    }
+
+    public int columnIndex(String name) {
+        for (int i = 0; i < columns.size(); i++)
+            if (columns.get(i).name().equals(name))
+                return i;
+        throw new IllegalArgumentException("No column " + name + " in " + tableName);
+    }
+
+    public String directoryName() {
+        return name().toLowerCase();
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartcity.smartcityserver.archive;
+
+public enum ColumnType {
+    // Delta + zigzag varint encoded
+    LONG,
+    // Epoch millis, encoded like LONG so sorted timestamps shrink to a few bytes each
+    TIMESTAMP,
+    // Dictionary encoded: distinct values once, then a varint index per row
+    STRING
+}
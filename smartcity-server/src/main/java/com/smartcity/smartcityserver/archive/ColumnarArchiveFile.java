@@ -0,0 +1,140 @@
+package com.smartcity.smartcityserver.archive;
+
+import com.smartcity.smartcityserver.archive.ArchiveTable.Column;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes one archive chunk: gzip-compressed, column after column.
+ * <p>
+ * Layout: {@code magic, rowCount, columnCount, (name, type)*} followed by one block per column,
+ * each starting with a null bitmap. Because {@code id} and {@code user_id} come first, building
+ * the lookup index only decompresses the front of each file.
+ */
+public final class ColumnarArchiveFile {
+
+    private static final int MAGIC = 0x53434131; // "SCA1"
+
+    private ColumnarArchiveFile() {
+    }
+
+    public static void write(Path file, List<Column> columns, List<Object[]> rows) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows.size());
+            out.writeInt(columns.size());
+            for (Column column : columns) {
+                out.writeUTF(column.name());
+                out.writeByte(column.type().ordinal());
+            }
+            for (int c = 0; c < columns.size(); c++)
+                writeColumn(out, columns.get(c).type(), rows, c);
+        }
+    }
+
+    /**
+     * Reads the first {@code columnLimit} columns of every row; later columns are left null.
+     */
+    public static List<Object[]> read(Path file, int columnLimit) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not an archive chunk: " + file);
+            int rowCount = in.readInt();
+            int columnCount = in.readInt();
+            ColumnType[] types = new ColumnType[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                in.readUTF();
+                types[c] = ColumnType.values()[in.readByte()];
+            }
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++)
+                rows.add(new Object[columnCount]);
+            for (int c = 0; c < Math.min(columnLimit, columnCount); c++)
+                readColumn(in, types[c], rows, c);
+            return rows;
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, ColumnType type, List<Object[]> rows, int c) throws IOException {
+        BitSet nulls = new BitSet(rows.size());
+        for (int r = 0; r < rows.size(); r++)
+            if (rows.get(r)[c] == null)
+                nulls.set(r);
+        byte[] bitmap = nulls.toByteArray();
+        writeVarLong(out, bitmap.length);
+        out.write(bitmap);
+
+        if (type == ColumnType.STRING) {
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            for (Object[] row : rows)
+                if (row[c] != null)
+                    dictionary.putIfAbsent((String) row[c], dictionary.size());
+            writeVarLong(out, dictionary.size());
+            for (String value : dictionary.keySet())
+                out.writeUTF(value);
+            for (Object[] row : rows)
+                if (row[c] != null)
+                    writeVarLong(out, dictionary.get(row[c]));
+            return;
+        }
+        long previous = 0;
+        for (Object[] row : rows) {
+            if (row[c] == null)
+                continue;
+            long value = (Long) row[c];
+            long delta = value - previous;
+            writeVarLong(out, (delta << 1) ^ (delta >> 63));
+            previous = value;
+        }
+    }
+
+    private static void readColumn(DataInputStream in, ColumnType type, List<Object[]> rows, int c) throws IOException {
+        byte[] bitmap = new byte[(int) readVarLong(in)];
+        in.readFully(bitmap);
+        BitSet nulls = BitSet.valueOf(bitmap);
+
+        if (type == ColumnType.STRING) {
+            String[] dictionary = new String[(int) readVarLong(in)];
+            for (int i = 0; i < dictionary.length; i++)
+                dictionary[i] = in.readUTF();
+            for (int r = 0; r < rows.size(); r++)
+                if (!nulls.get(r))
+                    rows.get(r)[c] = dictionary[(int) readVarLong(in)];
+            return;
+        }
+        long previous = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            if (nulls.get(r))
+                continue;
+            long zigzag = readVarLong(in);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            rows.get(r)[c] = previous;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint in archive chunk");
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartcity.smartcityserver.archive;
+
+import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to archived complaints, mapped back to {@link ComplaintDTO}.
+ */
+@Component
+public class ComplaintArchive {
+
+    private static final ArchiveTable TABLE = ArchiveTable.COMPLAINTS;
+
+    private final ArchiveStore archiveStore;
+
+    public ComplaintArchive(@Lazy ArchiveStore archiveStore) {
+        this.archiveStore = archiveStore;
+    }
+
+    public Optional<ComplaintDTO> findById(Long id) {
+        return archiveStore.findById(TABLE, id).map(ComplaintArchive::toDTO);
+    }
+
+    public List<ComplaintDTO> findByUserId(Long userId) {
+        return archiveStore.findByUserId(TABLE, userId).stream().map(ComplaintArchive::toDTO).toList();
+    }
+
+    public List<ComplaintDTO> findAll() {
+        return archiveStore.findAll(TABLE).stream().map(ComplaintArchive::toDTO).toList();
+    }
+
+    private static ComplaintDTO toDTO(Object[] row) {
+        ComplaintDTO dto = new ComplaintDTO();
+        dto.setId((Long) row[TABLE.columnIndex("id")]);
+        dto.setUserId((Long) row[TABLE.columnIndex("user_id")]);
+        dto.setComplaintType((String) row[TABLE.columnIndex("complaint_type")]);
+        dto.setDescription((String) row[TABLE.columnIndex("description")]);
+        dto.setAttachmentUrl((String) row[TABLE.columnIndex("attachment_url")]);
+        dto.setAddress((String) row[TABLE.columnIndex("address")]);
+        dto.setStatus(ComplaintStatus.valueOf((String) row[TABLE.columnIndex("status")]));
+        String priority = (String) row[TABLE.columnIndex("priority")];
+        dto.setPriority(priority == null ? null : Priority.valueOf(priority));
+        dto.setCreatedAt(toDateTime((Long) row[TABLE.columnIndex("created_at")]));
+        dto.setUpdatedAt(toDateTime((Long) row[TABLE.columnIndex("updated_at")]));
+        dto.setEscalatedAt(toDateTime((Long) row[TABLE.columnIndex("escalated_at")]));
+        dto.setSlaBreachedAt(toDateTime((Long) row[TABLE.columnIndex("sla_breached_at")]));
+        return dto;
+    }
+
+    private static LocalDateTime toDateTime(Long epochMillis) {
+        return epochMillis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
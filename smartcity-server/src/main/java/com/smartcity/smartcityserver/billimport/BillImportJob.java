@@ -0,0 +1,404 @@
+package com.smartcity.smartcityserver.billimport;
+
+import com.smartcity.smartcityserver.billimport.CsvChunkReader.Chunk;
+import com.smartcity.smartcityserver.dunning.BillDunningScheduler;
+import com.smartcity.smartcityserver.entity.BillImport;
+import com.smartcity.smartcityserver.entity.enums.BillImportStatus;
+import com.smartcity.smartcityserver.repositoriy.BillImportRepository;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.service.TariffService;
+import com.smartcity.smartcityserver.tariff.CompiledTariffs;
+import com.smartcity.smartcityserver.tenant.TenantContext;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports uploaded meter-reading files into {@code bills}. One thread reads the file in chunks of
+ * whole lines, a fixed pool validates the chunks in parallel and prices each one as a batch with the
+ * active {@link CompiledTariffs}, and the reading thread
+ * commits them strictly in file order: one JDBC batch insert per chunk, in the same transaction as
+ * the import's checkpoint. A restarted import therefore continues after the last committed chunk
+ * without duplicating or losing bills.
+ * <p>
+ * Rejected lines go to a side file next to the upload. The file is written before the chunk commits
+ * and cut back to its checkpointed length on resume, so it lists every rejected line exactly once.
+ * <p>
+ * Imports run one at a time. Files live in a local directory, so only the instance that received an
+ * upload can run or resume it. Tenants other than the default one keep their files under
+ * {@code <dir>/tenants/<tenant>}, since import ids are only unique within a city's database.
+ */
+@Component
+@Slf4j
+public class BillImportJob {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO bills (bill_type, user_id, amount, paid, created_at, due_date) VALUES (?, ?, ?, false, ?, ?)";
+    private static final String CHECKPOINT_SQL =
+            "UPDATE bill_imports SET committed_offset = ?, committed_lines = ?, rows_imported = rows_imported + ?, "
+                    + "rows_rejected = rows_rejected + ?, rejected_bytes = ?, updated_at = ? WHERE id = ?";
+    private static final String STATUS_SQL = "UPDATE bill_imports SET status = ?, last_error = ?, updated_at = ? WHERE id = ?";
+    private static final String REJECTED_HEADER = "line,reason,content\n";
+    private static final String BILL_QUERY_REGION = "bill-queries";
+
+    /**
+     * A chunk after validation.
+     *
+     * @param amounts  price of each reading, by index
+     * @param rejected lines of the rejected-lines file, already CSV-formatted
+     */
+    private record ValidatedChunk(Chunk chunk, List<MeterReading> readings, double[] amounts, List<String> rejected) {
+    }
+
+    private final BillImportRepository billImportRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersionService resourceVersionService;
+    private final TariffService tariffService;
+    private final BillDunningScheduler billDunningScheduler;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TenantRegistry tenants;
+    private final Path dir;
+    private final int bufferSize;
+    private final int chunkRows;
+    private final int maxChunksInFlight;
+    private final ExecutorService runner;
+    private final ExecutorService validators;
+    // Tenant-scoped import ids
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final Timer commitTimer;
+    private final Counter imported;
+    private final Counter rejected;
+
+    public BillImportJob(BillImportRepository billImportRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ResourceVersionService resourceVersionService,
+                         TariffService tariffService,
+                         BillDunningScheduler billDunningScheduler,
+                         EntityManagerFactory entityManagerFactory,
+                         TenantRegistry tenants,
+                         MeterRegistry meterRegistry,
+                         @Value("${smartcity.bill-import.dir:data/bill-imports}") Path dir,
+                         @Value("${smartcity.bill-import.buffer-size-kb:1024}") int bufferSizeKb,
+                         @Value("${smartcity.bill-import.chunk-rows:5000}") int chunkRows,
+                         @Value("${smartcity.bill-import.validation-threads:0}") int validationThreads) throws IOException {
+        this.billImportRepository = billImportRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceVersionService = resourceVersionService;
+        this.tariffService = tariffService;
+        this.billDunningScheduler = billDunningScheduler;
+        this.entityManagerFactory = entityManagerFactory;
+        this.tenants = tenants;
+        this.dir = Files.createDirectories(dir);
+        for (String tenantId : tenants.ids())
+            Files.createDirectories(dirOf(tenantId));
+        this.bufferSize = bufferSizeKb * 1024;
+        this.chunkRows = chunkRows;
+
+        int threads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        // Bounds the chunks held in memory while the committer catches up
+        this.maxChunksInFlight = threads * 2;
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "bill-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger validatorId = new AtomicInteger();
+        this.validators = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "bill-import-validate-" + validatorId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.commitTimer = Timer.builder("smartcity.bill_import.commit")
+                .description("Time to insert one chunk of imported bills and advance the checkpoint")
+                .register(meterRegistry);
+        this.imported = Counter.builder("smartcity.bill_import.rows")
+                .description("Meter-reading lines processed by bill imports")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("smartcity.bill_import.rows")
+                .description("Meter-reading lines processed by bill imports")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public Path uploadPath(long importId) {
+        return dirOf(tenants.current()).resolve(importId + ".csv");
+    }
+
+    public Path rejectedPath(long importId) {
+        return dirOf(tenants.current()).resolve(importId + ".rejected.csv");
+    }
+
+    /**
+     * Queues the import of the current tenant behind any running one; does nothing if it is already queued or running.
+     */
+    public void submit(long importId) {
+        long key = tenants.scope(importId);
+        if (!scheduled.add(key))
+            return;
+        runner.execute(TenantContext.wrap(() -> {
+            try {
+                run(importId);
+            } finally {
+                scheduled.remove(key);
+            }
+        }));
+    }
+
+    // Imports interrupted by a shutdown or crash carry on from their checkpoint
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        tenants.forEach(() -> {
+            for (BillImport billImport : billImportRepository.findByStatusInOrderById(List.of(BillImportStatus.QUEUED, BillImportStatus.RUNNING))) {
+                if (Files.exists(uploadPath(billImport.getId()))) {
+                    log.info("Resuming bill import {} of tenant {} at line {}", billImport.getId(), tenants.current(),
+                            billImport.getCommittedLines() + 1);
+                    submit(billImport.getId());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The running import stops between chunks and is resumed on the next start
+        runner.shutdownNow();
+        validators.shutdownNow();
+    }
+
+    private void run(long importId) {
+        BillImport billImport = billImportRepository.findById(importId).orElse(null);
+        if (billImport == null || billImport.getStatus() == BillImportStatus.COMPLETED)
+            return;
+        updateStatus(importId, BillImportStatus.RUNNING, null);
+
+        Deque<Future<ValidatedChunk>> inFlight = new ArrayDeque<>(maxChunksInFlight);
+        try (FileChannel upload = FileChannel.open(uploadPath(importId), StandardOpenOption.READ);
+             FileChannel rejectedFile = FileChannel.open(rejectedPath(importId), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            openRejectedFile(rejectedFile, billImport.getRejectedBytes());
+            CsvChunkReader reader = new CsvChunkReader(upload, bufferSize, chunkRows,
+                    billImport.getCommittedOffset(), billImport.getCommittedLines());
+            if (billImport.getCommittedLines() == 0)
+                checkHeader(reader.readLine());
+
+            Set<Long> knownUsers = ConcurrentHashMap.newKeySet();
+            Chunk chunk;
+            while ((chunk = reader.next()) != null) {
+                if (inFlight.size() >= maxChunksInFlight)
+                    commit(importId, inFlight.removeFirst().get(), rejectedFile);
+                Chunk next = chunk;
+                // Validation checks user ids against this tenant's database
+                inFlight.addLast(validators.submit(TenantContext.wrap(() -> validate(next, knownUsers))));
+            }
+            while (!inFlight.isEmpty())
+                commit(importId, inFlight.removeFirst().get(), rejectedFile);
+
+            updateStatus(importId, BillImportStatus.COMPLETED, null);
+            log.info("Bill import {} completed", importId);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            inFlight.forEach(future -> future.cancel(true));
+            log.info("Bill import {} interrupted, will resume from its last checkpoint", importId);
+        } catch (Exception ex) {
+            inFlight.forEach(future -> future.cancel(true));
+            Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+            log.error("Bill import {} failed: {}", importId, cause.getMessage(), cause);
+            updateStatus(importId, BillImportStatus.FAILED, cause.getMessage());
+        }
+    }
+
+    // Drops lines written by a chunk that never committed
+    private static void openRejectedFile(FileChannel file, long committedLength) throws IOException {
+        file.truncate(committedLength);
+        file.position(committedLength);
+        if (committedLength == 0)
+            write(file, REJECTED_HEADER);
+    }
+
+    private static void checkHeader(String header) {
+        if (header == null)
+            throw new IllegalStateException("The file is empty");
+        String normalized = header.replace("\uFEFF", "").trim().toLowerCase().replace(" ", "");
+        if (!normalized.equals(MeterReading.HEADER))
+            throw new IllegalStateException("Expected the header '" + MeterReading.HEADER + "' but found '" + header + "'");
+    }
+
+    private ValidatedChunk validate(Chunk chunk, Set<Long> knownUsers) {
+        List<String> lines = chunk.lines();
+        List<MeterReading> readings = new ArrayList<>(lines.size());
+        List<Long> readingLines = new ArrayList<>(lines.size());
+        List<String> rejectedLines = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            long lineNumber = chunk.firstLine() + i;
+            if (line.isBlank())
+                continue;
+            try {
+                readings.add(MeterReading.parse(line));
+                readingLines.add(lineNumber);
+            } catch (IllegalArgumentException ex) {
+                rejectedLines.add(rejectedLine(lineNumber, ex.getMessage(), line));
+            }
+        }
+
+        Set<Long> existing = existingUsers(readings, knownUsers);
+        // One tariff snapshot per chunk, priced in a single pass over primitive arrays
+        CompiledTariffs tariffs = tariffService.getCompiledTariffs();
+        int count = readings.size();
+        int[] types = new int[count];
+        double[] usage = new double[count];
+        int[] slots = new int[count];
+        double[] amounts = new double[count];
+        for (int i = 0; i < count; i++) {
+            MeterReading reading = readings.get(i);
+            types[i] = reading.billType().ordinal();
+            usage[i] = reading.usage();
+            slots[i] = reading.slot();
+        }
+        tariffs.compute(types, usage, slots, amounts, 0, count);
+
+        List<MeterReading> valid = new ArrayList<>(count);
+        double[] validAmounts = new double[count];
+        for (int i = 0; i < count; i++) {
+            MeterReading reading = readings.get(i);
+            String reason = !existing.contains(reading.userId()) ? "unknown user_id " + reading.userId()
+                    : Double.isNaN(amounts[i]) ? "no tariff is defined for " + reading.billType()
+                    : amounts[i] <= 0 ? "amount is not positive"
+                    : null;
+            if (reason == null) {
+                validAmounts[valid.size()] = amounts[i];
+                valid.add(reading);
+            } else {
+                long lineNumber = readingLines.get(i);
+                rejectedLines.add(rejectedLine(lineNumber, reason, lines.get((int) (lineNumber - chunk.firstLine()))));
+            }
+        }
+        return new ValidatedChunk(chunk, valid, validAmounts, rejectedLines);
+    }
+
+    // One IN query per chunk for users not seen earlier in this import
+    private Set<Long> existingUsers(List<MeterReading> readings, Set<Long> knownUsers) {
+        Set<Long> unknown = new HashSet<>();
+        for (MeterReading reading : readings)
+            if (!knownUsers.contains(reading.userId()))
+                unknown.add(reading.userId());
+        if (!unknown.isEmpty()) {
+            String sql = "SELECT user_id FROM users WHERE user_id IN (" + String.join(",", Collections.nCopies(unknown.size(), "?")) + ")";
+            knownUsers.addAll(jdbcTemplate.queryForList(sql, Long.class, unknown.toArray()));
+        }
+        return knownUsers;
+    }
+
+    private void commit(long importId, ValidatedChunk validated, FileChannel rejectedFile) throws IOException {
+        if (!validated.rejected().isEmpty()) {
+            write(rejectedFile, String.join("", validated.rejected()));
+            rejectedFile.force(false);
+        }
+        long rejectedBytes = rejectedFile.position();
+        List<MeterReading> readings = validated.readings();
+        Chunk chunk = validated.chunk();
+
+        commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            if (!readings.isEmpty()) {
+                double[] amounts = validated.amounts();
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        MeterReading reading = readings.get(i);
+                        ps.setString(1, reading.billType().name());
+                        ps.setLong(2, reading.userId());
+                        ps.setDouble(3, amounts[i]);
+                        ps.setTimestamp(4, Timestamp.valueOf(reading.readAt()));
+                        ps.setDate(5, Date.valueOf(billDunningScheduler.defaultDueDate(reading.readAt().toLocalDate())));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return readings.size();
+                    }
+                });
+            }
+            jdbcTemplate.update(CHECKPOINT_SQL, chunk.endOffset(), chunk.lastLine(), readings.size(),
+                    validated.rejected().size(), rejectedBytes, Timestamp.valueOf(LocalDateTime.now()), importId);
+            readings.stream()
+                    .map(MeterReading::userId)
+                    .distinct()
+                    .forEach(userId -> resourceVersionService.markChanged(Resource.BILLS, userId));
+        }));
+
+        // Hibernate only invalidates cached queries for its own writes, not for JDBC inserts
+        if (!readings.isEmpty())
+            entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion(BILL_QUERY_REGION);
+        if (!readings.isEmpty())
+            billDunningScheduler.scheduleNewBills();
+        imported.increment(readings.size());
+        rejected.increment(validated.rejected().size());
+        log.debug("Bill import {} committed lines {}-{}", importId, chunk.firstLine(), chunk.lastLine());
+    }
+
+    private Path dirOf(String tenantId) {
+        return tenantId.equals(tenants.defaultTenant()) ? dir : dir.resolve("tenants").resolve(tenantId);
+    }
+
+    private void updateStatus(long importId, BillImportStatus status, String error) {
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        jdbcTemplate.update(STATUS_SQL, status.name(), lastError, Timestamp.valueOf(LocalDateTime.now()), importId);
+    }
+
+    private static String rejectedLine(long lineNumber, String reason, String content) {
+        return lineNumber + "," + quote(reason) + "," + quote(content) + "\n";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void write(FileChannel file, String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining())
+            file.write(bytes);
+    }
+}
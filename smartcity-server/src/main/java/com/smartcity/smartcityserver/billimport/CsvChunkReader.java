@@ -0,0 +1,94 @@
+package com.smartcity.smartcityserver.billimport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts a CSV file into chunks of whole lines through one fixed-size buffer, so memory use does not
+ * depend on the file size. Every chunk carries the byte offset just past its last line, which is
+ * where a resumed import starts reading.
+ */
+class CsvChunkReader {
+
+    /**
+     * Consecutive lines of the file.
+     *
+     * @param firstLine 1-based line number of the first line
+     * @param endOffset byte offset just past the last line, including its line break
+     */
+    record Chunk(long firstLine, List<String> lines, long endOffset) {
+
+        long lastLine() {
+            return firstLine + lines.size() - 1;
+        }
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int chunkLines;
+    private long offset;
+    private long lineNumber;
+
+    /**
+     * @param startOffset byte offset of the first unread line
+     * @param startLine   number of lines before {@code startOffset}
+     */
+    CsvChunkReader(FileChannel channel, int bufferSize, int chunkLines, long startOffset, long startLine) throws IOException {
+        this.channel = channel.position(startOffset);
+        this.buffer = ByteBuffer.allocate(bufferSize).flip();
+        this.chunkLines = chunkLines;
+        this.offset = startOffset;
+        this.lineNumber = startLine;
+    }
+
+    /**
+     * @return the next chunk, or {@code null} at the end of the file
+     */
+    Chunk next() throws IOException {
+        long firstLine = lineNumber + 1;
+        List<String> lines = new ArrayList<>(chunkLines);
+        String line;
+        while (lines.size() < chunkLines && (line = readLine()) != null)
+            lines.add(line);
+        return lines.isEmpty() ? null : new Chunk(firstLine, lines, offset);
+    }
+
+    /**
+     * @return the next line without its line break, or {@code null} at the end of the file
+     */
+    String readLine() throws IOException {
+        int scanned = buffer.position();
+        while (true) {
+            for (int i = scanned; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n')
+                    return take(i, i + 1);
+            }
+            // Keep the partial line, move it to the front and top the buffer up behind it
+            scanned = buffer.remaining();
+            buffer.compact();
+            if (!buffer.hasRemaining())
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than the " + buffer.capacity() + "-byte read buffer");
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read == -1)
+                // The last line may lack a trailing line break
+                return buffer.hasRemaining() ? take(buffer.limit(), buffer.limit()) : null;
+        }
+    }
+
+    private String take(int end, int next) {
+        int start = buffer.position();
+        int length = end - start;
+        if (length > 0 && buffer.get(end - 1) == '\r')
+            length--;
+        String line = new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        offset += next - start;
+        lineNumber++;
+        buffer.position(next);
+        return line;
+    }
+}
@@ -0,0 +1,85 @@
+package com.smartcity.smartcityserver.billimport;
+
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import com.smartcity.smartcityserver.tariff.CompiledTariffs;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One well-formed line of a meter-reading file; it is priced later, a whole chunk at a time.
+ *
+ * @param usage  units consumed since the previous reading
+ * @param readAt the reading's date-time, or its date at midnight when the file gives only a date
+ * @param slot   hour of the week for time-of-use pricing, or {@link CompiledTariffs#NO_SLOT} for date-only readings
+ */
+record MeterReading(long userId, BillType billType, double usage, LocalDateTime readAt, int slot) {
+
+    static final String HEADER = "user_id,bill_type,previous_reading,current_reading,read_at";
+
+    private static final int COLUMNS = 5;
+
+    /**
+     * @throws IllegalArgumentException with the reason the line is rejected
+     */
+    static MeterReading parse(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != COLUMNS)
+            throw new IllegalArgumentException("expected " + COLUMNS + " columns, found " + columns.length);
+
+        long userId = parseLong(columns[0], "user_id");
+        if (userId <= 0)
+            throw new IllegalArgumentException("user_id must be positive");
+
+        BillType billType;
+        try {
+            billType = BillType.valueOf(columns[1].trim());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("unknown bill_type '" + columns[1].trim() + "'");
+        }
+
+        double previous = parseReading(columns[2], "previous_reading");
+        double current = parseReading(columns[3], "current_reading");
+        if (current < previous)
+            throw new IllegalArgumentException("current_reading is below previous_reading");
+
+        String readAtText = columns[4].trim();
+        LocalDateTime readAt;
+        int slot;
+        try {
+            if (readAtText.indexOf('T') >= 0) {
+                readAt = LocalDateTime.parse(readAtText);
+                slot = CompiledTariffs.slot(readAt);
+            } else {
+                readAt = LocalDate.parse(readAtText).atStartOfDay();
+                slot = CompiledTariffs.NO_SLOT;
+            }
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("read_at must be an ISO date or date-time (yyyy-MM-dd or yyyy-MM-ddTHH:mm)");
+        }
+        if (readAt.isAfter(LocalDateTime.now()))
+            throw new IllegalArgumentException("read_at is in the future");
+        return new MeterReading(userId, billType, current - previous, readAt, slot);
+    }
+
+    private static long parseLong(String value, String column) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " is not a number");
+        }
+    }
+
+    private static double parseReading(String value, String column) {
+        double reading;
+        try {
+            reading = Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " is not a number");
+        }
+        if (!Double.isFinite(reading) || reading < 0)
+            throw new IllegalArgumentException(column + " must be zero or more");
+        return reading;
+    }
+}
@@ -0,0 +1,73 @@
+package com.smartcity.smartcityserver.config;
+
+import com.smartcity.smartcityserver.advice.EnvelopeHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * CBOR and Smile response bodies for clients that ask for them with {@code Accept}, wrapped in the
+ * same {"data":...,"timeStamp":...} envelope as JSON. Both are smaller and cheaper to parse than JSON,
+ * which matters for phones and for bulk bill exports; EnvelopeFormatBenchmark measures by how much.
+ * <p>
+ * Request bodies and {@link com.smartcity.smartcityserver.advice.APIResponse} error bodies in these
+ * formats are handled by Spring's default Jackson CBOR and Smile converters, which are registered
+ * whenever the dataformat modules are on the classpath.
+ * <p>
+ * The same URL has one representation per format, so conditional-request ETags include the format
+ * the request will get ({@link #responseFormat}); a cached JSON body never validates a CBOR request.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // Not exposed as mapper beans, so they cannot displace the auto-configured JsonMapper
+    @Bean
+    public EnvelopeHttpMessageConverter cborEnvelopeHttpMessageConverter() {
+        return new EnvelopeHttpMessageConverter(CBORMapper.builder().findAndAddModules().build(), MediaType.APPLICATION_CBOR);
+    }
+
+    @Bean
+    public EnvelopeHttpMessageConverter smileEnvelopeHttpMessageConverter() {
+        return new EnvelopeHttpMessageConverter(SmileMapper.builder().findAndAddModules().build(), APPLICATION_SMILE);
+    }
+
+    /**
+     * The body format content negotiation will pick for this request: {@code json}, {@code cbor} or {@code smile}.
+     * Mirrors the converter order, so wildcards and missing or unparseable {@code Accept} headers get JSON.
+     */
+    public static String responseFormat(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank())
+            return "json";
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return "json";
+        }
+        // Stable, so types of equal quality keep the client's order
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0)
+                continue;
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON))
+                return "json";
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                return "cbor";
+            if (type.isCompatibleWith(APPLICATION_SMILE))
+                return "smile";
+        }
+        return "json";
+    }
+}
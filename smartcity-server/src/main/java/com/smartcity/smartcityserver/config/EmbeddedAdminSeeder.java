@@ -0,0 +1,53 @@
+package com.smartcity.smartcityserver.config;
+
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.Role;
+import com.smartcity.smartcityserver.repositoriy.UserRepository;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates an admin account in the in-memory database, since signup only creates citizens.
+ * Used by local runs and the load-test harness. With multi-tenancy every city's database gets one.
+ */
+@Component
+@Profile("embedded")
+@Slf4j
+@RequiredArgsConstructor
+public class EmbeddedAdminSeeder {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TenantRegistry tenants;
+
+    @Value("${smartcity.seed.admin.email:admin@smartcity.local}")
+    private String adminEmail;
+
+    @Value("${smartcity.seed.admin.password:admin123}")
+    private String adminPassword;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedAdmin() {
+        tenants.forEach(this::seedCurrentTenant);
+    }
+
+    private void seedCurrentTenant() {
+        if (userRepository.findByEmail(adminEmail).isPresent())
+            return;
+        User admin = new User();
+        admin.setName("Admin");
+        admin.setEmail(adminEmail);
+        admin.setPassword(passwordEncoder.encode(adminPassword));
+        admin.setRole(Role.ADMIN);
+        admin.setEmailVerified(true);
+        userRepository.save(admin);
+        log.info("Seeded admin account {} for tenant {}", adminEmail, tenants.current());
+    }
+}
@@ -0,0 +1,225 @@
+package com.smartcity.smartcityserver.config;
+
+import com.smartcity.smartcityserver.advice.EnvelopeHttpMessageConverter;
+import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.dto.LoginRequestDTO;
+import com.smartcity.smartcityserver.dto.LoginResponseDTO;
+import com.smartcity.smartcityserver.entity.Bill;
+import com.smartcity.smartcityserver.entity.Complaint;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import com.smartcity.smartcityserver.repositoriy.BillRepository;
+import com.smartcity.smartcityserver.repositoriy.ComplaintRepository;
+import com.smartcity.smartcityserver.repositoriy.UserRepository;
+import com.smartcity.smartcityserver.service.AuthService;
+import com.smartcity.smartcityserver.service.JWTService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the request hot paths (login with BCrypt, JWT issue and parse, user lookup, bill and complaint
+ * lists, ModelMapper mapping and envelope serialisation) on synthetic data until the JIT has compiled
+ * them, so the first real requests after a deploy do not run interpreted.
+ * <p>
+ * Spring Boot flips readiness to {@code ACCEPTING_TRAFFIC} only after every {@link ApplicationReadyEvent}
+ * listener has returned, so running synchronously here keeps the instance out of the load balancer
+ * until warm-up ends. Compilation counts as settled once JIT time stays a small share of a round's
+ * wall time for several rounds in a row.
+ * <p>
+ * Each round seeds its rows and reads them back in its own transaction, which is rolled back, so a
+ * connection and its row locks are held for one round at a time rather than the whole warm-up. On MySQL
+ * the rolled-back inserts still consume auto-increment values, {@code 2 * rows + 1} per round.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "smartcity.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class JitWarmup {
+
+    private static final String PASSWORD = "warmup-password";
+
+    private final AuthService authService;
+    private final JWTService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final BillRepository billRepository;
+    private final ComplaintRepository complaintRepository;
+    private final ModelMapper modelMapper;
+    private final EnvelopeHttpMessageConverter envelopeConverter;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter rounds;
+
+    @Value("${smartcity.warmup.min-rounds:5}")
+    private int minRounds;
+
+    @Value("${smartcity.warmup.stable-rounds:3}")
+    private int stableRounds;
+
+    @Value("${smartcity.warmup.stable-compile-ratio:0.05}")
+    private double stableCompileRatio;
+
+    @Value("${smartcity.warmup.max-duration:60s}")
+    private Duration maxDuration;
+
+    // Bills and complaints of the synthetic citizen, and how often each list is read per round
+    @Value("${smartcity.warmup.rows:20}")
+    private int rows;
+
+    @Value("${smartcity.warmup.reads-per-round:20}")
+    private int readsPerRound;
+
+    public JitWarmup(AuthService authService,
+                     JWTService jwtService,
+                     PasswordEncoder passwordEncoder,
+                     UserRepository userRepository,
+                     BillRepository billRepository,
+                     ComplaintRepository complaintRepository,
+                     ModelMapper modelMapper,
+                     EnvelopeHttpMessageConverter envelopeConverter,
+                     TransactionTemplate transactionTemplate,
+                     MeterRegistry meterRegistry) {
+        this.authService = authService;
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.billRepository = billRepository;
+        this.complaintRepository = complaintRepository;
+        this.modelMapper = modelMapper;
+        this.envelopeConverter = envelopeConverter;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.rounds = Counter.builder("smartcity.warmup.rounds")
+                .description("Warm-up rounds run before accepting traffic")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        long startedAt = System.nanoTime();
+        String outcome;
+        try {
+            // Hashed once: BCrypt is warmed up by the logins, not by seeding
+            outcome = runRounds(passwordEncoder.encode(PASSWORD), startedAt);
+        } catch (RuntimeException ex) {
+            // A failed warm-up only costs latency; never keep the instance out of rotation for it
+            log.warn("JIT warm-up failed, accepting traffic cold: {}", ex.getMessage(), ex);
+            outcome = "failed";
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        Timer.builder("smartcity.warmup.duration")
+                .description("Time spent warming up before accepting traffic")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("JIT warm-up {} after {} round(s) in {} ms", outcome, (long) rounds.count(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private String runRounds(String passwordHash, long startedAt) {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long deadline = startedAt + maxDuration.toNanos();
+        int stable = 0;
+        for (int round = 1; ; round++) {
+            long compileBefore = monitored ? compiler.getTotalCompilationTime() : 0;
+            long roundStart = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                runRound(seed(passwordHash));
+            });
+            rounds.increment();
+            long roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStart);
+            long compileMillis = monitored ? compiler.getTotalCompilationTime() - compileBefore : 0;
+            stable = compileMillis <= stableCompileRatio * roundMillis ? stable + 1 : 0;
+
+            if (round >= minRounds && (!monitored || stable >= stableRounds))
+                return "stable";
+            if (System.nanoTime() >= deadline)
+                return "timeout";
+        }
+    }
+
+    // One login, then repeated authenticated reads as the JWT filter and controllers perform them
+    private void runRound(User user) {
+        LoginRequestDTO login = new LoginRequestDTO();
+        login.setEmail(user.getEmail());
+        login.setPassword(PASSWORD);
+        LoginResponseDTO tokens = authService.login(login);
+
+        for (int i = 0; i < readsPerRound; i++) {
+            String email = jwtService.getUserIdFromToken(tokens.getAccessToken());
+            User principal = userRepository.findByEmail(email).orElseThrow();
+
+            List<BillDTO> bills = billRepository.findAllByUserId(principal.getUserId()).stream()
+                    .map(bill -> modelMapper.map(bill, BillDTO.class))
+                    .toList();
+            List<ComplaintDTO> complaints = complaintRepository.findByUser(principal).stream()
+                    .map(complaint -> modelMapper.map(complaint, ComplaintDTO.class))
+                    .toList();
+            envelopeConverter.writeTo(bills, OutputStream.nullOutputStream());
+            envelopeConverter.writeTo(complaints, OutputStream.nullOutputStream());
+            envelopeConverter.writeTo(tokens, OutputStream.nullOutputStream());
+        }
+    }
+
+    private User seed(String passwordHash) {
+        User user = new User();
+        user.setName("Warm-up");
+        user.setEmail("warmup-" + UUID.randomUUID().toString().substring(0, 8) + "@warmup.invalid");
+        user.setPassword(passwordHash);
+        user.setPhoneNumber("+910000000000");
+        user = userRepository.save(user);
+
+        BillType[] billTypes = BillType.values();
+        ComplaintStatus[] statuses = ComplaintStatus.values();
+        Priority[] priorities = Priority.values();
+        List<Bill> bills = new ArrayList<>(rows);
+        List<Complaint> complaints = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Bill bill = new Bill();
+            bill.setBillType(billTypes[i % billTypes.length]);
+            bill.setUserId(user.getUserId());
+            bill.setAmount(100.0 + i);
+            bill.setCreatedAt(LocalDateTime.now().minusDays(i));
+            bills.add(bill);
+
+            Complaint complaint = new Complaint();
+            complaint.setUser(user);
+            complaint.setComplaintType("Road");
+            complaint.setDescription("Warm-up complaint " + i);
+            complaint.setAddress(i + " MG Road");
+            complaint.setStatus(statuses[i % statuses.length]);
+            complaint.setPriority(priorities[i % priorities.length]);
+            complaints.add(complaint);
+        }
+        billRepository.saveAll(bills);
+        complaintRepository.saveAll(complaints);
+        return user;
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartcity.smartcityserver.config;
+
+import com.smartcity.smartcityserver.notification.LoggingNotificationChannel;
+import com.smartcity.smartcityserver.notification.MailNotificationChannel;
+import com.smartcity.smartcityserver.notification.NotificationChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+@Configuration
+@Slf4j
+public class NotificationConfig {
+
+    // SMTP when spring.mail.host is configured, otherwise notifications are just logged
+    @Bean
+    public NotificationChannel notificationChannel(ObjectProvider<JavaMailSender> mailSender,
+                                                   @Value("${smartcity.notifications.from:no-reply@smartcity.local}") String from) {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            log.info("No mail server configured, notifications will be logged only");
+            return new LoggingNotificationChannel();
+        }
+        return new MailNotificationChannel(sender, from);
+    }
+}
@@ -2,12 +2,15 @@ package com.smartcity.smartcityserver.config;
 
 import com.smartcity.smartcityserver.filter.JWTFilter;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,7 +18,9 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 
 import java.util.Arrays;
@@ -33,7 +38,12 @@ public class SecurityConfig {
     @Value("${frontend-url}")
     private String frontendUrl;
 
-    private final static String[] publicUrls ={"/auth/*"};
+    private final static String[] publicUrls ={"/auth/*", "/actuator/health/**"};
+    private final static String[] scrapeUrls = {"/actuator/prometheus", "/actuator/metrics/**", "/actuator/startup"};
+
+    // Metrics are scraped by a local agent; they reveal too much about traffic to serve publicly
+    @Value("${smartcity.metrics.scrape-allowed-addresses:127.0.0.1/8,::1}")
+    private List<String> scrapeAllowedAddresses;
 
     @PostConstruct
     public void logFrontendUrl() {
@@ -47,8 +57,8 @@ public class SecurityConfig {
                     var config = new CorsConfiguration();
                     config.setAllowedOrigins(Arrays.asList(frontendUrl.split(",")));
                     config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS","PATCH"));
-                    config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With", "multipart/form-data"));
-                    config.setExposedHeaders(List.of("Authorization", "Content-Disposition"));
+                    config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With", "multipart/form-data", "Last-Event-ID", "If-None-Match", "If-Modified-Since", JWTFilter.TENANT_HEADER));
+                    config.setExposedHeaders(List.of("Authorization", "Content-Disposition", "ETag", "Last-Modified"));
                     config.setAllowCredentials(true);
                     config.setMaxAge(3600L);
                     return config;
@@ -58,7 +68,10 @@ public class SecurityConfig {
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(req -> req
+                        // SSE streams complete on an async dispatch after the original request was authorised
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(publicUrls).permitAll()
+                        .requestMatchers(scrapeUrls).access(fromScrapeAddress())
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .requestMatchers("/citizen/**").hasRole("CITIZEN")
                         .anyRequest().authenticated()
@@ -66,6 +79,12 @@ public class SecurityConfig {
                 .build();
     }
 
+    private AuthorizationManager<RequestAuthorizationContext> fromScrapeAddress() {
+        List<IpAddressMatcher> matchers = scrapeAllowedAddresses.stream().map(IpAddressMatcher::new).toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                matchers.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
@@ -0,0 +1,72 @@
+package com.smartcity.smartcityserver.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs where startup time went once the application is ready: total time since JVM start and the
+ * beans whose own initialisation took longest. A bean's own time excludes the beans it pulled in
+ * as dependencies, so the list points at the constructor or {@code @PostConstruct} worth fixing.
+ * <p>
+ * The full step timeline stays available at {@code /actuator/startup}.
+ */
+@Component
+@Slf4j
+public class StartupReport {
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    @Value("${smartcity.startup.report-top:15}")
+    private int top;
+
+    private record BeanTime(String name, Duration own, Duration total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        log.info("Ready in {} ms after JVM start ({} ms in SpringApplication.run)",
+                ManagementFactory.getRuntimeMXBean().getUptime(), event.getTimeTaken().toMillis());
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup))
+            return;
+
+        List<TimelineEvent> events = startup.getBufferedTimeline().getTimelineEvents();
+        Map<Long, Duration> childTime = new HashMap<>();
+        for (TimelineEvent step : events) {
+            Long parent = step.getStartupStep().getParentId();
+            if (parent != null)
+                childTime.merge(parent, step.getDuration(), Duration::plus);
+        }
+        List<BeanTime> slowest = events.stream()
+                .filter(step -> BEAN_STEP.equals(step.getStartupStep().getName()))
+                .map(step -> new BeanTime(beanName(step.getStartupStep()),
+                        step.getDuration().minus(childTime.getOrDefault(step.getStartupStep().getId(), Duration.ZERO)),
+                        step.getDuration()))
+                .sorted(Comparator.comparing(BeanTime::own).reversed())
+                .limit(top)
+                .toList();
+        StringBuilder report = new StringBuilder("Slowest bean initialisations (own / including dependencies):");
+        for (BeanTime bean : slowest)
+            report.append(String.format("%n  %6d ms  %6d ms  %s", bean.own().toMillis(), bean.total().toMillis(), bean.name()));
+        log.info(report.toString());
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags())
+            if ("beanName".equals(tag.getKey()))
+                return tag.getValue();
+        return "?";
+    }
+}
@@ -0,0 +1,71 @@
+package com.smartcity.smartcityserver.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process and reports every virtual
+ * thread that blocked while pinned to its carrier (typically inside a {@code synchronized} block
+ * or a native frame) for longer than the configured threshold.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.smartcity";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcity.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::report);
+        recording.startAsync();
+        log.info("Virtual thread pinning monitor started, threshold={}ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null)
+            recording.close();
+    }
+
+    private void report(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .filter(name -> name.startsWith(APP_PACKAGE))
+                .findFirst()
+                .orElse(frames.isEmpty() ? "unknown" : frames.get(0).getMethod().getType().getName());
+
+        meterRegistry.counter("smartcity.virtual_threads.pinned", "site", site).increment();
+        log.warn("Virtual thread pinned for {}ms at {} (thread={})",
+                event.getDuration().toMillis(), site, event.getThread() == null ? "?" : event.getThread().getJavaName());
+        if (log.isDebugEnabled())
+            frames.stream().limit(15).forEach(frame -> log.debug("    at {}.{}:{}",
+                    frame.getMethod().getType().getName(), frame.getMethod().getName(), frame.getLineNumber()));
+    }
+}
@@ -1,18 +1,39 @@
 package com.smartcity.smartcityserver.controller;
 
 import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dto.BillImportDTO;
 import com.smartcity.smartcityserver.dto.ComplaintDTO;
 import com.smartcity.smartcityserver.dto.ContactDTO;
+import com.smartcity.smartcityserver.dto.FieldSet;
+import com.smartcity.smartcityserver.dto.StatusTransitionDTO;
+import com.smartcity.smartcityserver.exception.InvalidFieldsException;
+import com.smartcity.smartcityserver.service.BillImportService;
 import com.smartcity.smartcityserver.service.BillService;
+import com.smartcity.smartcityserver.service.ComplaintEventService;
 import com.smartcity.smartcityserver.service.ComplaintService;
 import com.smartcity.smartcityserver.service.ContactService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.service.ResourceVersionService.VersionStamp;
+import com.smartcity.smartcityserver.service.TariffService;
+import com.smartcity.smartcityserver.service.UserService;
+import com.smartcity.smartcityserver.tariff.TariffSet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+
+import static com.smartcity.smartcityserver.config.BinaryFormatConfig.responseFormat;
 
 @RestController
 @RequestMapping("/admin")
@@ -23,32 +44,93 @@ public class AdminController {
     private final ComplaintService complaintService;
     private final ContactService contactService;
     private final BillService billService;
+    private final ComplaintEventService complaintEventService;
+    private final ResourceVersionService resourceVersionService;
+    private final UserService userService;
+    private final BillImportService billImportService;
+    private final TariffService tariffService;
+
+    // Clients may keep list responses but must revalidate them with If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     // Get all complaints
     @GetMapping("/complaints")
-    public ResponseEntity<List<ComplaintDTO>> getAllComplaints() {
-        List<ComplaintDTO> complaints = complaintService.getComplaints();
-        return ResponseEntity.ok(complaints);
+    public ResponseEntity<List<ComplaintDTO>> getAllComplaints(@RequestParam(defaultValue = "false") boolean archived,
+                                                               WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, null);
+        if (request.checkNotModified(stamp.eTag(archived ? "archived" : null, responseFormat(request)), stamp.getLastModified()))
+            return null;
+        List<ComplaintDTO> complaints = complaintService.getComplaints(archived);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(complaints);
+    }
+
+    // Only the requested columns, e.g. ?fields=id,complaintType,status,createdAt for the complaints table
+    @GetMapping(value = "/complaints", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getComplaintFields(@RequestParam String fields,
+                                                                        @RequestParam(defaultValue = "false") boolean archived,
+                                                                        WebRequest request) {
+        if (archived)
+            throw new InvalidFieldsException("fields cannot be combined with archived=true");
+        List<String> selected = FieldSet.COMPLAINT.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, null);
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(complaintService.getComplaintFields(selected));
+    }
+
+    // Stream status changes of all complaints (Server-Sent Events)
+    @GetMapping(value = "/complaints/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComplaintEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return complaintEventService.subscribeToAllComplaints(lastEventId);
     }
 
     // Get a specific complaint by ID
     @GetMapping("/complaints/{id}")
-    public ResponseEntity<ComplaintDTO> getComplaintById(@PathVariable Long id) {
+    public ResponseEntity<ComplaintDTO> getComplaintById(@PathVariable Long id, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, null);
+        if (request.checkNotModified(stamp.eTag(id, responseFormat(request)), stamp.getLastModified()))
+            return null;
         ComplaintDTO complaint = complaintService.getComplaintById(id);
-        return ResponseEntity.ok(complaint);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(complaint);
+    }
+
+    // Status history of a complaint
+    @GetMapping("/complaints/{id}/timeline")
+    public ResponseEntity<List<StatusTransitionDTO>> getComplaintTimeline(@PathVariable Long id, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, null);
+        if (request.checkNotModified(stamp.eTag("timeline-" + id, responseFormat(request)), stamp.getLastModified()))
+            return null;
+        List<StatusTransitionDTO> timeline = complaintService.getStatusTimeline(id);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(timeline);
     }
 
     // Get all contact messages
     @GetMapping("/contacts")
-    public ResponseEntity<List<ContactDTO>> getAllContacts() {
+    public ResponseEntity<List<ContactDTO>> getAllContacts(WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.CONTACTS, null);
+        if (request.checkNotModified(stamp.eTag(null, responseFormat(request)), stamp.getLastModified()))
+            return null;
         List<ContactDTO> contacts = contactService.getContacts();
-        return ResponseEntity.ok(contacts);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(contacts);
+    }
+
+    @GetMapping(value = "/contacts", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getContactFields(@RequestParam String fields, WebRequest request) {
+        List<String> selected = FieldSet.CONTACT.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.CONTACTS, null);
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(contactService.getContactFields(selected));
     }
 
     // Get a specific contact by ID
     @GetMapping("/contacts/{id}")
-    public ResponseEntity<ContactDTO> getContactById(@PathVariable Long id) {
+    public ResponseEntity<ContactDTO> getContactById(@PathVariable Long id, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.CONTACTS, null);
+        if (request.checkNotModified(stamp.eTag(id, responseFormat(request)), stamp.getLastModified()))
+            return null;
         ContactDTO contact = contactService.getContactById(id);
-        return ResponseEntity.ok(contact);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(contact);
     }
 
     // check complain status
@@ -65,9 +147,68 @@ public class AdminController {
     }
 
     @GetMapping("/bills")
-    public ResponseEntity<List<BillDTO>> getAllBills(){
+    public ResponseEntity<List<BillDTO>> getAllBills(WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.BILLS, null);
+        if (request.checkNotModified(stamp.eTag(null, responseFormat(request)), stamp.getLastModified()))
+            return null;
         List<BillDTO> allBills = billService.getAllBills();
-        return ResponseEntity.ok(allBills);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(allBills);
+    }
+
+    @GetMapping(value = "/bills", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getBillFields(@RequestParam String fields, WebRequest request) {
+        List<String> selected = FieldSet.BILL.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.BILLS, null);
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(billService.getBillFields(selected));
+    }
+
+    // Bulk-create bills from a meter-reading CSV sent as the raw request body; the import runs in the background
+    @PostMapping(value = "/bills/imports", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<BillImportDTO> importBills(@RequestParam(defaultValue = "meter-readings.csv") String fileName,
+                                                     InputStream body) {
+        BillImportDTO billImport = billImportService.startImport(fileName, body);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billImport);
+    }
+
+    @GetMapping("/bills/imports")
+    public ResponseEntity<List<BillImportDTO>> getBillImports() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(billImportService.getImports());
+    }
+
+    // Progress of an import
+    @GetMapping("/bills/imports/{id}")
+    public ResponseEntity<BillImportDTO> getBillImport(@PathVariable Long id) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(billImportService.getImport(id));
+    }
+
+    // Continue a failed import after its last committed line
+    @PostMapping("/bills/imports/{id}/resume")
+    public ResponseEntity<BillImportDTO> resumeBillImport(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billImportService.resumeImport(id));
+    }
+
+    // Lines that were not imported, with line number and reason
+    @GetMapping(value = "/bills/imports/{id}/rejected", produces = "text/csv")
+    public ResponseEntity<org.springframework.core.io.Resource> getRejectedLines(@PathVariable Long id) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(billImportService.getRejectedLines(id));
+    }
+
+    // Tariffs used to price bills created from usage
+    @GetMapping("/tariffs")
+    public ResponseEntity<TariffSet> getTariffs() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(tariffService.getTariffSet());
+    }
+
+    // Get all users; always a projection so the password hash never leaves the server
+    @GetMapping("/users")
+    public ResponseEntity<List<Map<String, Object>>> getAllUsers(@RequestParam(required = false) String fields, WebRequest request) {
+        List<String> selected = fields == null ? FieldSet.USER.allFields() : FieldSet.USER.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.USERS, null);
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(userService.getUserFields(selected));
     }
 
 
@@ -4,13 +4,16 @@ import com.smartcity.smartcityserver.dto.LoginRequestDTO;
 import com.smartcity.smartcityserver.dto.LoginResponseDTO;
 import com.smartcity.smartcityserver.dto.UserDTO;
 import com.smartcity.smartcityserver.service.AuthService;
+import com.smartcity.smartcityserver.service.NotificationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final NotificationService notificationService;
 
     @PostMapping("/login")
     public ResponseEntity<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginDTO){
@@ -34,5 +38,12 @@ public class AuthController {
         return new ResponseEntity<>(userCreated, HttpStatus.CREATED);
     }
 
+    // Target of the link in the verification email
+    @GetMapping("/verify-email")
+    public ResponseEntity<String> verifyEmail(@RequestParam String token) {
+        notificationService.verifyEmail(token);
+        return ResponseEntity.ok("Email address verified");
+    }
+
 
 }
@@ -1,21 +1,40 @@
 package com.smartcity.smartcityserver.controller;
 
 import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dto.CitizenDashboardDTO;
 import com.smartcity.smartcityserver.dto.ComplaintDTO;
 import com.smartcity.smartcityserver.dto.ContactDTO;
+import com.smartcity.smartcityserver.dto.FieldSet;
+import com.smartcity.smartcityserver.dto.StatusTransitionDTO;
 import com.smartcity.smartcityserver.dto.UserDTO;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.exception.InvalidFieldsException;
 import com.smartcity.smartcityserver.service.BillService;
+import com.smartcity.smartcityserver.service.ComplaintEventService;
 import com.smartcity.smartcityserver.service.ComplaintService;
 import com.smartcity.smartcityserver.service.ContactService;
+import com.smartcity.smartcityserver.service.DashboardService;
+import com.smartcity.smartcityserver.service.NotificationService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.service.ResourceVersionService.VersionStamp;
 import com.smartcity.smartcityserver.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
+
+import static com.smartcity.smartcityserver.config.BinaryFormatConfig.responseFormat;
 
 @RestController
 @RequestMapping("/citizen")
@@ -27,6 +46,13 @@ public class CitizenController {
     private final ContactService contactService;
     private final UserService userService;
     private final BillService billService;
+    private final ComplaintEventService complaintEventService;
+    private final ResourceVersionService resourceVersionService;
+    private final NotificationService notificationService;
+    private final DashboardService dashboardService;
+
+    // Clients may keep responses but must revalidate them with If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
 
     // Create a complaint
@@ -45,51 +71,125 @@ public class CitizenController {
 
     // Get all complaints
     @GetMapping("/complaints")
-    public ResponseEntity<List<ComplaintDTO>> getComplaints() {
-        List<ComplaintDTO> complaints = complaintService.getComplaints();
-        return ResponseEntity.ok(complaints);
+    public ResponseEntity<List<ComplaintDTO>> getComplaints(@RequestParam(defaultValue = "false") boolean archived,
+                                                            @AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag(archived ? "archived" : null, responseFormat(request)), stamp.getLastModified()))
+            return null;
+        List<ComplaintDTO> complaints = complaintService.getComplaints(archived);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(complaints);
+    }
+
+    // Only the requested columns of the user's complaints, e.g. ?fields=id,complaintType,status,createdAt
+    @GetMapping(value = "/complaints", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getComplaintFields(@RequestParam String fields,
+                                                                        @RequestParam(defaultValue = "false") boolean archived,
+                                                                        @AuthenticationPrincipal User user, WebRequest request) {
+        if (archived)
+            throw new InvalidFieldsException("fields cannot be combined with archived=true");
+        List<String> selected = FieldSet.COMPLAINT.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(complaintService.getComplaintFields(selected));
+    }
+
+    // Stream status changes of the user's complaints (Server-Sent Events)
+    @GetMapping(value = "/complaints/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComplaintEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return complaintEventService.subscribeToMyComplaints(lastEventId);
     }
 
     // Get a specific complaint by ID
     @GetMapping("/complaints/{id}")
-    public ResponseEntity<ComplaintDTO> getComplaintById(@PathVariable Long id) {
+    public ResponseEntity<ComplaintDTO> getComplaintById(@PathVariable Long id, @AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag(id, responseFormat(request)), stamp.getLastModified()))
+            return null;
         ComplaintDTO complaint = complaintService.getComplaintById(id);
-        return ResponseEntity.ok(complaint);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(complaint);
     }
 
+    // Status history of one of the user's complaints
+    @GetMapping("/complaints/{id}/timeline")
+    public ResponseEntity<List<StatusTransitionDTO>> getComplaintTimeline(@PathVariable Long id, @AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.COMPLAINTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag("timeline-" + id, responseFormat(request)), stamp.getLastModified()))
+            return null;
+        List<StatusTransitionDTO> timeline = complaintService.getStatusTimeline(id);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(timeline);
+    }
 
     // Submit a contact message
     @PostMapping("/contacts")
     public ResponseEntity<ContactDTO> submitContact(@Valid @RequestBody ContactDTO contactDTO) {
-        ContactDTO created = contactService.createContact(contactDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        ContactDTO accepted = contactService.createContact(contactDTO);
+        // Stored asynchronously; it shows up in the contact list once flushed
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(accepted);
     }
 
     // Get all contact messages
     @GetMapping("/contacts")
-    public ResponseEntity<List<ContactDTO>> getContacts() {
+    public ResponseEntity<List<ContactDTO>> getContacts(@AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.CONTACTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag(null, responseFormat(request)), stamp.getLastModified()))
+            return null;
         List<ContactDTO> contacts = contactService.getContacts();
-        return ResponseEntity.ok(contacts);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(contacts);
+    }
+
+    @GetMapping(value = "/contacts", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getContactFields(@RequestParam String fields,
+                                                                      @AuthenticationPrincipal User user, WebRequest request) {
+        List<String> selected = FieldSet.CONTACT.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.CONTACTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(contactService.getContactFields(selected));
     }
 
     // Get a specific contact message by ID
     @GetMapping("/contacts/{id}")
-    public ResponseEntity<ContactDTO> getContactById(@PathVariable Long id) {
+    public ResponseEntity<ContactDTO> getContactById(@PathVariable Long id, @AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.CONTACTS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag(id, responseFormat(request)), stamp.getLastModified()))
+            return null;
         ContactDTO contact = contactService.getContactById(id);
-        return ResponseEntity.ok(contact);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(contact);
     }
 
     // Get logged-in user's profile
     @GetMapping("/profile")
-    public ResponseEntity<UserDTO> getMyProfile(@RequestParam Long userId) {
+    public ResponseEntity<UserDTO> getMyProfile(@RequestParam Long userId, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.USERS, userId);
+        if (request.checkNotModified(stamp.eTag(null, responseFormat(request)), stamp.getLastModified()))
+            return null;
         UserDTO user = userService.getUserById(userId);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(user);
+    }
+
+    // Profile, bills, complaints and contacts in one round trip, loaded concurrently
+    @GetMapping("/dashboard")
+    public ResponseEntity<CitizenDashboardDTO> getDashboard(@AuthenticationPrincipal User user) {
+        CitizenDashboardDTO dashboard = dashboardService.getCitizenDashboard(user.getUserId());
+        // A dashboard may be partial, so it is never kept for revalidation
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(dashboard);
+    }
+
+    // Send a verification link to the user's email address
+    @PostMapping("/profile/verify-email")
+    public ResponseEntity<Void> requestEmailVerification() {
+        notificationService.requestEmailVerification();
+        return ResponseEntity.accepted().build();
     }
 
     @GetMapping("/bills/{id}")
-    public ResponseEntity<BillDTO> getBIllById(@PathVariable Long id){
+    public ResponseEntity<BillDTO> getBIllById(@PathVariable Long id, @AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.BILLS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag(id, responseFormat(request)), stamp.getLastModified()))
+            return null;
         BillDTO billDTO = billService.getBillById(id);
-        return ResponseEntity.ok(billDTO);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(billDTO);
     }
 
     @PutMapping("/bills/{id}")
@@ -99,9 +199,22 @@ public class CitizenController {
     }
 
     @GetMapping("/bills")
-    public ResponseEntity<List<BillDTO>> getAllBills(){
+    public ResponseEntity<List<BillDTO>> getAllBills(@AuthenticationPrincipal User user, WebRequest request) {
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.BILLS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag(null, responseFormat(request)), stamp.getLastModified()))
+            return null;
         List<BillDTO> allBills = billService.getAllBills();
-        return ResponseEntity.ok(allBills);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(allBills);
+    }
+
+    @GetMapping(value = "/bills", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getBillFields(@RequestParam String fields,
+                                                                   @AuthenticationPrincipal User user, WebRequest request) {
+        List<String> selected = FieldSet.BILL.parse(fields);
+        VersionStamp stamp = resourceVersionService.getStamp(Resource.BILLS, user.getUserId());
+        if (request.checkNotModified(stamp.eTag("fields-" + String.join(",", selected), responseFormat(request)), stamp.getLastModified()))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(billService.getBillFields(selected));
     }
 
 
@@ -0,0 +1,119 @@
+package com.smartcity.smartcityserver.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gates connection checkout with a fair semaphore sized to the pool.
+ * <p>
+ * With virtual threads every request can reach the pool at once; instead of letting them all
+ * spin in the pool's hand-off queue, callers wait here in FIFO order for a bounded time and are
+ * rejected outright once the waiting line is longer than {@code maxQueued}.
+ */
+@Slf4j
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final int maxQueued;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public AdmissionControlledDataSource(DataSource target, String poolName, int maxConcurrent,
+                                         long acquireTimeoutMs, int maxQueued, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxQueued = maxQueued;
+        this.waitTimer = Timer.builder("smartcity.datasource.admission.wait")
+                .tag("pool", poolName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("smartcity.datasource.admission.rejected")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        Gauge.builder("smartcity.datasource.admission.queued", permits, Semaphore::getQueueLength)
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        log.info("Connection admission enabled for pool={} maxConcurrent={} maxQueued={}", poolName, maxConcurrent, maxQueued);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.getQueueLength() >= maxQueued) {
+            rejected.increment();
+            throw new SQLTransientConnectionException("Connection admission queue is full (" + maxQueued + " waiting)");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", ex);
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+            throw new SQLTransientConnectionException("Timed out after " + acquireTimeoutMs + "ms waiting for a connection");
+        }
+    }
+
+    // Returns the permit exactly once, when the caller closes its connection
+    private Connection guard(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    if ("unwrap".equals(method.getName()) && Connection.class.equals(args[0]))
+                        return proxy;
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
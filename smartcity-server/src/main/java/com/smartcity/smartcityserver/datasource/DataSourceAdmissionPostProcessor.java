@@ -0,0 +1,51 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts every Hikari pool behind an {@link AdmissionControlledDataSource} when the
+ * application runs request handling on virtual threads.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DataSourceAdmissionPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final int maxQueued;
+
+    public DataSourceAdmissionPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                            @Value("${smartcity.datasource.admission.max-concurrent:0}") int maxConcurrent,
+                                            @Value("${smartcity.datasource.admission.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                                            @Value("${smartcity.datasource.admission.max-queued:10000}") int maxQueued) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxQueued = maxQueued;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource hikari))
+            return bean;
+        // Default to the pool size so waiting happens here rather than inside the pool
+        int permits = maxConcurrent > 0 ? maxConcurrent : hikari.getMaximumPoolSize();
+        String poolName = hikari.getPoolName() != null ? hikari.getPoolName() : beanName;
+        return new AdmissionControlledDataSource(hikari, poolName, permits, acquireTimeoutMs, maxQueued,
+                meterRegistry.getObject());
+    }
+
+    // Must see the raw pool before other post-processors decorate it
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
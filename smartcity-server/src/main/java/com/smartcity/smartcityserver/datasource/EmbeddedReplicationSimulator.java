@@ -0,0 +1,105 @@
+package com.smartcity.smartcityserver.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stand-in for replication between two embedded H2 databases: every interval it copies the
+ * primary's tables into the replica in one transaction, so the replica is always a consistent
+ * snapshot that lags the primary by up to one interval. Local testing only.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "smartcity.datasource.replica.simulated-replication-interval-ms")
+public class EmbeddedReplicationSimulator {
+
+    private final DataSource primary;
+    private final String replicaUrl;
+    private final String replicaUsername;
+    private final String replicaPassword;
+
+    public EmbeddedReplicationSimulator(@Qualifier("primaryDataSource") DataSource primary,
+                                        @Value("${smartcity.datasource.replica.url}") String replicaUrl,
+                                        @Value("${smartcity.datasource.replica.username:}") String replicaUsername,
+                                        @Value("${smartcity.datasource.replica.password:}") String replicaPassword) {
+        this.primary = primary;
+        this.replicaUrl = replicaUrl;
+        this.replicaUsername = replicaUsername;
+        this.replicaPassword = replicaPassword;
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.datasource.replica.simulated-replication-interval-ms}")
+    public void replicate() {
+        // The replica pool hands out read-only connections, so write through a direct one
+        try (Connection source = primary.getConnection();
+             Connection target = DriverManager.getConnection(replicaUrl, replicaUsername, replicaPassword)) {
+            List<String> tables = tables(source);
+            if (tables.isEmpty())
+                return;
+            if (!tables(target).containsAll(tables))
+                copySchema(source, target);
+
+            target.setAutoCommit(false);
+            try (Statement statement = target.createStatement()) {
+                statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            }
+            for (String table : tables)
+                copyRows(source, target, table);
+            target.commit();
+        } catch (SQLException ex) {
+            log.warn("Simulated replication failed: {}", ex.getMessage());
+        }
+    }
+
+    private void copySchema(Connection source, Connection target) throws SQLException {
+        try (Statement read = source.createStatement();
+             ResultSet script = read.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS");
+             Statement write = target.createStatement()) {
+            write.execute("DROP ALL OBJECTS");
+            while (script.next())
+                write.execute(script.getString(1));
+        }
+        log.info("Simulated replica schema copied from primary");
+    }
+
+    private void copyRows(Connection source, Connection target, String table) throws SQLException {
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + table);
+        }
+        try (Statement read = source.createStatement();
+             ResultSet rows = read.executeQuery("SELECT * FROM " + table)) {
+            int columns = rows.getMetaData().getColumnCount();
+            String placeholders = String.join(",", Collections.nCopies(columns, "?"));
+            try (PreparedStatement insert = target.prepareStatement("INSERT INTO " + table + " VALUES (" + placeholders + ")")) {
+                int batched = 0;
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++)
+                        insert.setObject(i, rows.getObject(i));
+                    insert.addBatch();
+                    if (++batched % 500 == 0)
+                        insert.executeBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private List<String> tables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = connection.getMetaData().getTables(null, "PUBLIC", "%", new String[]{"TABLE"})) {
+            while (rs.next())
+                tables.add(rs.getString("TABLE_NAME"));
+        }
+        return tables;
+    }
+}
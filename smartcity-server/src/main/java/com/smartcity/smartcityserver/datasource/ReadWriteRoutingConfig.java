@@ -0,0 +1,72 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary/replica data sources. Replaces the auto-configured data source when
+ * {@code smartcity.datasource.replica.enabled} is set; the primary keeps reading
+ * the standard {@code spring.datasource.*} properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "smartcity.datasource.replica.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(@Value("${spring.datasource.url}") String url,
+                                              @Value("${spring.datasource.username:}") String username,
+                                              @Value("${spring.datasource.password:}") String password,
+                                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize) {
+        return pool("primary", url, username, password, maxPoolSize);
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${smartcity.datasource.replica.url}") String url,
+                                              @Value("${smartcity.datasource.replica.username:}") String username,
+                                              @Value("${smartcity.datasource.replica.password:}") String password,
+                                              @Value("${smartcity.datasource.replica.maximum-pool-size:10}") int maxPoolSize) {
+        HikariDataSource replica = pool("replica", url, username, password, maxPoolSize);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${smartcity.datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${smartcity.datasource.replica.read-your-writes-window-ms:5000}") long windowMs,
+                                               @Value("${smartcity.datasource.replica.max-lag-ms:30000}") long maxLagMs,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, lagQuery, windowMs, maxLagMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 RecentWriteTracker writeTracker,
+                                 ReplicaLagMonitor lagMonitor,
+                                 MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, writeTracker, lagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password, int maxPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maxPoolSize);
+        return dataSource;
+    }
+}
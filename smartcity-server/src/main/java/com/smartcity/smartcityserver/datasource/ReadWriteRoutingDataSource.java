@@ -0,0 +1,72 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.smartcity.smartcityserver.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * A read still goes to the primary when the replica is unhealthy or when the current user's
+ * data was written within the read-your-writes window (admins: any write), so a client that
+ * refetches right after a change never sees the replica's older copy.
+ * Principal lookups run before authentication is known and stay on the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the route is chosen after the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final RecentWriteTracker writeTracker;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbackRoutes;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, RecentWriteTracker writeTracker,
+                                      ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.writeTracker = writeTracker;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryRoutes = meterRegistry.counter("smartcity.datasource.route", "route", "primary");
+        this.replicaRoutes = meterRegistry.counter("smartcity.datasource.route", "route", "replica");
+        this.fallbackRoutes = meterRegistry.counter("smartcity.datasource.route", "route", "primary_fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isHealthy() || readsOwnRecentWrite()) {
+            fallbackRoutes.increment();
+            return Route.PRIMARY;
+        }
+        replicaRoutes.increment();
+        return Route.REPLICA;
+    }
+
+    private boolean readsOwnRecentWrite() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user))
+            return false;
+        long window = lagMonitor.readYourWritesWindowMs();
+        return user.hasRole("ADMIN")
+                ? writeTracker.anyWriteWithin(window)
+                : writeTracker.wroteWithin(user.getUserId(), window);
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartcity.smartcityserver.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each user's data was last written so reads that follow a write
+ * can be kept on the primary until the replica has caught up.
+ */
+@Component
+public class RecentWriteTracker {
+
+    private static final long RETENTION_MS = 10 * 60 * 1000;
+
+    private final ConcurrentHashMap<Long, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private volatile long lastWriteAt;
+
+    // Called as a write commits, with the owner of the rows that changed (null for collection-wide writes)
+    public void recordWrite(Long userId) {
+        long now = System.currentTimeMillis();
+        lastWriteAt = now;
+        if (userId != null)
+            lastWriteByUser.put(userId, now);
+    }
+
+    public boolean wroteWithin(Long userId, long windowMs) {
+        Long writtenAt = lastWriteByUser.get(userId);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < windowMs;
+    }
+
+    public boolean anyWriteWithin(long windowMs) {
+        return System.currentTimeMillis() - lastWriteAt < windowMs;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictStaleEntries() {
+        long cutoff = System.currentTimeMillis() - RETENTION_MS;
+        lastWriteByUser.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+}
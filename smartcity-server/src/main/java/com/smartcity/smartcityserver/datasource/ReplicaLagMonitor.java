@@ -0,0 +1,83 @@
+package com.smartcity.smartcityserver.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Polls the replica for its replication lag and decides how long reads must stay on
+ * the primary after a write. Without a lag query the configured window is used as is.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final JdbcTemplate replicaJdbc;
+    private final String lagQuery;
+    private final long readYourWritesWindowMs;
+    private final long maxLagMs;
+
+    private volatile long lagMs = 0;
+    private volatile boolean healthy = true;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long readYourWritesWindowMs, long maxLagMs,
+                             MeterRegistry meterRegistry) {
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+        this.maxLagMs = maxLagMs;
+        Gauge.builder("smartcity.datasource.replica.lag", this, monitor -> monitor.lagMs / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("smartcity.datasource.replica.healthy", this, monitor -> monitor.healthy ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.datasource.replica.lag-poll-interval-ms:1000}")
+    public void poll() {
+        if (!StringUtils.hasText(lagQuery))
+            return;
+        try {
+            Long seconds = replicaJdbc.query(lagQuery, this::readLagSeconds);
+            // A NULL lag means replication is stopped
+            healthy = seconds != null && seconds * 1000 <= maxLagMs;
+            lagMs = seconds == null ? maxLagMs : seconds * 1000;
+        } catch (RuntimeException ex) {
+            if (healthy)
+                log.warn("Replica lag check failed, routing reads to primary: {}", ex.getMessage());
+            healthy = false;
+        }
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    // Reads must stay on the primary for at least as long as the replica is behind
+    public long readYourWritesWindowMs() {
+        return Math.max(readYourWritesWindowMs, lagMs + 1000);
+    }
+
+    private Long readLagSeconds(ResultSet rs) throws SQLException {
+        if (!rs.next())
+            return null;
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (MYSQL_LAG_COLUMN.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                long value = rs.getLong(i);
+                return rs.wasNull() ? null : value;
+            }
+        }
+        long value = rs.getLong(1);
+        return rs.wasNull() ? null : value;
+    }
+}
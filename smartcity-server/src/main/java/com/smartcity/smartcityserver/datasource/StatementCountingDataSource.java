@@ -0,0 +1,141 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.smartcity.smartcityserver.metrics.RequestTimings;
+import com.smartcity.smartcityserver.metrics.SqlBudget;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Counts statements, rows and execution time of every JDBC call made while handling a request,
+ * whichever repository, JdbcTemplate or Hibernate path issued it, and feeds them to {@link RequestTimings}
+ * and {@link SqlBudget}.
+ * <p>
+ * Connections, statements and result sets are wrapped in JDK proxies; outside a request the
+ * bookkeeping is a single thread-local lookup per statement.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_SHAPES = 2048;
+
+    // Hibernate reuses the same SQL strings, so normalising each one once is enough
+    private final ConcurrentHashMap<String, String> shapes = new ConcurrentHashMap<>();
+    private final SqlBudget sqlBudget;
+
+    public StatementCountingDataSource(DataSource target, SqlBudget sqlBudget) {
+        super(target);
+        this.sqlBudget = sqlBudget;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> wrapStatement(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> wrapStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    // preparedSql is null for plain statements, whose SQL arrives with each execute call
+    private <T extends Statement> T wrapStatement(Class<T> type, Statement statement, String preparedSql) {
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute"))
+                return wrapResultSet(name, invoke(statement, method, args));
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : "batch";
+            long start = System.nanoTime();
+            Object result = invoke(statement, method, args);
+            String shape = shape(sql);
+            RequestTimings timings = RequestTimings.addStatement(shape, System.nanoTime() - start);
+            RequestTimings.addRows(updatedRows(result));
+            sqlBudget.enforce(timings, shape);
+            return wrapResultSet(name, result);
+        });
+    }
+
+    // Only query results count as rows read; generated keys belong to an update already counted
+    private Object wrapResultSet(String methodName, Object result) {
+        if (!(result instanceof ResultSet resultSet) || !("executeQuery".equals(methodName) || "getResultSet".equals(methodName)))
+            return result;
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object value = invoke(resultSet, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(value))
+                RequestTimings.addRows(1);
+            return value;
+        });
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count)
+            return Math.max(count, 0);
+        if (result instanceof Long count)
+            return Math.max(count, 0);
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts)
+                rows += Math.max(count, 0);
+        } else if (result instanceof long[] counts) {
+            for (long count : counts)
+                rows += Math.max(count, 0);
+        }
+        return rows;
+    }
+
+    // Literals and IN-list lengths are folded so that "the same query with other values" counts as one shape
+    private String shape(String sql) {
+        String shape = shapes.get(sql);
+        if (shape != null)
+            return shape;
+        shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        if (shapes.size() < MAX_CACHED_SHAPES)
+            shapes.put(sql, shape);
+        return shape;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,37 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.smartcity.smartcityserver.metrics.SqlBudget;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@code dataSource} bean in a {@link StatementCountingDataSource}.
+ * <p>
+ * Runs after every other data source post-processor so it sees the outermost data source (the routing
+ * proxy when a replica is configured) and counts each statement exactly once.
+ */
+@Component
+public class StatementCountingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<SqlBudget> sqlBudget;
+
+    public StatementCountingPostProcessor(ObjectProvider<SqlBudget> sqlBudget) {
+        this.sqlBudget = sqlBudget;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource))
+            return bean;
+        return new StatementCountingDataSource(dataSource, sqlBudget.getObject());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
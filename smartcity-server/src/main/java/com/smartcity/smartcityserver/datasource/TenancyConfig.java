@@ -0,0 +1,54 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.smartcity.smartcityserver.tenant.TenantConnectionProvider;
+import com.smartcity.smartcityserver.tenant.TenantIdentifierResolver;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Database-per-tenant data sources. Replaces the auto-configured data source when
+ * {@code smartcity.tenancy.enabled} is set; {@code spring.datasource.*} is then ignored and every
+ * tenant's database comes from {@code smartcity.tenancy.tenants.<id>.*}.
+ * <p>
+ * Hibernate runs in database multi-tenancy mode through the two beans below, which Boot hands to the
+ * entity manager factory; that keeps second-level cache entries of different tenants apart.
+ * Not combinable with {@link ReadWriteRoutingConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "smartcity.tenancy.enabled", havingValue = "true")
+public class TenancyConfig {
+
+    @Bean
+    public TenantDataSources tenantDataSources(TenantRegistry tenants, Environment environment, MeterRegistry meterRegistry,
+                                               @Value("${smartcity.tenancy.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                                               @Value("${smartcity.tenancy.max-queued:1000}") int maxQueued) {
+        return new TenantDataSources(tenants, environment, meterRegistry, acquireTimeoutMs, maxQueued);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(TenantRegistry tenants, TenantDataSources tenantDataSources) {
+        TenantRoutingDataSource routing = new TenantRoutingDataSource(tenants, tenantDataSources);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    @Bean
+    public TenantConnectionProvider tenantConnectionProvider(@Qualifier("dataSource") DataSource dataSource) {
+        return new TenantConnectionProvider(dataSource);
+    }
+
+    @Bean
+    public TenantIdentifierResolver tenantIdentifierResolver(TenantRegistry tenants) {
+        return new TenantIdentifierResolver(tenants);
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One connection pool per tenant, each behind its own {@link AdmissionControlledDataSource}.
+ * <p>
+ * Pools are sized separately under {@code smartcity.tenancy.tenants.<id>.*}, so a large city that
+ * exhausts its pool queues (and is eventually rejected) on its own permits while the other cities
+ * keep their connections.
+ */
+@Slf4j
+public class TenantDataSources implements AutoCloseable {
+
+    private final Map<String, DataSource> dataSources = new LinkedHashMap<>();
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public TenantDataSources(TenantRegistry tenants, Environment environment, MeterRegistry meterRegistry,
+                             long acquireTimeoutMs, int maxQueued) {
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        for (String tenantId : tenants.ids()) {
+            String prefix = "smartcity.tenancy.tenants." + tenantId + ".";
+            String url = environment.getProperty(prefix + "url");
+            if (url == null || url.isBlank())
+                throw new IllegalStateException("Missing " + prefix + "url for tenant " + tenantId);
+            int maxPoolSize = environment.getProperty(prefix + "maximum-pool-size", Integer.class, 10);
+            int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, maxPoolSize);
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("tenant-" + tenantId);
+            pool.setJdbcUrl(url);
+            pool.setUsername(environment.getProperty(prefix + "username", ""));
+            pool.setPassword(environment.getProperty(prefix + "password", ""));
+            pool.setMaximumPoolSize(maxPoolSize);
+            pool.setMetricsTrackerFactory(metrics);
+            pools.add(pool);
+            dataSources.put(tenantId, new AdmissionControlledDataSource(pool, pool.getPoolName(), maxConcurrent,
+                    acquireTimeoutMs, maxQueued, meterRegistry));
+            log.info("Tenant {} uses pool {} with maximumPoolSize={}", tenantId, pool.getPoolName(), maxPoolSize);
+        }
+    }
+
+    /**
+     * @return tenant id to its admission-controlled pool, in registry order
+     */
+    public Map<String, DataSource> byTenant() {
+        return dataSources;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
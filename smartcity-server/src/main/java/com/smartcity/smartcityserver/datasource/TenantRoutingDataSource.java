@@ -0,0 +1,26 @@
+package com.smartcity.smartcityserver.datasource;
+
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+
+/**
+ * Hands out connections from the pool of the current thread's tenant. There is no fallback:
+ * a tenant without a pool is a configuration error, never a reason to touch another city's data.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final TenantRegistry tenants;
+
+    public TenantRoutingDataSource(TenantRegistry tenants, TenantDataSources dataSources) {
+        this.tenants = tenants;
+        setTargetDataSources(new HashMap<>(dataSources.byTenant()));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return tenants.current();
+    }
+}
@@ -1,9 +1,11 @@
 package com.smartcity.smartcityserver.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.smartcity.smartcityserver.entity.enums.BillType;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -18,13 +20,27 @@ public class BillDTO {
     @NotNull(message = "Please Enter User Id")
     private Long userId;
 
-    @NotNull(message = "Amount is required")
     @Positive(message = "Amount must be greater than zero")
     private Double amount;
 
+    // Units consumed; when no amount is given it is computed from the tariff of the bill type
+    @PositiveOrZero(message = "Usage cannot be negative")
+    private Double usage;
+
     private Boolean paid;
 
     private LocalDateTime paidAt;
 
     private LocalDateTime createdAt;
+
+    // Defaults to the payment term after the bill is created
+    private LocalDate dueDate;
+
+    private Double lateFee;
+
+    @JsonIgnore
+    @AssertTrue(message = "Amount or usage is required")
+    public boolean isAmountOrUsagePresent() {
+        return amount != null || usage != null;
+    }
 }
@@ -0,0 +1,30 @@
+package com.smartcity.smartcityserver.dto;
+
+import com.smartcity.smartcityserver.entity.enums.BillImportStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BillImportDTO {
+
+    private Long id;
+
+    private String fileName;
+
+    private BillImportStatus status;
+
+    private Long fileSize;
+
+    private Long committedOffset;
+
+    private Long rowsImported;
+
+    private Long rowsRejected;
+
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.smartcity.smartcityserver.dto;
+
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class CitizenDashboardDTO {
+
+    private UserDTO profile;
+
+    private List<BillDTO> bills;
+
+    private List<ComplaintDTO> complaints;
+
+    private List<ContactDTO> contacts;
+
+    private Summary summary;
+
+    // Sections that failed or timed out; they and their summary counts are null
+    private List<String> unavailable;
+
+    @Data
+    @Builder
+    public static class Summary {
+
+        private Integer unpaidBills;
+
+        private Double amountDue;
+
+        private Integer openComplaints;
+
+        private Map<ComplaintStatus, Long> complaintsByStatus;
+
+        private Integer contacts;
+    }
+}
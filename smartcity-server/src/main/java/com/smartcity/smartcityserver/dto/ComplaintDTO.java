@@ -36,4 +36,8 @@ public class ComplaintDTO {
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    private LocalDateTime escalatedAt;
+
+    private LocalDateTime slaBreachedAt;
 }
@@ -0,0 +1,30 @@
+package com.smartcity.smartcityserver.dto;
+
+import com.smartcity.smartcityserver.entity.enums.ComplaintEventType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplaintEventDTO {
+
+    private Long eventId;
+
+    private ComplaintEventType type;
+
+    private Long complaintId;
+
+    private Long userId;
+
+    private ComplaintStatus status;
+
+    private Priority priority;
+
+    private LocalDateTime occurredAt;
+}
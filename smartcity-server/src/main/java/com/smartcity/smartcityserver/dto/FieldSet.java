@@ -0,0 +1,101 @@
+package com.smartcity.smartcityserver.dto;
+
+import com.smartcity.smartcityserver.entity.Bill;
+import com.smartcity.smartcityserver.entity.Complaint;
+import com.smartcity.smartcityserver.entity.Contact;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.exception.InvalidFieldsException;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Whitelist of the DTO fields a list endpoint can be narrowed to with {@code ?fields=}, each mapped to
+ * the entity attribute it is read from. Fields not listed here (such as the password hash) cannot be selected.
+ */
+@Getter
+public enum FieldSet {
+
+    COMPLAINT(Complaint.class, "user.userId",
+            "id", "id",
+            "userId", "user.userId",
+            "complaintType", "complaintType",
+            "description", "description",
+            "attachmentUrl", "attachmentUrl",
+            "address", "address",
+            "status", "status",
+            "priority", "priority",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt",
+            "escalatedAt", "escalatedAt",
+            "slaBreachedAt", "slaBreachedAt"),
+
+    BILL(Bill.class, "userId",
+            "billId", "billId",
+            "billType", "billType",
+            "userId", "userId",
+            "amount", "amount",
+            "paid", "paid",
+            "paidAt", "paidAt",
+            "createdAt", "createdAt",
+            "dueDate", "dueDate",
+            "lateFee", "lateFee"),
+
+    CONTACT(Contact.class, "user.userId",
+            "id", "id",
+            "name", "name",
+            "email", "email",
+            "phoneNumber", "phoneNumber",
+            "message", "message",
+            "submittedAt", "submittedAt"),
+
+    USER(User.class, "userId",
+            "id", "userId",
+            "name", "name",
+            "role", "role",
+            "email", "email",
+            "active", "active",
+            "phoneNumber", "phoneNumber",
+            "profilePictureUrl", "profilePictureUrl",
+            "emailVerified", "emailVerified");
+
+    private final Class<?> entityClass;
+    // Attribute path of the owning user's id, used to restrict citizens to their own rows
+    private final String ownerPath;
+    private final Map<String, String> attributePaths = new LinkedHashMap<>();
+
+    FieldSet(Class<?> entityClass, String ownerPath, String... fieldsAndPaths) {
+        this.entityClass = entityClass;
+        this.ownerPath = ownerPath;
+        for (int i = 0; i < fieldsAndPaths.length; i += 2)
+            attributePaths.put(fieldsAndPaths[i], fieldsAndPaths[i + 1]);
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter, keeping the requested order and dropping duplicates.
+     *
+     * @throws InvalidFieldsException if the list is empty or names a field outside the whitelist
+     */
+    public List<String> parse(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty())
+                continue;
+            if (!attributePaths.containsKey(name))
+                throw new InvalidFieldsException("Unknown field '" + name + "', allowed: " + String.join(",", attributePaths.keySet()));
+            selected.add(name);
+        }
+        if (selected.isEmpty())
+            throw new InvalidFieldsException("No fields requested, allowed: " + String.join(",", attributePaths.keySet()));
+        return List.copyOf(selected);
+    }
+
+    public List<String> allFields() {
+        return List.copyOf(attributePaths.keySet());
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartcity.smartcityserver.dto;
+
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionDTO {
+
+    private Long complaintId;
+
+    private ComplaintStatus fromStatus;
+
+    private ComplaintStatus toStatus;
+
+    private Long actorId;
+
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,296 @@
+package com.smartcity.smartcityserver.dunning;
+
+import com.smartcity.smartcityserver.entity.Bill;
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+import com.smartcity.smartcityserver.service.NotificationService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.tenant.TenantCacheEvictor;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import com.smartcity.smartcityserver.utils.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Sends payment reminders and applies late fees to unpaid bills at their due dates. Every unpaid bill
+ * without a late fee sits in a {@link TimingWheel} under the time of its next step, so each minute
+ * only the bills that are actually due are read, however many are outstanding.
+ * <p>
+ * The wheel is filled from {@code bills} once on startup, in id order and page by page, and is then
+ * kept current by bill creation, payment and imports. Each step is a conditional update
+ * ({@code ... WHERE reminder_sent_at IS NULL}), so a step already taken by another instance, or
+ * before a restart, is not repeated.
+ * <p>
+ * One wheel serves every tenant: bills are kept under their tenant-scoped id and processed as their
+ * own tenant.
+ */
+@Component
+@Slf4j
+public class BillDunningScheduler {
+
+    private static final String PAGE_SQL = "SELECT bill_id, due_date, created_at, reminder_sent_at FROM bills "
+            + "WHERE bill_id > ? AND paid = false AND late_fee_applied_at IS NULL ORDER BY bill_id LIMIT ?";
+    private static final String DUE_SQL = "SELECT bill_id, user_id, bill_type, amount, due_date, created_at, reminder_sent_at FROM bills "
+            + "WHERE paid = false AND late_fee_applied_at IS NULL AND bill_id IN (%s)";
+    private static final String REMIND_SQL =
+            "UPDATE bills SET reminder_sent_at = ? WHERE bill_id = ? AND paid = false AND reminder_sent_at IS NULL";
+    private static final String LATE_FEE_SQL = "UPDATE bills SET amount = ?, late_fee = ?, late_fee_applied_at = ? "
+            + "WHERE bill_id = ? AND paid = false AND late_fee_applied_at IS NULL";
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private record DueBill(long billId, long userId, String billType, double amount, LocalDate dueDate, boolean reminded) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationService notificationService;
+    private final ResourceVersionService resourceVersionService;
+    private final TenantCacheEvictor cacheEvictor;
+    private final TenantRegistry tenants;
+    private final TimingWheel wheel;
+    private final Counter reminders;
+    private final Counter lateFees;
+
+    @Value("${smartcity.dunning.payment-term-days:15}")
+    private int paymentTermDays;
+
+    @Value("${smartcity.dunning.reminder-days-before:3}")
+    private int reminderDaysBefore;
+
+    @Value("${smartcity.dunning.grace-days:0}")
+    private int graceDays;
+
+    @Value("${smartcity.dunning.late-fee-percent:2.0}")
+    private double lateFeePercent;
+
+    @Value("${smartcity.dunning.late-fee-minimum:25.0}")
+    private double lateFeeMinimum;
+
+    @Value("${smartcity.dunning.batch-size:500}")
+    private int batchSize;
+
+    // Highest bill id read from each tenant's table so far, by tenant index; bills above it are picked up by scheduleNewBills
+    private final long[] scannedUpTo;
+
+    public BillDunningScheduler(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                NotificationService notificationService,
+                                ResourceVersionService resourceVersionService,
+                                TenantCacheEvictor cacheEvictor,
+                                TenantRegistry tenants,
+                                MeterRegistry meterRegistry,
+                                @Value("${smartcity.dunning.tick-ms:60000}") long tickMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationService = notificationService;
+        this.resourceVersionService = resourceVersionService;
+        this.cacheEvictor = cacheEvictor;
+        this.tenants = tenants;
+        this.scannedUpTo = new long[tenants.ids().size()];
+        this.wheel = new TimingWheel(Duration.ofMillis(tickMs), System.currentTimeMillis(), 1024);
+        this.reminders = Counter.builder("smartcity.dunning.events")
+                .description("Dunning steps taken on unpaid bills")
+                .tag("type", "reminder")
+                .register(meterRegistry);
+        this.lateFees = Counter.builder("smartcity.dunning.events")
+                .description("Dunning steps taken on unpaid bills")
+                .tag("type", "late_fee")
+                .register(meterRegistry);
+        Gauge.builder("smartcity.dunning.scheduled", this, BillDunningScheduler::scheduled)
+                .description("Unpaid bills waiting for a reminder or late fee")
+                .register(meterRegistry);
+    }
+
+    public LocalDate defaultDueDate(LocalDate issuedOn) {
+        return issuedOn.plusDays(paymentTermDays);
+    }
+
+    /**
+     * Schedules the first dunning step of a new bill once the surrounding transaction commits.
+     */
+    public void schedule(long billId, LocalDate dueDate) {
+        long key = tenants.scope(billId);
+        afterCommit(() -> {
+            synchronized (this) {
+                wheel.schedule(key, nextStepMillis(dueDate, false));
+            }
+        });
+    }
+
+    /**
+     * Drops a paid bill once the surrounding transaction commits.
+     */
+    public void cancel(long billId) {
+        long key = tenants.scope(billId);
+        afterCommit(() -> {
+            synchronized (this) {
+                wheel.cancel(key);
+            }
+        });
+    }
+
+    /**
+     * Schedules bills of the current tenant inserted without going through {@link #schedule}, such as
+     * imports. Reads only bills above the highest id seen so far.
+     */
+    public void scheduleNewBills() {
+        int tenant = tenants.currentIndex();
+        int added = 0;
+        int page;
+        do {
+            long after;
+            synchronized (this) {
+                after = scannedUpTo[tenant];
+            }
+            List<long[]> rows = jdbcTemplate.query(PAGE_SQL, (rs, rowNum) -> new long[]{
+                    rs.getLong("bill_id"),
+                    nextStepMillis(dueDate(rs), rs.getTimestamp("reminder_sent_at") != null)}, after, batchSize);
+            synchronized (this) {
+                for (long[] row : rows)
+                    wheel.schedule(TenantRegistry.scope(tenant, row[0]), row[1]);
+                if (!rows.isEmpty())
+                    scannedUpTo[tenant] = Math.max(scannedUpTo[tenant], rows.getLast()[0]);
+            }
+            page = rows.size();
+            added += page;
+        } while (page == batchSize);
+        if (added > 0)
+            log.debug("Scheduled {} new unpaid bill(s) for dunning", added);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        tenants.forEach(this::scheduleNewBills);
+        log.info("Dunning schedule rebuilt with {} unpaid bill(s) in {} ms", scheduled(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.dunning.tick-ms:60000}")
+    public void processDue() {
+        LongStream.Builder expired = LongStream.builder();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), expired::add);
+        }
+        tenants.forEachBatch(expired.build().toArray(), batchSize, batch -> {
+            try {
+                processBatch(batch);
+            } catch (DataAccessException | TransactionException ex) {
+                // Put the batch back so it is retried on the next tick
+                log.error("Dunning batch of {} bill(s) failed, will retry: {}", batch.length, ex.getMessage());
+                synchronized (this) {
+                    for (long billId : batch)
+                        wheel.schedule(tenants.scope(billId), System.currentTimeMillis());
+                }
+            }
+        });
+    }
+
+    private void processBatch(long[] billIds) {
+        List<long[]> next = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            String sql = String.format(DUE_SQL, String.join(",", Collections.nCopies(billIds.length, "?")));
+            Object[] args = LongStream.of(billIds).boxed().toArray();
+            for (DueBill bill : jdbcTemplate.query(sql, (rs, rowNum) -> new DueBill(rs.getLong("bill_id"),
+                    rs.getLong("user_id"), rs.getString("bill_type"), rs.getDouble("amount"), dueDate(rs),
+                    rs.getTimestamp("reminder_sent_at") != null), args)) {
+
+                if (!now.isBefore(lateFeeAt(bill.dueDate()))) {
+                    double fee = Math.max(lateFeeMinimum, Math.round(bill.amount() * lateFeePercent) / 100.0);
+                    double total = Math.round((bill.amount() + fee) * 100) / 100.0;
+                    if (jdbcTemplate.update(LATE_FEE_SQL, total, fee, Timestamp.valueOf(now), bill.billId()) == 1) {
+                        notificationService.enqueue(bill.userId(), NotificationType.BILL_LATE_FEE,
+                                "Late fee on " + bill.billType() + " bill #" + bill.billId(),
+                                "Your bill was due on " + bill.dueDate() + ". A late fee of " + fee
+                                        + " has been added; the amount due is now " + total + ".");
+                        changed.add(bill.billId());
+                        resourceVersionService.markChanged(Resource.BILLS, bill.userId());
+                        lateFees.increment();
+                    }
+                } else if (!bill.reminded()) {
+                    if (jdbcTemplate.update(REMIND_SQL, Timestamp.valueOf(now), bill.billId()) == 1) {
+                        notificationService.enqueue(bill.userId(), NotificationType.BILL_REMINDER,
+                                bill.billType() + " bill #" + bill.billId() + " is due on " + bill.dueDate(),
+                                "Your bill of " + bill.amount() + " is due on " + bill.dueDate()
+                                        + ". Please pay it to avoid a late fee.");
+                        changed.add(bill.billId());
+                        resourceVersionService.markChanged(Resource.BILLS, bill.userId());
+                        reminders.increment();
+                    }
+                    next.add(new long[]{bill.billId(), nextStepMillis(bill.dueDate(), true)});
+                } else {
+                    // Reminded elsewhere; wait for the late fee
+                    next.add(new long[]{bill.billId(), nextStepMillis(bill.dueDate(), true)});
+                }
+            }
+        });
+
+        // Updated with JDBC, so drop the cached entities Hibernate would otherwise keep serving
+        changed.forEach(billId -> cacheEvictor.evict(Bill.class, billId));
+        synchronized (this) {
+            for (long[] step : next)
+                wheel.schedule(tenants.scope(step[0]), step[1]);
+        }
+    }
+
+    private LocalDate dueDate(ResultSet rs) throws SQLException {
+        Date dueDate = rs.getDate("due_date");
+        return dueDate != null ? dueDate.toLocalDate() : defaultDueDate(rs.getTimestamp("created_at").toLocalDateTime().toLocalDate());
+    }
+
+    private long nextStepMillis(LocalDate dueDate, boolean reminded) {
+        LocalDateTime at = reminded ? lateFeeAt(dueDate) : dueDate.minusDays(reminderDaysBefore).atStartOfDay();
+        return at.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    // Start of the first day past the due date and grace period
+    private LocalDateTime lateFeeAt(LocalDate dueDate) {
+        return dueDate.plusDays(graceDays + 1L).atStartOfDay();
+    }
+
+    private synchronized double scheduled() {
+        return wheel.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
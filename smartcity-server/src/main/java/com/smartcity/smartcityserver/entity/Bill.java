@@ -3,11 +3,16 @@ package com.smartcity.smartcityserver.entity;
 import com.smartcity.smartcityserver.entity.enums.BillType;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity(name = "bills")
+@Table(indexes = @Index(name = "idx_bills_unpaid_due", columnList = "paid, due_date"))
 @Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "bills")
 public class Bill {
 
     @Id
@@ -31,6 +36,15 @@ public class Bill {
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    private LocalDate dueDate;
+
+    private LocalDateTime reminderSentAt;
+
+    // Added to amount when the bill is overdue
+    private Double lateFee;
+
+    private LocalDateTime lateFeeAppliedAt;
+
     @PrePersist
     public void prePersist() {
         if (createdAt == null)
@@ -0,0 +1,63 @@
+package com.smartcity.smartcityserver.entity;
+
+import com.smartcity.smartcityserver.entity.enums.BillImportStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An uploaded meter-reading file and how far it has been imported. The checkpoint columns
+ * are advanced in the same transaction as the bills they cover.
+ */
+@Entity
+@Table(name = "bill_imports")
+@Data
+public class BillImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BillImportStatus status = BillImportStatus.QUEUED;
+
+    @Column(nullable = false)
+    private Long fileSize = 0L;
+
+    // Byte offset and line count just past the last committed line
+    @Column(nullable = false)
+    private Long committedOffset = 0L;
+
+    @Column(nullable = false)
+    private Long committedLines = 0L;
+
+    @Column(nullable = false)
+    private Long rowsImported = 0L;
+
+    @Column(nullable = false)
+    private Long rowsRejected = 0L;
+
+    // Length of the rejected-lines file as of the last commit
+    @Column(nullable = false)
+    private Long rejectedBytes = 0L;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null)
+            createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+}
@@ -43,12 +43,28 @@ public class Complaint {
 
     private LocalDateTime updatedAt;
 
+    // SLA clocks run from here; older rows without it fall back to createdAt
+    private LocalDateTime statusChangedAt;
+
+    private LocalDateTime escalatedAt;
+
+    // Set when an SLA rule flags the complaint, cleared when the status changes
+    private LocalDateTime slaBreachedAt;
+
     @PrePersist
     public void prePersist(){
         if(createdAt ==null)
             createdAt = LocalDateTime.now();
         if(updatedAt == null)
             updatedAt = LocalDateTime.now();
+        if(statusChangedAt == null)
+            statusChangedAt = createdAt;
+    }
+
+    // Archival ages complaints by their last change, so keep this current
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
 }
@@ -7,7 +7,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "contact")
+@Table(name = "contact", uniqueConstraints = @UniqueConstraint(name = "uk_contact_journal",
+        columnNames = {"journal_instance", "journal_sequence"}))
 @Data
 public class Contact {
 
@@ -34,4 +35,11 @@ public class Contact {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Set for rows written by the contact journal; lets recovery skip records that were already stored.
+    // Sequences are only unique within the journal of one instance.
+    @Column(length = 36)
+    private String journalInstance;
+
+    private Long journalSequence;
+
 }
@@ -0,0 +1,25 @@
+package com.smartcity.smartcityserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Lease that lets one instance at a time run a cluster-wide background job.
+ * Acquired and released with conditional updates; mapped only so the schema is created with the others.
+ */
+@Entity
+@Table(name = "job_locks")
+@Data
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 36)
+    private String owner;
+
+    // Epoch milliseconds; an expired lease may be taken over
+    @Column(nullable = false)
+    private long lockedUntil;
+}
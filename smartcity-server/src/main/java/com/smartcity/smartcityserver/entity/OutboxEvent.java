@@ -0,0 +1,62 @@
+package com.smartcity.smartcityserver.entity;
+
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+import com.smartcity.smartcityserver.entity.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification written in the same transaction as the change it reports,
+ * and delivered later by the outbox dispatcher.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = @Index(name = "idx_outbox_due", columnList = "status, next_attempt_at"))
+@Data
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 1000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // Earliest time the dispatcher may pick the event up; also used as the claim lease
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null)
+            createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null)
+            nextAttemptAt = createdAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartcity.smartcityserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Version stamp of a resource collection or of one user's view of it, shared by every instance.
+ * Written with plain SQL by {@link com.smartcity.smartcityserver.service.impl.ResourceVersionServiceImpl};
+ * mapped only so the schema is created with the others.
+ */
+@Entity
+@Table(name = "resource_versions")
+@Data
+public class ResourceVersion {
+
+    @Id
+    @Column(length = 100)
+    private String resourceKey;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Epoch milliseconds, rounded down to the second
+    @Column(nullable = false)
+    private long lastModified;
+}
@@ -3,6 +3,10 @@ package com.smartcity.smartcityserver.entity;
 import com.smartcity.smartcityserver.entity.enums.Role;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,6 +16,8 @@ import java.util.List;
 
 @Entity(name = "users")
 @Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 public class User implements UserDetails {
 
     @Id
@@ -24,6 +30,8 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role = Role.CITIZEN;
 
+    // Looked up on every authenticated request, resolved through the natural-id cache
+    @NaturalId
     @Column(unique = true, nullable = false, length = 40)
     private String email;
 
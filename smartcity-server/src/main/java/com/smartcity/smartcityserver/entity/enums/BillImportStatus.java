@@ -0,0 +1,8 @@
+package com.smartcity.smartcityserver.entity.enums;
+
+public enum BillImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.smartcity.smartcityserver.entity.enums;
+
+public enum ComplaintEventType {
+    CREATED,
+    STATUS_CHANGED,
+    UPDATED,
+    ESCALATED,
+    SLA_BREACHED
+}
@@ -0,0 +1,10 @@
+package com.smartcity.smartcityserver.entity.enums;
+
+public enum NotificationType {
+    BILL_CREATED,
+    BILL_REMINDER,
+    BILL_LATE_FEE,
+    COMPLAINT_STATUS_CHANGED,
+    COMPLAINT_ESCALATED,
+    EMAIL_VERIFICATION
+}
@@ -0,0 +1,7 @@
+package com.smartcity.smartcityserver.entity.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,23 @@
+package com.smartcity.smartcityserver.event;
+
+import com.smartcity.smartcityserver.entity.enums.ComplaintEventType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the complaint service whenever a complaint is modified.
+ * Listeners are expected to react after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class ComplaintChangedEvent {
+    private final ComplaintEventType type;
+    private final Long complaintId;
+    private final Long userId;
+    private final ComplaintStatus previousStatus;
+    private final ComplaintStatus status;
+    private final Priority priority;
+    private final Long actorId;
+}
@@ -0,0 +1,11 @@
+package com.smartcity.smartcityserver.exception;
+
+public class BillImportException extends RuntimeException {
+    public BillImportException(String message) {
+        super(message);
+    }
+
+    public BillImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartcity.smartcityserver.exception;
+
+public class InvalidFieldsException extends RuntimeException {
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartcity.smartcityserver.exception;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartcity.smartcityserver.exception;
+
+public class TariffNotDefinedException extends RuntimeException {
+    public TariffNotDefinedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartcity.smartcityserver.exception;
+
+public class UnknownTenantException extends RuntimeException {
+    public UnknownTenantException(String message) {
+        super(message);
+    }
+}
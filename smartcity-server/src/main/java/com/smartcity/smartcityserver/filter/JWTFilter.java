@@ -1,7 +1,11 @@
 package com.smartcity.smartcityserver.filter;
 
+import com.smartcity.smartcityserver.exception.UnknownTenantException;
+import com.smartcity.smartcityserver.metrics.RequestTimings;
 import com.smartcity.smartcityserver.service.JWTService;
 import com.smartcity.smartcityserver.service.UserService;
+import com.smartcity.smartcityserver.tenant.TenantContext;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,13 +28,18 @@ import java.nio.file.AccessDeniedException;
 @Slf4j
 public class JWTFilter extends OncePerRequestFilter {
 
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
     private final JWTService jwtService;
     private final UserService userService;
+    private final TenantRegistry tenants;
     private final HandlerExceptionResolver exceptionResolver;
 
-    public JWTFilter(JWTService jwtService, UserService userService, @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+    public JWTFilter(JWTService jwtService, UserService userService, TenantRegistry tenants,
+                     @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
         this.jwtService = jwtService;
         this.userService = userService;
+        this.tenants = tenants;
         this.exceptionResolver = exceptionResolver;
     }
 
@@ -38,11 +47,15 @@ public class JWTFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
         log.info("Incoming request: {} {}", request.getMethod(), request.getRequestURI());
+        long startedAt = System.nanoTime();
 
         try {
             final String requestTokenHeader = request.getHeader("Authorization");
 
             if (requestTokenHeader == null || !requestTokenHeader.startsWith("Bearer ")) {
+                // Login, signup and verification links name their city explicitly
+                TenantContext.set(tenants.resolve(requestedTenant(request)));
+                RequestTimings.addAuth(System.nanoTime() - startedAt);
                 filterChain.doFilter(request, response);
                 return;
             }
@@ -50,6 +63,9 @@ public class JWTFilter extends OncePerRequestFilter {
             String token = requestTokenHeader.substring(7);
             log.debug("Extracted JWT token: {}", token);
 
+            // Only the signed claim counts here; tokens issued before tenancy belong to the default tenant
+            TenantContext.set(tenants.resolve(jwtService.getTenantFromToken(token)));
+
             String userEmail = jwtService.getUserIdFromToken(token);
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -67,9 +83,10 @@ public class JWTFilter extends OncePerRequestFilter {
                 log.info("Authentication successful for user: {}", userEmail);
             }
 
+            RequestTimings.addAuth(System.nanoTime() - startedAt);
             filterChain.doFilter(request, response);
         }
-        catch (JwtException | AccessDeniedException ex) {
+        catch (JwtException | AccessDeniedException | UnknownTenantException ex) {
             log.error("JWT/Access error: {}", ex.getMessage());
             exceptionResolver.resolveException(request, response, null, ex);
         }
@@ -77,5 +94,13 @@ public class JWTFilter extends OncePerRequestFilter {
             log.error("Unexpected error in JWT filter: {}", ex.getMessage());
             exceptionResolver.resolveException(request, response, null, ex);
         }
+        finally {
+            TenantContext.clear();
+        }
+    }
+
+    private String requestedTenant(HttpServletRequest request) {
+        String header = request.getHeader(TENANT_HEADER);
+        return header != null ? header : request.getParameter("tenant");
     }
 }
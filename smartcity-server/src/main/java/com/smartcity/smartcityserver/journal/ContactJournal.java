@@ -0,0 +1,412 @@
+package com.smartcity.smartcityserver.journal;
+
+import com.smartcity.smartcityserver.exception.ServiceUnavailableException;
+import com.smartcity.smartcityserver.repositoriy.ContactRepository;
+import com.smartcity.smartcityserver.tenant.TenantContext;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file journal in front of the {@code contact} table.
+ * <p>
+ * Submissions are framed as {@code [length][crc32][payload]} and appended by a single writer thread
+ * that group-commits whatever has queued up with one fsync, so callers are acknowledged once their
+ * record is on disk rather than in the database. {@link ContactJournalFlusher} drains the journaled
+ * records in batches and moves the checkpoint forward; segments wholly below the checkpoint are deleted.
+ * <p>
+ * Sequences are numbered per journal, so stored rows carry the journal's instance id alongside them.
+ * The id is kept in the journal directory unless configured. On startup numbering resumes above both
+ * the checkpoint and the highest sequence this instance already stored, so a lost or wiped directory
+ * with a configured id never reuses a sequence.
+ */
+@Component
+@Slf4j
+public class ContactJournal {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String INSTANCE_FILE = "instance-id";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_GROUP_COMMIT = 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxPending;
+    private final boolean fsync;
+    private final long appendTimeoutMs;
+    private final String configuredInstanceId;
+    private final ContactRepository contactRepository;
+    private final TenantRegistry tenants;
+
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+    // Durable records not yet flushed to the database, in sequence order
+    private final ConcurrentLinkedQueue<PendingContact> journaled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final Counter rejected;
+
+    // Owned by the writer thread once started
+    private FileChannel activeChannel;
+    private long nextSequence = 1;
+
+    private volatile String instanceId;
+    private volatile long checkpoint;
+    private volatile boolean running;
+    private Thread writer;
+
+    public ContactJournal(@Value("${smartcity.contact-journal.dir:data/contact-journal}") Path directory,
+                          @Value("${smartcity.contact-journal.segment-size-mb:64}") long segmentSizeMb,
+                          @Value("${smartcity.contact-journal.max-pending:100000}") int maxPending,
+                          @Value("${smartcity.contact-journal.fsync:true}") boolean fsync,
+                          @Value("${smartcity.contact-journal.append-timeout-ms:2000}") long appendTimeoutMs,
+                          @Value("${smartcity.contact-journal.instance-id:}") String configuredInstanceId,
+                          ContactRepository contactRepository,
+                          TenantRegistry tenants,
+                          MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentBytes = segmentSizeMb * 1024 * 1024;
+        this.maxPending = maxPending;
+        this.fsync = fsync;
+        this.appendTimeoutMs = appendTimeoutMs;
+        this.configuredInstanceId = configuredInstanceId;
+        this.contactRepository = contactRepository;
+        this.tenants = tenants;
+        this.rejected = Counter.builder("smartcity.contact_journal.rejected").register(meterRegistry);
+        Gauge.builder("smartcity.contact_journal.pending", pending, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("smartcity.contact_journal.lag", this, ContactJournal::oldestPendingAgeMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        instanceId = loadInstanceId();
+        recover();
+        openSegment();
+        running = true;
+        writer = new Thread(this::writeLoop, "contact-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Contact journal {} started in {} with {} pending record(s), next sequence {}",
+                instanceId, directory.toAbsolutePath(), pending.get(), nextSequence);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        writer.join(5000);
+        activeChannel.close();
+    }
+
+    /**
+     * Appends a submission and blocks until it is durable.
+     *
+     * @return the sequence number assigned to the record
+     * @throws ServiceUnavailableException when the backlog is full or the journal cannot be written
+     */
+    public long append(PendingContact contact) {
+        if (!running)
+            throw new ServiceUnavailableException("Contact submissions are not being accepted right now");
+        // Encoded on the caller's thread; the writer only patches in the sequence number
+        byte[] payload = encode(contact);
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many contact submissions are waiting, please retry shortly");
+        }
+        Append request = new Append(contact, payload, new CompletableFuture<>());
+        appends.add(request);
+        try {
+            return request.done.get(appendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while saving the contact submission");
+        } catch (ExecutionException | TimeoutException ex) {
+            log.error("Contact journal append failed: {}", ex.toString());
+            throw new ServiceUnavailableException("Could not save the contact submission, please retry");
+        }
+    }
+
+    // Stored with every flushed row; (instance id, sequence) identifies a record across instances
+    public String instanceId() {
+        return instanceId;
+    }
+
+    // Oldest durable records not yet in the database, up to max
+    public List<PendingContact> peekBatch(int max) {
+        List<PendingContact> batch = new ArrayList<>(Math.min(max, pending.get()));
+        for (PendingContact contact : journaled) {
+            if (batch.size() == max)
+                break;
+            batch.add(contact);
+        }
+        return batch;
+    }
+
+    /**
+     * Marks every record up to and including {@code sequence} as stored in the database.
+     */
+    public void checkpoint(long sequence) {
+        if (sequence <= checkpoint)
+            return;
+        PendingContact head;
+        while ((head = journaled.peek()) != null && head.getSequence() <= sequence) {
+            journaled.poll();
+            pending.decrementAndGet();
+        }
+        checkpoint = sequence;
+        try {
+            // Not fsynced on purpose: after a crash the flusher skips records it finds already stored
+            Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(tmp, Long.toString(sequence));
+            Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteFlushedSegments();
+        } catch (IOException ex) {
+            log.warn("Could not persist contact journal checkpoint {}: {}", sequence, ex.getMessage());
+        }
+    }
+
+    public long oldestPendingAgeMs() {
+        PendingContact head = journaled.peek();
+        return head == null ? 0 : Math.max(0, System.currentTimeMillis() - head.getSubmittedAt());
+    }
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>(MAX_GROUP_COMMIT);
+        while (running || !appends.isEmpty()) {
+            try {
+                Append first = appends.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                appends.drainTo(batch, MAX_GROUP_COMMIT - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Append> batch) {
+        List<PendingContact> written = new ArrayList<>(batch.size());
+        try {
+            for (Append request : batch) {
+                PendingContact contact = request.contact.withSequence(nextSequence++);
+                ByteBuffer.wrap(request.payload).putLong(0, contact.getSequence());
+                ByteBuffer frame = frame(request.payload);
+                while (frame.hasRemaining())
+                    activeChannel.write(frame);
+                written.add(contact);
+            }
+            if (fsync)
+                activeChannel.force(false);
+        } catch (IOException ex) {
+            pending.addAndGet(-batch.size());
+            batch.forEach(request -> request.done.completeExceptionally(ex));
+            // A torn frame ends a segment on recovery, so later records must go to a fresh one
+            rollSegmentQuietly();
+            return;
+        }
+
+        journaled.addAll(written);
+        for (int i = 0; i < batch.size(); i++)
+            batch.get(i).done.complete(written.get(i).getSequence());
+        try {
+            if (activeChannel.size() >= segmentBytes)
+                rollSegment();
+        } catch (IOException ex) {
+            log.warn("Could not roll contact journal segment: {}", ex.getMessage());
+        }
+    }
+
+    private void recover() throws IOException {
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile))
+            checkpoint = Long.parseLong(Files.readString(checkpointFile).trim());
+        nextSequence = checkpoint + 1;
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+        }
+        for (Path file : segments.values())
+            recoverSegment(file);
+        deleteFlushedSegments();
+
+        // The directory may be new or restored from an older copy while the database kept our rows
+        long stored = highestStoredSequence();
+        if (stored >= nextSequence) {
+            log.warn("Contact journal {} is behind the database (stored up to {}), continuing at {}",
+                    directory.toAbsolutePath(), stored, stored + 1);
+            nextSequence = stored + 1;
+        }
+    }
+
+    // Fails startup rather than guess: a reused sequence would be taken for a stored record and skipped
+    private long highestStoredSequence() {
+        long[] highest = new long[1];
+        for (String tenantId : tenants.ids()) {
+            TenantContext.runAs(tenantId, () -> {
+                Long stored = contactRepository.findMaxJournalSequence(instanceId);
+                if (stored != null)
+                    highest[0] = Math.max(highest[0], stored);
+            });
+        }
+        return highest[0];
+    }
+
+    private String loadInstanceId() throws IOException {
+        if (!configuredInstanceId.isBlank())
+            return configuredInstanceId;
+        Path file = directory.resolve(INSTANCE_FILE);
+        if (Files.exists(file))
+            return Files.readString(file).trim();
+        String generated = UUID.randomUUID().toString();
+        Path tmp = directory.resolve(INSTANCE_FILE + ".tmp");
+        Files.writeString(tmp, generated);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return generated;
+    }
+
+    private void recoverSegment(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int recovered = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() || crc != crc32(buffer.array(), buffer.position(), length)) {
+                buffer.position(start);
+                break;
+            }
+            PendingContact contact = decode(buffer.array(), buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            nextSequence = Math.max(nextSequence, contact.getSequence() + 1);
+            if (contact.getSequence() > checkpoint) {
+                journaled.add(contact);
+                pending.incrementAndGet();
+                recovered++;
+            }
+        }
+        if (buffer.hasRemaining()) {
+            // Torn tail from a crash mid-write: everything after the last complete frame is discarded
+            log.warn("Truncating contact journal segment {} at byte {}", file.getFileName(), buffer.position());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(buffer.position());
+            }
+        }
+        if (recovered > 0)
+            log.info("Recovered {} unflushed contact submission(s) from {}", recovered, file.getFileName());
+    }
+
+    private void deleteFlushedSegments() throws IOException {
+        for (var entry : segments.entrySet()) {
+            Long next = segments.higherKey(entry.getKey());
+            if (next == null || next - 1 > checkpoint)
+                break;
+            Files.deleteIfExists(entry.getValue());
+            segments.remove(entry.getKey());
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(nextSequence, file);
+    }
+
+    private void rollSegment() throws IOException {
+        activeChannel.close();
+        openSegment();
+    }
+
+    private void rollSegmentQuietly() {
+        try {
+            rollSegment();
+        } catch (IOException ex) {
+            log.error("Could not open a new contact journal segment: {}", ex.getMessage());
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).putInt(crc32(payload, 0, payload.length)).put(payload).flip();
+        return frame;
+    }
+
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(PendingContact contact) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(contact.getSequence());
+            out.writeLong(contact.getUserId());
+            out.writeLong(contact.getSubmittedAt());
+            out.writeUTF(contact.getName());
+            out.writeUTF(contact.getEmail());
+            out.writeBoolean(contact.getPhoneNumber() != null);
+            if (contact.getPhoneNumber() != null)
+                out.writeUTF(contact.getPhoneNumber());
+            out.writeUTF(contact.getMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PendingContact decode(byte[] bytes, int offset, int length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return PendingContact.builder()
+                    .sequence(in.readLong())
+                    .userId(in.readLong())
+                    .submittedAt(in.readLong())
+                    .name(in.readUTF())
+                    .email(in.readUTF())
+                    .phoneNumber(in.readBoolean() ? in.readUTF() : null)
+                    .message(in.readUTF())
+                    .build();
+        }
+    }
+
+    private record Append(PendingContact contact, byte[] payload, CompletableFuture<Long> done) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartcity.smartcityserver.journal;
+
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.tenant.TenantContext;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Moves journaled contact submissions into the {@code contact} table with batched inserts.
+ * A failed batch stays in the journal and is retried on the next run.
+ * <p>
+ * Journaled user ids are tenant-scoped; each batch is split by tenant and every part goes to its
+ * own city's database. Before inserting, a part looks up which of its records are already stored
+ * under this journal's instance id, so a part that committed before another part failed, or a batch
+ * stored just before a crash outran the checkpoint, is not inserted twice on the retry.
+ */
+@Component
+@Slf4j
+public class ContactJournalFlusher {
+
+    private static final String INSERT_SQL = "INSERT INTO contact (name, email, phone_number, message, submitted_at, user_id, journal_instance, journal_sequence) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String STORED_SQL = "SELECT journal_sequence FROM contact "
+            + "WHERE journal_instance = ? AND journal_sequence BETWEEN ? AND ?";
+
+    private final ContactJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersionService resourceVersionService;
+    private final TenantRegistry tenants;
+    private final int batchSize;
+    private final Timer flushTimer;
+    private final Counter flushed;
+    // Not synchronized: a flush holds it across JDBC calls, which would pin a virtual thread's carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ContactJournalFlusher(ContactJournal journal,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ResourceVersionService resourceVersionService,
+                                 TenantRegistry tenants,
+                                 @Value("${smartcity.contact-journal.batch-size:500}") int batchSize,
+                                 MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceVersionService = resourceVersionService;
+        this.tenants = tenants;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("smartcity.contact_journal.flush").register(meterRegistry);
+        this.flushed = Counter.builder("smartcity.contact_journal.flushed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.contact-journal.flush-interval-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingContact> batch;
+            while (!(batch = journal.peekBatch(batchSize)).isEmpty()) {
+                Map<String, List<PendingContact>> byTenant = batch.stream()
+                        .collect(Collectors.groupingBy(contact -> tenants.tenantOf(contact.getUserId()),
+                                LinkedHashMap::new, Collectors.toList()));
+                for (Map.Entry<String, List<PendingContact>> entry : byTenant.entrySet())
+                    TenantContext.runAs(entry.getKey(), () -> insert(entry.getValue()));
+                journal.checkpoint(batch.getLast().getSequence());
+                if (batch.size() < batchSize)
+                    return;
+            }
+        } catch (DataAccessException | TransactionException ex) {
+            log.error("Contact journal flush failed, will retry: {}", ex.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private void insert(List<PendingContact> part) {
+        String instanceId = journal.instanceId();
+        List<PendingContact> batch = flushTimer.record(() -> transactionTemplate.execute(status -> {
+            // One range lookup on the (journal_instance, journal_sequence) key; usually finds nothing
+            Set<Long> stored = new HashSet<>(jdbcTemplate.queryForList(STORED_SQL, Long.class,
+                    instanceId, part.getFirst().getSequence(), part.getLast().getSequence()));
+            List<PendingContact> fresh = stored.isEmpty() ? part
+                    : part.stream().filter(contact -> !stored.contains(contact.getSequence())).toList();
+            if (fresh.isEmpty())
+                return fresh;
+            jdbcTemplate.batchUpdate(INSERT_SQL, fresh, fresh.size(), (ps, contact) -> {
+                ps.setString(1, contact.getName());
+                ps.setString(2, contact.getEmail());
+                ps.setString(3, contact.getPhoneNumber());
+                ps.setString(4, contact.getMessage());
+                ps.setTimestamp(5, new Timestamp(contact.getSubmittedAt()));
+                ps.setLong(6, TenantRegistry.unscope(contact.getUserId()));
+                ps.setString(7, instanceId);
+                ps.setLong(8, contact.getSequence());
+            });
+            // Bumped as this transaction commits, so list ETags change together with the rows
+            fresh.stream()
+                    .map(contact -> TenantRegistry.unscope(contact.getUserId()))
+                    .distinct()
+                    .forEach(userId -> resourceVersionService.markChanged(Resource.CONTACTS, userId));
+            return fresh;
+        }));
+        if (batch.size() < part.size())
+            log.info("Skipped {} contact submission(s) already stored", part.size() - batch.size());
+        if (batch.isEmpty())
+            return;
+        flushed.increment(batch.size());
+        log.debug("Flushed {} contact submission(s) up to sequence {}", batch.size(), batch.getLast().getSequence());
+    }
+}
@@ -0,0 +1,23 @@
+package com.smartcity.smartcityserver.journal;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+/**
+ * A contact submission that has been acknowledged and journaled but not yet written to the database.
+ */
+@Value
+@Builder
+public class PendingContact {
+
+    // Assigned by the journal when the record is appended
+    @With
+    long sequence;
+    long userId;
+    String name;
+    String email;
+    String phoneNumber;
+    String message;
+    long submittedAt;
+}
@@ -0,0 +1,230 @@
+package com.smartcity.smartcityserver.journal;
+
+import com.smartcity.smartcityserver.dto.StatusTransitionDTO;
+import com.smartcity.smartcityserver.entity.enums.ComplaintEventType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.event.ComplaintChangedEvent;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import com.smartcity.smartcityserver.utils.LongLongIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of complaint status transitions in memory-mapped segment files.
+ * <p>
+ * Every record is a fixed 40 bytes:
+ * {@code complaintId, previousRecord, timestamp, actorId (longs), from, to (bytes), 2 spare bytes, checksum (int)}.
+ * {@code previousRecord} points at the complaint's prior transition, so a timeline is read by following
+ * the chain from the position kept in an in-memory index. Appends write straight into the mapping and
+ * allocate nothing; the OS flushes dirty pages, and {@link #force()} bounds how much a power loss can take.
+ * <p>
+ * Complaint ids are stored tenant-scoped ({@link TenantRegistry#scope(long)}), so one journal serves every city.
+ * The journal is local to this instance: with several instances, each timeline holds only the transitions
+ * this one recorded.
+ * <p>
+ * Transitions are appended after the complaint commits, after its version stamp has moved; the stamp is
+ * bumped once more after the append, so a timeline read in between cannot stay cached under the final tag.
+ */
+@Component
+@Slf4j
+public class StatusHistoryJournal {
+
+    static final int RECORD_BYTES = 40;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int CHECKSUM_SEED = 0x5348_4A31; // "SHJ1"
+    private static final long NONE = -1;
+    private static final byte NO_STATUS = -1;
+    private static final ComplaintStatus[] STATUSES = ComplaintStatus.values();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final TenantRegistry tenants;
+    private final ResourceVersionService resourceVersionService;
+
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private MappedByteBuffer active;
+    private int activeSegment = -1;
+    private int writeOffset;
+    // scoped complaintId -> position of its latest record
+    private final LongLongIndex latest = new LongLongIndex(1024);
+    private long records;
+
+    public StatusHistoryJournal(@Value("${smartcity.status-history.dir:data/status-history}") Path directory,
+                                @Value("${smartcity.status-history.segment-size-mb:64}") int segmentSizeMb,
+                                TenantRegistry tenants,
+                                ResourceVersionService resourceVersionService,
+                                MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.tenants = tenants;
+        this.resourceVersionService = resourceVersionService;
+        // Whole records only, so a record never straddles two segments
+        this.segmentBytes = segmentSizeMb * 1024 * 1024 / RECORD_BYTES * RECORD_BYTES;
+        Gauge.builder("smartcity.status_history.records", this, StatusHistoryJournal::recordCount).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            map(file);
+            recover(activeSegment);
+        }
+        if (active == null)
+            roll();
+        log.info("Status history journal opened: {} record(s) for {} complaint(s) in {} segment(s)",
+                records, latest.size(), segments.length);
+    }
+
+    // Not part of the committed transaction, so the stamp bump below is written on its own
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onComplaintChanged(ComplaintChangedEvent event) {
+        if (event.getType() != ComplaintEventType.STATUS_CHANGED || event.getPreviousStatus() == event.getStatus())
+            return;
+        append(tenants.scope(event.getComplaintId()), event.getPreviousStatus(), event.getStatus(),
+                event.getActorId() == null ? 0 : event.getActorId(), System.currentTimeMillis());
+        resourceVersionService.markChanged(Resource.COMPLAINTS, event.getUserId());
+    }
+
+    public synchronized void append(long complaintId, ComplaintStatus from, ComplaintStatus to, long actorId, long timestamp) {
+        if (writeOffset + RECORD_BYTES > segmentBytes) {
+            try {
+                roll();
+            } catch (IOException ex) {
+                log.error("Could not roll status history segment, transition of complaint {} not recorded: {}", complaintId, ex.getMessage());
+                return;
+            }
+        }
+        long previous = latest.get(complaintId, NONE);
+        byte fromByte = from == null ? NO_STATUS : (byte) from.ordinal();
+        byte toByte = (byte) to.ordinal();
+        int at = writeOffset;
+        active.putLong(at, complaintId);
+        active.putLong(at + 8, previous);
+        active.putLong(at + 16, timestamp);
+        active.putLong(at + 24, actorId);
+        active.put(at + 32, fromByte);
+        active.put(at + 33, toByte);
+        active.putShort(at + 34, (short) 0);
+        // Written last: a slot only counts once its checksum matches
+        active.putInt(at + 36, checksum(complaintId, previous, timestamp, actorId, fromByte, toByte));
+        latest.put(complaintId, position(activeSegment, at));
+        writeOffset += RECORD_BYTES;
+        records++;
+    }
+
+    /**
+     * Status transitions of a complaint of the current tenant, oldest first.
+     */
+    public synchronized List<StatusTransitionDTO> timeline(long complaintId) {
+        List<StatusTransitionDTO> timeline = new ArrayList<>();
+        for (long pos = latest.get(tenants.scope(complaintId), NONE); pos != NONE; ) {
+            MappedByteBuffer segment = segments[(int) (pos >>> 32)];
+            int at = (int) pos;
+            byte from = segment.get(at + 32);
+            timeline.add(new StatusTransitionDTO(complaintId,
+                    from == NO_STATUS ? null : STATUSES[from],
+                    STATUSES[segment.get(at + 33)],
+                    segment.getLong(at + 24) == 0 ? null : segment.getLong(at + 24),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(segment.getLong(at + 16)), ZoneId.systemDefault())));
+            pos = segment.getLong(at + 8);
+        }
+        Collections.reverse(timeline);
+        return timeline;
+    }
+
+    public synchronized long recordCount() {
+        return records;
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.status-history.force-interval-ms:1000}")
+    public synchronized void force() {
+        if (active != null)
+            active.force();
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    private void recover(int segmentIndex) {
+        MappedByteBuffer segment = segments[segmentIndex];
+        int at = 0;
+        for (; at + RECORD_BYTES <= segmentBytes; at += RECORD_BYTES) {
+            long complaintId = segment.getLong(at);
+            long previous = segment.getLong(at + 8);
+            long timestamp = segment.getLong(at + 16);
+            long actorId = segment.getLong(at + 24);
+            byte from = segment.get(at + 32);
+            byte to = segment.get(at + 33);
+            if (complaintId == 0 || segment.getInt(at + 36) != checksum(complaintId, previous, timestamp, actorId, from, to))
+                break;
+            latest.put(complaintId, position(segmentIndex, at));
+            records++;
+        }
+        writeOffset = at;
+    }
+
+    private void roll() throws IOException {
+        map(directory.resolve(String.format("%010d%s", activeSegment + 1, SEGMENT_SUFFIX)));
+        writeOffset = 0;
+    }
+
+    private void map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file to a full (sparse) segment; the mapping outlives the channel
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            if (active != null)
+                active.force();
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            segments[segments.length - 1] = segment;
+            active = segment;
+            activeSegment = segments.length - 1;
+        }
+    }
+
+    private static long position(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int checksum(long complaintId, long previous, long timestamp, long actorId, byte from, byte to) {
+        long h = complaintId * 0x9E3779B97F4A7C15L;
+        h = (h ^ previous) * 0x9E3779B97F4A7C15L;
+        h = (h ^ timestamp) * 0x9E3779B97F4A7C15L;
+        h = (h ^ actorId) * 0x9E3779B97F4A7C15L;
+        h = (h ^ ((from & 0xFF) << 8 | (to & 0xFF))) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) ^ CHECKSUM_SEED;
+    }
+}
@@ -0,0 +1,25 @@
+package com.smartcity.smartcityserver.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the connection acquisition time of every Hibernate session to the current request's
+ * {@link RequestTimings}; statement time is measured at the JDBC layer by
+ * {@link com.smartcity.smartcityserver.datasource.StatementCountingDataSource}.
+ * Registered for all sessions via {@code hibernate.session.events.auto}; Hibernate creates one
+ * instance per session, which is only ever used by one thread.
+ */
+public class HibernateTimingListener implements SessionEventListener {
+
+    private long connectionAcquisitionStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionAcquisitionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestTimings.addConnectionWait(System.nanoTime() - connectionAcquisitionStart);
+    }
+}
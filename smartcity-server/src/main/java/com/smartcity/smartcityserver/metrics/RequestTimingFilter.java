@@ -0,0 +1,103 @@
+package com.smartcity.smartcityserver.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the per-layer breakdown of every request as {@code smartcity.http.*} timers, tagged like
+ * {@code http.server.requests} (method and URI template) so a slow endpoint can be split into
+ * authentication, database, connection-pool wait and serialisation time, along with the number of
+ * statements and rows each request caused. {@link SqlBudget} flags requests that exceed their SQL budget.
+ * <p>
+ * Requests served within {@code smartcity.warmup.post-deploy-window} of the instance starting to accept
+ * traffic are also timed as {@code smartcity.http.post_deploy}, to compare against steady state.
+ * <p>
+ * Ordered ahead of the security filter chain so the JWT filter runs inside it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlBudget sqlBudget;
+    private final long postDeployWindowNanos;
+
+    // System.nanoTime() when readiness turned ACCEPTING_TRAFFIC; 0 until then
+    private volatile long acceptingTrafficSince;
+
+    public RequestTimingFilter(MeterRegistry meterRegistry, SqlBudget sqlBudget,
+                               @Value("${smartcity.warmup.post-deploy-window:5m}") Duration postDeployWindow) {
+        this.meterRegistry = meterRegistry;
+        this.sqlBudget = sqlBudget;
+        this.postDeployWindowNanos = postDeployWindow.toNanos();
+    }
+
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC && acceptingTrafficSince == 0)
+            acceptingTrafficSince = System.nanoTime();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long startedAt = System.nanoTime();
+        RequestTimings timings = RequestTimings.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimings.end();
+            // Resolved by the dispatcher; unmatched requests share one tag to bound cardinality
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            String method = request.getMethod();
+            record("smartcity.http.auth", "JWT validation and user lookup", method, uri, timings.authNanos);
+            record("smartcity.http.db", "JDBC statement execution", method, uri, timings.dbNanos);
+            record("smartcity.http.db.connection_wait", "Waiting for a pooled connection", method, uri, timings.connectionWaitNanos);
+            record("smartcity.http.serialization", "Writing the response body", method, uri, timings.serializationNanos);
+            summary("smartcity.sql.statements", "SQL statements issued", method, uri, timings.statements);
+            summary("smartcity.sql.rows", "Rows read or written", method, uri, timings.rows);
+            sqlBudget.report(method, uri, timings);
+            long since = acceptingTrafficSince;
+            if (since != 0 && startedAt - since < postDeployWindowNanos)
+                record("smartcity.http.post_deploy", "Requests served right after the instance started taking traffic",
+                        method, uri, System.nanoTime() - startedAt);
+        }
+    }
+
+    private void record(String name, String description, String method, String uri, long nanos) {
+        Timer.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void summary(String name, String description, String method, String uri, long amount) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(amount);
+    }
+}
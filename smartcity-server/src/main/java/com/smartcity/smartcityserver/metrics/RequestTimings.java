@@ -0,0 +1,116 @@
+package com.smartcity.smartcityserver.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Time spent per layer while handling the current request, accumulated on the request thread
+ * and published by {@link RequestTimingFilter} when the request completes.
+ * <p>
+ * The static helpers are no-ops outside a request (scheduled jobs, startup), so callers never need to check.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    long authNanos;
+    long dbNanos;
+    long connectionWaitNanos;
+    long serializationNanos;
+    int statements;
+    long rows;
+    // Executions per normalised statement, for N+1 detection
+    final Map<String, Integer> statementShapes = new HashMap<>();
+
+    private RequestTimings() {
+    }
+
+    static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Starts separate timings for work the current request runs on another thread. Bind them to that
+     * work with {@link #bind} and merge them back with {@link #join} once it has finished; until then
+     * only that thread touches them.
+     *
+     * @return fresh timings, or null outside a request
+     */
+    public static RequestTimings fork() {
+        return CURRENT.get() == null ? null : new RequestTimings();
+    }
+
+    public static <T> Callable<T> bind(RequestTimings timings, Callable<T> task) {
+        if (timings == null)
+            return task;
+        return () -> {
+            CURRENT.set(timings);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    // Parallel branches add up, so DB time of a forked request can exceed its wall time
+    public static void join(RequestTimings forked) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null || forked == null)
+            return;
+        timings.authNanos += forked.authNanos;
+        timings.dbNanos += forked.dbNanos;
+        timings.connectionWaitNanos += forked.connectionWaitNanos;
+        timings.serializationNanos += forked.serializationNanos;
+        timings.statements += forked.statements;
+        timings.rows += forked.rows;
+        forked.statementShapes.forEach((shape, count) -> timings.statementShapes.merge(shape, count, Integer::sum));
+    }
+
+    public static void addAuth(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null)
+            timings.authNanos += nanos;
+    }
+
+    /**
+     * Records one executed JDBC statement (a batch counts once).
+     *
+     * @return the current request's timings, or null outside a request
+     */
+    public static RequestTimings addStatement(String shape, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.dbNanos += nanos;
+            timings.statements++;
+            timings.statementShapes.merge(shape, 1, Integer::sum);
+        }
+        return timings;
+    }
+
+    // Rows read from result sets plus rows reported as updated
+    public static void addRows(long rows) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null)
+            timings.rows += rows;
+    }
+
+    public static void addConnectionWait(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null)
+            timings.connectionWaitNanos += nanos;
+    }
+
+    public static void addSerialization(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null)
+            timings.serializationNanos += nanos;
+    }
+}
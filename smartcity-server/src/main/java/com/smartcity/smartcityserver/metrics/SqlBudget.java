@@ -0,0 +1,81 @@
+package com.smartcity.smartcityserver.metrics;
+
+import com.smartcity.smartcityserver.exception.SqlBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request limits on SQL traffic. A request that issues more than {@code max-statements} statements,
+ * or runs the same statement shape {@code repeat-threshold} times (the N+1 pattern of a lazy association
+ * loaded in a loop), is logged with its most frequent statements when it completes.
+ * <p>
+ * With {@code fail-on-violation} the offending statement throws instead, so integration tests fail on
+ * the request that crossed the budget.
+ */
+@Component
+@Slf4j
+public class SqlBudget {
+
+    private static final int SHAPES_LOGGED = 5;
+
+    private final int maxStatements;
+    private final int repeatThreshold;
+    private final boolean failOnViolation;
+    private final Counter tooManyStatements;
+    private final Counter repeatedStatements;
+
+    public SqlBudget(@Value("${smartcity.sql-budget.max-statements:30}") int maxStatements,
+                     @Value("${smartcity.sql-budget.repeat-threshold:10}") int repeatThreshold,
+                     @Value("${smartcity.sql-budget.fail-on-violation:false}") boolean failOnViolation,
+                     MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.failOnViolation = failOnViolation;
+        this.tooManyStatements = Counter.builder("smartcity.sql_budget.exceeded")
+                .tag("reason", "statements")
+                .register(meterRegistry);
+        this.repeatedStatements = Counter.builder("smartcity.sql_budget.exceeded")
+                .tag("reason", "repeated")
+                .register(meterRegistry);
+    }
+
+    // Called by the JDBC proxy after every statement of a request
+    public void enforce(RequestTimings timings, String shape) {
+        if (!failOnViolation || timings == null)
+            return;
+        if (timings.statements > maxStatements)
+            throw new SqlBudgetExceededException("Request issued more than " + maxStatements + " SQL statements");
+        if (timings.statementShapes.getOrDefault(shape, 0) >= repeatThreshold)
+            throw new SqlBudgetExceededException("Statement executed " + repeatThreshold + " times in one request (N+1?): " + shape);
+    }
+
+    // Called once the request has completed
+    void report(String method, String uri, RequestTimings timings) {
+        boolean tooMany = timings.statements > maxStatements;
+        boolean repeated = timings.statementShapes.values().stream().anyMatch(count -> count >= repeatThreshold);
+        if (!tooMany && !repeated)
+            return;
+        if (tooMany)
+            tooManyStatements.increment();
+        if (repeated)
+            repeatedStatements.increment();
+        log.warn("{} {} issued {} SQL statements ({} rows, {} ms in the database){}; most frequent: {}",
+                method, uri, timings.statements, timings.rows, TimeUnit.NANOSECONDS.toMillis(timings.dbNanos),
+                repeated ? ", likely N+1" : "", topShapes(timings.statementShapes));
+    }
+
+    private static String topShapes(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(SHAPES_LOGGED)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining(" | "));
+    }
+}
@@ -0,0 +1,16 @@
+package com.smartcity.smartcityserver.notification;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stand-in for a mail server during local development: notifications are only logged.
+ */
+@Slf4j
+public class LoggingNotificationChannel implements NotificationChannel {
+
+    @Override
+    public void deliver(Notification notification) {
+        log.info("Notification to {} <{}>: {}\n{}", notification.getUserId(), notification.getRecipient(),
+                notification.getSubject(), notification.getBody());
+    }
+}
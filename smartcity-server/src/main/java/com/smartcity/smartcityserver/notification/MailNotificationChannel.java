@@ -0,0 +1,25 @@
+package com.smartcity.smartcityserver.notification;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Sends notifications as plain-text email through the configured SMTP server.
+ */
+@RequiredArgsConstructor
+public class MailNotificationChannel implements NotificationChannel {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    @Override
+    public void deliver(Notification notification) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(notification.getRecipient());
+        message.setSubject(notification.getSubject());
+        message.setText(notification.getBody());
+        mailSender.send(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.smartcity.smartcityserver.notification;
+
+import lombok.Value;
+
+/**
+ * A message ready for delivery to a single recipient.
+ */
+@Value
+public class Notification {
+    Long userId;
+    String recipient;
+    String subject;
+    String body;
+}
@@ -0,0 +1,14 @@
+package com.smartcity.smartcityserver.notification;
+
+/**
+ * Delivery mechanism used by the outbox dispatcher.
+ */
+public interface NotificationChannel {
+
+    /**
+     * Delivers a notification. Any exception marks the delivery as failed and it is retried later.
+     *
+     * @param notification the message to deliver
+     */
+    void deliver(Notification notification) throws Exception;
+}
@@ -0,0 +1,205 @@
+package com.smartcity.smartcityserver.notification;
+
+import com.smartcity.smartcityserver.entity.OutboxEvent;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+import com.smartcity.smartcityserver.entity.enums.OutboxStatus;
+import com.smartcity.smartcityserver.repositoriy.OutboxEventRepository;
+import com.smartcity.smartcityserver.repositoriy.UserRepository;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the notification outbox in the background.
+ * <p>
+ * A batch of due events is claimed in a short transaction ({@code SKIP LOCKED}) by pushing their
+ * {@code nextAttemptAt} out by a lease, then delivered outside any transaction. Events for the same
+ * user are coalesced into one digest. Successful events are marked sent; failed ones are rescheduled
+ * with exponential backoff until {@code max-attempts}. If the process dies mid-delivery the lease
+ * expires and the events are picked up again, so delivery is at-least-once.
+ * <p>
+ * Every tenant has its own outbox table; each run drains them one after another.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "smartcity.notifications.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserRepository userRepository;
+    private final NotificationChannel channel;
+    private final TransactionTemplate transactionTemplate;
+    private final TenantRegistry tenants;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+    private final long sentRetentionDays;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer deliveryTimer;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            UserRepository userRepository,
+                            NotificationChannel channel,
+                            TransactionTemplate transactionTemplate,
+                            TenantRegistry tenants,
+                            @Value("${smartcity.notifications.batch-size:100}") int batchSize,
+                            @Value("${smartcity.notifications.max-attempts:8}") int maxAttempts,
+                            @Value("${smartcity.notifications.initial-backoff-ms:30000}") long initialBackoffMs,
+                            @Value("${smartcity.notifications.max-backoff-ms:3600000}") long maxBackoffMs,
+                            @Value("${smartcity.notifications.lease-ms:120000}") long leaseMs,
+                            @Value("${smartcity.notifications.sent-retention-days:7}") long sentRetentionDays,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.userRepository = userRepository;
+        this.channel = channel;
+        this.transactionTemplate = transactionTemplate;
+        this.tenants = tenants;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        this.sentRetentionDays = sentRetentionDays;
+        this.sent = Counter.builder("smartcity.notifications.sent").register(meterRegistry);
+        this.retried = Counter.builder("smartcity.notifications.retried").register(meterRegistry);
+        this.failed = Counter.builder("smartcity.notifications.failed").register(meterRegistry);
+        this.deliveryTimer = Timer.builder("smartcity.notifications.delivery").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.notifications.poll-interval-ms:2000}")
+    public void dispatch() {
+        tenants.forEach(this::dispatchCurrentTenant);
+    }
+
+    private void dispatchCurrentTenant() {
+        List<OutboxEvent> claimed;
+        do {
+            claimed = claim();
+            if (claimed.isEmpty())
+                return;
+
+            Map<Long, User> recipients = userRepository.findAllById(claimed.stream().map(OutboxEvent::getUserId).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(User::getUserId, Function.identity()));
+            Map<Long, List<OutboxEvent>> byUser = claimed.stream()
+                    .collect(Collectors.groupingBy(OutboxEvent::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+            List<OutboxEvent> delivered = new ArrayList<>();
+            Map<OutboxEvent, String> failures = new HashMap<>();
+            byUser.forEach((userId, events) -> {
+                User user = recipients.get(userId);
+                for (List<OutboxEvent> group : groupForDelivery(events)) {
+                    if (user == null) {
+                        group.forEach(event -> failures.put(event, "Recipient no longer exists"));
+                        continue;
+                    }
+                    try {
+                        deliveryTimer.recordCallable(() -> {
+                            channel.deliver(toNotification(user, group));
+                            return null;
+                        });
+                        delivered.addAll(group);
+                    } catch (Exception ex) {
+                        log.warn("Delivery to user {} failed: {}", userId, ex.getMessage());
+                        group.forEach(event -> failures.put(event, String.valueOf(ex.getMessage())));
+                    }
+                }
+            });
+            complete(delivered, failures);
+        } while (claimed.size() == batchSize);
+    }
+
+    private List<OutboxEvent> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                    OutboxStatus.PENDING, now, Limit.of(batchSize));
+            LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+            for (OutboxEvent event : due) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+    }
+
+    private void complete(List<OutboxEvent> delivered, Map<OutboxEvent, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        failures.forEach((event, error) -> {
+            event.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                failed.increment();
+                log.error("Giving up on notification {} for user {} after {} attempts", event.getId(), event.getUserId(), event.getAttempts());
+            } else {
+                event.setNextAttemptAt(now.plusNanos(backoffMs(event.getAttempts()) * 1_000_000));
+                retried.increment();
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty())
+                outboxEventRepository.markSent(delivered.stream().map(OutboxEvent::getId).toList(), now);
+            outboxEventRepository.saveAll(failures.keySet());
+        });
+        sent.increment(delivered.size());
+    }
+
+    // Sent events are only kept for troubleshooting
+    @Scheduled(cron = "${smartcity.notifications.cleanup-cron:0 0 4 * * *}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(sentRetentionDays);
+        tenants.forEach(() -> {
+            Integer purged = transactionTemplate.execute(status -> outboxEventRepository.deleteSentBefore(cutoff));
+            log.info("Purged {} sent notification(s) of tenant {} older than {} days", purged, tenants.current(), sentRetentionDays);
+        });
+    }
+
+    // Email verification links go out on their own; everything else for a user becomes one digest
+    private static List<List<OutboxEvent>> groupForDelivery(List<OutboxEvent> events) {
+        List<List<OutboxEvent>> groups = new ArrayList<>();
+        List<OutboxEvent> digest = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (event.getType() == NotificationType.EMAIL_VERIFICATION)
+                groups.add(List.of(event));
+            else
+                digest.add(event);
+        }
+        if (!digest.isEmpty())
+            groups.add(digest);
+        return groups;
+    }
+
+    private static Notification toNotification(User user, List<OutboxEvent> group) {
+        if (group.size() == 1)
+            return new Notification(user.getUserId(), user.getEmail(), group.getFirst().getSubject(), group.getFirst().getBody());
+        StringBuilder body = new StringBuilder("Hi ").append(user.getName()).append(",\n\nHere is what changed since our last message:\n");
+        for (OutboxEvent event : group)
+            body.append("\n- ").append(event.getSubject()).append("\n  ").append(event.getBody().replace("\n", "\n  "));
+        return new Notification(user.getUserId(), user.getEmail(), "You have " + group.size() + " updates from SmartCity", body.toString());
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = initialBackoffMs << Math.min(attempts - 1, 20);
+        // Jitter so events that failed together do not retry in lockstep
+        return Math.min(maxBackoffMs, backoff) / 2 + ThreadLocalRandom.current().nextLong(Math.min(maxBackoffMs, backoff) / 2 + 1);
+    }
+}
@@ -0,0 +1,17 @@
+package com.smartcity.smartcityserver.repositoriy;
+
+import com.smartcity.smartcityserver.entity.BillImport;
+import com.smartcity.smartcityserver.entity.enums.BillImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BillImportRepository extends JpaRepository<BillImport, Long> {
+
+    List<BillImport> findByStatusInOrderById(Collection<BillImportStatus> statuses);
+
+    List<BillImport> findAllByOrderByIdDesc();
+}
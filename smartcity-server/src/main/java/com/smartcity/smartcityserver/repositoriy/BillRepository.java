@@ -1,12 +1,21 @@
 package com.smartcity.smartcityserver.repositoriy;
 
 import com.smartcity.smartcityserver.entity.Bill;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface BillRepository extends JpaRepository<Bill,Long> {
+
+    // Result ids are cached per user; any write to the bills table invalidates the region
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "bill-queries")
+    })
     List<Bill> findAllByUserId(Long userId);
 }
@@ -2,12 +2,21 @@ package com.smartcity.smartcityserver.repositoriy;
 
 import com.smartcity.smartcityserver.entity.Complaint;
 import com.smartcity.smartcityserver.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ComplaintRepository extends JpaRepository<Complaint,Long> {
     List<Complaint> findByUser(User user);
+
+    // Serialises SLA actions with admin changes and with other instances acting on the same deadline
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Complaint c where c.id = :id")
+    Optional<Complaint> findForUpdateById(Long id);
 }
@@ -3,6 +3,8 @@ package com.smartcity.smartcityserver.repositoriy;
 import com.smartcity.smartcityserver.entity.Contact;
 import com.smartcity.smartcityserver.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,5 +21,9 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
 
     // Fetch a contact by id and userId (nested property)
     Optional<Contact> findByIdAndUser_UserId(Long id, Long userId);
+
+    // Highest sequence already stored from the contact journal of one instance
+    @Query("select max(c.journalSequence) from Contact c where c.journalInstance = :instance")
+    Long findMaxJournalSequence(@Param("instance") String instance);
 }
 
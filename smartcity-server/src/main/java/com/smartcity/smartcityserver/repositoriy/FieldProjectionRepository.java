@@ -0,0 +1,59 @@
+package com.smartcity.smartcityserver.repositoriy;
+
+import com.smartcity.smartcityserver.dto.FieldSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads only the selected columns of a {@link FieldSet}, bypassing entity loading and DTO mapping:
+ * the SELECT list holds just those columns and each row becomes a map of field name to value.
+ */
+@Repository
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param ownerId restricts the rows to one user's, or null for all rows
+     */
+    public List<Map<String, Object>> findFields(FieldSet fieldSet, List<String> fields, Long ownerId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(fieldSet.getEntityClass());
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> path(root, fieldSet.getAttributePaths().get(field)).alias(field))
+                .toList();
+        query.multiselect(selections);
+        if (ownerId != null)
+            query.where(cb.equal(path(root, fieldSet.getOwnerPath()), ownerId));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (String field : fields)
+                        row.put(field, tuple.get(field));
+                    return row;
+                })
+                .toList();
+    }
+
+    // "user.userId" reads the foreign key column without joining users
+    private static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\."))
+            path = path.get(attribute);
+        return path;
+    }
+}
@@ -0,0 +1,34 @@
+package com.smartcity.smartcityserver.repositoriy;
+
+import com.smartcity.smartcityserver.entity.OutboxEvent;
+import com.smartcity.smartcityserver.entity.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Locks the due rows; lock timeout -2 is SKIP LOCKED, so concurrent dispatchers claim disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus status, LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = com.smartcity.smartcityserver.entity.enums.OutboxStatus.SENT, "
+            + "e.sentAt = :sentAt, e.lastError = null where e.id in :ids")
+    int markSent(List<Long> ids, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = com.smartcity.smartcityserver.entity.enums.OutboxStatus.SENT and e.sentAt < :cutoff")
+    int deleteSentBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,14 @@
+package com.smartcity.smartcityserver.repositoriy;
+
+import com.smartcity.smartcityserver.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Looks a user up by email through the natural-id cache,
+     * so repeated lookups are served without a query.
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,24 @@
+package com.smartcity.smartcityserver.repositoriy;
+
+import com.smartcity.smartcityserver.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null)
+            return Optional.empty();
+        // A derived query would always hit the database; the natural-id API resolves email -> id from the cache first
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
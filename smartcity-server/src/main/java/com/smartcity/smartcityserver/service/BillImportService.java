@@ -0,0 +1,45 @@
+package com.smartcity.smartcityserver.service;
+
+import com.smartcity.smartcityserver.dto.BillImportDTO;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface BillImportService {
+
+    /**
+     * Stores an uploaded meter-reading file and queues it for import.
+     *
+     * @param fileName name of the file as sent by the utility, for display only
+     * @param csv      request body with the header {@code user_id,bill_type,previous_reading,current_reading,read_at}
+     * @return the queued import
+     * @throws com.smartcity.smartcityserver.exception.BillImportException if the upload cannot be stored
+     */
+    BillImportDTO startImport(String fileName, InputStream csv);
+
+    /**
+     * @throws com.smartcity.smartcityserver.exception.ResourceNotFoundException if no import has the given ID
+     */
+    BillImportDTO getImport(Long importId);
+
+    /**
+     * @return all imports, newest first
+     */
+    List<BillImportDTO> getImports();
+
+    /**
+     * Queues a failed import again; it continues after its last committed line.
+     * Imports that are queued, running or completed are returned unchanged.
+     *
+     * @throws com.smartcity.smartcityserver.exception.ResourceNotFoundException if no import has the given ID
+     * @throws com.smartcity.smartcityserver.exception.BillImportException if the uploaded file is gone
+     */
+    BillImportDTO resumeImport(Long importId);
+
+    /**
+     * @return the rejected lines with their line number and reason, as CSV
+     * @throws com.smartcity.smartcityserver.exception.ResourceNotFoundException if the import or its file does not exist
+     */
+    Resource getRejectedLines(Long importId);
+}
@@ -4,6 +4,7 @@ import com.smartcity.smartcityserver.dto.BillDTO;
 import com.smartcity.smartcityserver.exception.BillNotFoundException;
 
 import java.util.List;
+import java.util.Map;
 
 
 public interface BillService {
@@ -34,6 +35,14 @@ public interface BillService {
      */
     List<BillDTO> getAllBills();
 
+    /**
+     * Same rows as {@link #getAllBills()}, reading only the requested fields.
+     *
+     * @param fields fields of {@link com.smartcity.smartcityserver.dto.FieldSet#BILL} to return
+     * @return one map of field name to value per bill
+     */
+    List<Map<String, Object>> getBillFields(List<String> fields);
+
     /**
      * Retrieves a bill by its ID.
      *
@@ -0,0 +1,25 @@
+package com.smartcity.smartcityserver.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events hub pushing complaint changes to connected clients.
+ */
+public interface ComplaintEventService {
+
+    /**
+     * Opens a stream of events for the complaints owned by the currently logged-in user.
+     *
+     * @param lastEventId the last event id seen by the client, or null for a fresh subscription
+     * @return the emitter bound to the current request
+     */
+    SseEmitter subscribeToMyComplaints(Long lastEventId);
+
+    /**
+     * Opens a stream of events for every complaint in the system (admin only).
+     *
+     * @param lastEventId the last event id seen by the client, or null for a fresh subscription
+     * @return the emitter bound to the current request
+     */
+    SseEmitter subscribeToAllComplaints(Long lastEventId);
+}
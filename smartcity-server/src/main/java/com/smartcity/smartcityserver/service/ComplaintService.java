@@ -1,8 +1,13 @@
 package com.smartcity.smartcityserver.service;
 
 import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.dto.StatusTransitionDTO;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import com.smartcity.smartcityserver.sla.SlaAction;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 public interface ComplaintService {
 
@@ -36,11 +41,30 @@ public interface ComplaintService {
      */
     List<ComplaintDTO> getComplaints();
 
+    /**
+     * Same as {@link #getComplaints()}, optionally including complaints that
+     * have been moved to the archive.
+     *
+     * @param includeArchived whether archived complaints are included
+     * @return a list of complaint DTOs ordered by ID
+     */
+    List<ComplaintDTO> getComplaints(boolean includeArchived);
+
+    /**
+     * Same rows as {@link #getComplaints()}, reading only the requested fields.
+     *
+     * @param fields fields of {@link com.smartcity.smartcityserver.dto.FieldSet#COMPLAINT} to return
+     * @return one map of field name to value per complaint
+     */
+    List<Map<String, Object>> getComplaintFields(List<String> fields);
+
     /**
      * Retrieve a specific complaint by ID.
      * <p>
      * - Admin: can access any complaint.
      * - Citizen: can access only their own complaint.
+     * <p>
+     * Complaints that have been archived are looked up in the archive.
      *
      * @param id the ID of the complaint to retrieve
      * @return the complaint as a DTO
@@ -50,4 +74,26 @@ public interface ComplaintService {
 
 
     ComplaintDTO changeComplaintStatus(Long id, ComplaintDTO complaintDTO);
+
+    /**
+     * Retrieve the status history of a complaint, oldest transition first.
+     * Access rules are the same as for {@link #getComplaintById(Long)}.
+     *
+     * @param id the ID of the complaint
+     * @return the recorded status transitions
+     */
+    List<StatusTransitionDTO> getStatusTimeline(Long id);
+
+    /**
+     * Apply an SLA action on behalf of the system, with the same events and notifications as
+     * {@link #changeComplaintStatus(Long, ComplaintDTO)}.
+     * <p>
+     * Nothing changes when the complaint has left the given status or priority since its deadline
+     * was computed, or when the action has already been taken.
+     *
+     * @param status   the status the rule was evaluated for
+     * @param priority the priority the rule was evaluated for
+     * @return whether the complaint was changed
+     */
+    boolean applySlaAction(Long id, ComplaintStatus status, Priority priority, SlaAction action);
 }
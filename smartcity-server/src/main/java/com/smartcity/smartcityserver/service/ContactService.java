@@ -2,15 +2,17 @@ package com.smartcity.smartcityserver.service;
 
 import com.smartcity.smartcityserver.dto.ContactDTO;
 import java.util.List;
+import java.util.Map;
 
 
 public interface ContactService {
 
     /**
-     * Saves a new contact message submitted by a user.
+     * Accepts a new contact message submitted by a user. The message is journaled
+     * and stored asynchronously, so the returned DTO has no ID yet.
      *
      * @param contactDTO DTO containing contact form details
-     * @return saved ContactDTO with generated ID and timestamps
+     * @return the accepted ContactDTO with its submission timestamp
      */
     ContactDTO createContact(ContactDTO contactDTO);
 
@@ -41,4 +43,12 @@ public interface ContactService {
     ContactDTO getContactByIdAndUserId(Long id, Long userId);
 
     List<ContactDTO> getContacts();
+
+    /**
+     * Same rows as {@link #getContacts()}, reading only the requested fields.
+     *
+     * @param fields fields of {@link com.smartcity.smartcityserver.dto.FieldSet#CONTACT} to return
+     * @return one map of field name to value per contact message
+     */
+    List<Map<String, Object>> getContactFields(List<String> fields);
 }
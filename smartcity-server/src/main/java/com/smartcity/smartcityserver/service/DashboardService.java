@@ -0,0 +1,19 @@
+package com.smartcity.smartcityserver.service;
+
+import com.smartcity.smartcityserver.dto.CitizenDashboardDTO;
+
+/**
+ * Service interface for the citizen dashboard, which combines several citizen views in one response.
+ */
+public interface DashboardService {
+
+    /**
+     * Fetches the profile, bills, complaints and contact messages of the logged-in citizen
+     * concurrently, each within its own timeout. A section that fails or times out is left
+     * out and listed as unavailable instead of failing the whole dashboard.
+     *
+     * @param userId ID of the logged-in citizen
+     * @return the dashboard with summary counts of the sections that loaded
+     */
+    CitizenDashboardDTO getCitizenDashboard(Long userId);
+}
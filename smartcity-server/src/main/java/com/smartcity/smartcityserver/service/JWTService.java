@@ -29,4 +29,28 @@ public interface JWTService {
      * @return the user identifier contained in the token
      */
     String getUserIdFromToken(String token);
+
+    /**
+     * Extracts the tenant (city) the token was issued for.
+     *
+     * @param token the JWT token to parse
+     * @return the tenant id, or {@code null} for tokens issued before multi-tenancy
+     */
+    String getTenantFromToken(String token);
+
+    /**
+     * Generates a short-lived token that proves ownership of the user's email address.
+     *
+     * @param user the user whose email is being verified
+     * @return a signed verification token
+     */
+    String generateEmailVerificationToken(User user);
+
+    /**
+     * Validates an email verification token and returns the email it was issued for.
+     *
+     * @param token the verification token
+     * @return the verified email address
+     */
+    String getEmailFromVerificationToken(String token);
 }
@@ -0,0 +1,32 @@
+package com.smartcity.smartcityserver.service;
+
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+
+/**
+ * Queues user notifications through the transactional outbox.
+ */
+public interface NotificationService {
+
+    /**
+     * Records a notification in the outbox as part of the caller's transaction,
+     * so it is sent only if that transaction commits. Delivery happens in the background.
+     *
+     * @param userId  the recipient
+     * @param type    what the notification is about
+     * @param subject short subject line
+     * @param body    message text
+     */
+    void enqueue(Long userId, NotificationType type, String subject, String body);
+
+    /**
+     * Sends the logged-in user a link to confirm their email address.
+     */
+    void requestEmailVerification();
+
+    /**
+     * Marks the email address in a verification token as verified.
+     *
+     * @param token the token from the verification link
+     */
+    void verifyEmail(String token);
+}
@@ -0,0 +1,56 @@
+package com.smartcity.smartcityserver.service;
+
+import lombok.Value;
+
+/**
+ * Keeps per-collection and per-user version stamps so read endpoints can answer
+ * conditional requests with a single key lookup instead of loading the rows.
+ * Stamps are stored in the database, so every instance hands out the same tags.
+ */
+public interface ResourceVersionService {
+
+    enum Resource {
+        COMPLAINTS,
+        BILLS,
+        CONTACTS,
+        USERS
+    }
+
+    /**
+     * Returns the current stamp of a resource collection.
+     *
+     * @param resource the resource collection
+     * @param userId   the owning user, or null for the whole collection
+     * @return the current version stamp
+     */
+    VersionStamp getStamp(Resource resource, Long userId);
+
+    /**
+     * Records a write to a resource. Both the whole collection and the given user's
+     * view are bumped. When called inside a transaction the bump is deferred until commit.
+     *
+     * @param resource the resource collection that changed
+     * @param userId   the owning user of the changed row, may be null
+     */
+    void markChanged(Resource resource, Long userId);
+
+    @Value
+    class VersionStamp {
+        String key;
+        long version;
+        long lastModified;
+
+        /**
+         * Strong entity tag for this stamp, optionally narrowed to a single item or view.
+         *
+         * @param format the negotiated body format; each format is a different representation with its own tag
+         */
+        public String eTag(Object discriminator, String format) {
+            // The time keeps tags distinct if the stamps are ever reset, e.g. on a recreated database
+            String tag = key + "-v" + version + "-" + Long.toString(lastModified, 36);
+            if (discriminator != null)
+                tag += "-" + discriminator;
+            return "\"" + tag + "-" + format + "\"";
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartcity.smartcityserver.service;
+
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import com.smartcity.smartcityserver.tariff.CompiledTariffs;
+import com.smartcity.smartcityserver.tariff.TariffSet;
+
+public interface TariffService {
+
+    /**
+     * The active tariffs as lookup tables. Batch callers should take this once per batch, so a
+     * reload in between does not price half a batch with the old set and half with the new one.
+     */
+    CompiledTariffs getCompiledTariffs();
+
+    /**
+     * @return the active tariff definitions as loaded from the tariffs file
+     */
+    TariffSet getTariffSet();
+
+    /**
+     * Prices a usage with the active tariffs, without any time-of-use multiplier.
+     *
+     * @throws com.smartcity.smartcityserver.exception.TariffNotDefinedException if the bill type has no tariff
+     */
+    double computeAmount(BillType billType, double usage);
+}
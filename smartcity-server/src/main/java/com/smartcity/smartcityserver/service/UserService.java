@@ -4,6 +4,7 @@ import com.smartcity.smartcityserver.dto.UserDTO;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for managing users (excluding login and signup operations).
@@ -32,4 +33,12 @@ public interface UserService {
      * @return list of UserDTOs
      */
     List<UserDTO> getAllUsers();
+
+    /**
+     * Fetches all users, reading only the requested fields. The password hash is never selectable.
+     *
+     * @param fields fields of {@link com.smartcity.smartcityserver.dto.FieldSet#USER} to return
+     * @return one map of field name to value per user
+     */
+    List<Map<String, Object>> getUserFields(List<String> fields);
 }
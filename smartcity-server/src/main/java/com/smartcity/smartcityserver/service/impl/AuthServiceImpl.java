@@ -12,6 +12,8 @@ import com.smartcity.smartcityserver.exception.UserNotFoundException;
 import com.smartcity.smartcityserver.repositoriy.UserRepository;
 import com.smartcity.smartcityserver.service.AuthService;
 import com.smartcity.smartcityserver.service.JWTService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -29,6 +31,7 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JWTService jwtService;
+    private final ResourceVersionService resourceVersionService;
 
     @Override
     @Transactional
@@ -46,6 +49,7 @@ public class AuthServiceImpl implements AuthService {
         toBeCreated.setPassword(hashPassword);
 
         User savedUser = userRepository.save(toBeCreated);
+        resourceVersionService.markChanged(Resource.USERS, savedUser.getUserId());
 
         return convertToUserDTO(savedUser);
     }
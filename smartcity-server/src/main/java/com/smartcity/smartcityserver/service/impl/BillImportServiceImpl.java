@@ -0,0 +1,100 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.billimport.BillImportJob;
+import com.smartcity.smartcityserver.dto.BillImportDTO;
+import com.smartcity.smartcityserver.entity.BillImport;
+import com.smartcity.smartcityserver.entity.enums.BillImportStatus;
+import com.smartcity.smartcityserver.exception.BillImportException;
+import com.smartcity.smartcityserver.exception.ResourceNotFoundException;
+import com.smartcity.smartcityserver.repositoriy.BillImportRepository;
+import com.smartcity.smartcityserver.service.BillImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BillImportServiceImpl implements BillImportService {
+
+    private final BillImportRepository billImportRepository;
+    private final BillImportJob billImportJob;
+    private final ModelMapper modelMapper;
+
+    @Override
+    public BillImportDTO startImport(String fileName, InputStream csv) {
+        BillImport billImport = new BillImport();
+        billImport.setFileName(fileName);
+        billImport = billImportRepository.save(billImport);
+
+        // Spooled to disk as it arrives, so the file size never matters for memory
+        Path upload = billImportJob.uploadPath(billImport.getId());
+        try {
+            billImport.setFileSize(Files.copy(csv, upload, StandardCopyOption.REPLACE_EXISTING));
+        } catch (IOException ex) {
+            billImport.setStatus(BillImportStatus.FAILED);
+            billImport.setLastError("Upload incomplete: " + ex.getMessage());
+            billImportRepository.save(billImport);
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException ignored) {
+                // Only a leftover partial upload
+            }
+            throw new BillImportException("Could not store the uploaded file: " + ex.getMessage(), ex);
+        }
+        billImport = billImportRepository.save(billImport);
+        billImportJob.submit(billImport.getId());
+        log.info("Bill import {} queued: {} ({} bytes)", billImport.getId(), fileName, billImport.getFileSize());
+        return modelMapper.map(billImport, BillImportDTO.class);
+    }
+
+    @Override
+    public BillImportDTO getImport(Long importId) {
+        return modelMapper.map(findImport(importId), BillImportDTO.class);
+    }
+
+    @Override
+    public List<BillImportDTO> getImports() {
+        return billImportRepository.findAllByOrderByIdDesc().stream()
+                .map(billImport -> modelMapper.map(billImport, BillImportDTO.class))
+                .toList();
+    }
+
+    @Override
+    public BillImportDTO resumeImport(Long importId) {
+        BillImport billImport = findImport(importId);
+        if (billImport.getStatus() == BillImportStatus.FAILED) {
+            if (!Files.exists(billImportJob.uploadPath(importId)))
+                throw new BillImportException("The uploaded file of import " + importId + " no longer exists");
+            billImport.setStatus(BillImportStatus.QUEUED);
+            billImport.setLastError(null);
+            billImport = billImportRepository.save(billImport);
+            billImportJob.submit(importId);
+        }
+        return modelMapper.map(billImport, BillImportDTO.class);
+    }
+
+    @Override
+    public Resource getRejectedLines(Long importId) {
+        findImport(importId);
+        Path rejected = billImportJob.rejectedPath(importId);
+        if (!Files.exists(rejected))
+            throw new ResourceNotFoundException("Import " + importId + " has no rejected-lines file yet");
+        return new FileSystemResource(rejected);
+    }
+
+    private BillImport findImport(Long importId) {
+        return billImportRepository.findById(importId)
+                .orElseThrow(() -> new ResourceNotFoundException("Bill import not found with id: " + importId));
+    }
+}
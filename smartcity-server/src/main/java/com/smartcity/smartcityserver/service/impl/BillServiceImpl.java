@@ -1,14 +1,22 @@
 package com.smartcity.smartcityserver.service.impl;
 
 import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dunning.BillDunningScheduler;
+import com.smartcity.smartcityserver.dto.FieldSet;
 import com.smartcity.smartcityserver.entity.Bill;
 import com.smartcity.smartcityserver.entity.User;
 import com.smartcity.smartcityserver.exception.BillNotFoundException;
 import com.smartcity.smartcityserver.exception.ResourceNotFoundException;
 import com.smartcity.smartcityserver.exception.UserNotFoundException;
 import com.smartcity.smartcityserver.repositoriy.BillRepository;
+import com.smartcity.smartcityserver.repositoriy.FieldProjectionRepository;
 import com.smartcity.smartcityserver.repositoriy.UserRepository;
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
 import com.smartcity.smartcityserver.service.BillService;
+import com.smartcity.smartcityserver.service.NotificationService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.service.TariffService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -17,8 +25,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -29,13 +39,28 @@ public class BillServiceImpl implements BillService {
     private final BillRepository billRepository;
     private final ModelMapper modelMapper;
     private final UserRepository userRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final NotificationService notificationService;
+    private final FieldProjectionRepository fieldProjectionRepository;
+    private final TariffService tariffService;
+    private final BillDunningScheduler billDunningScheduler;
 
     @Override
     public BillDTO createBill(BillDTO billDTO) {
         Bill bill = modelMapper.map(billDTO, Bill.class);
+        if (bill.getAmount() == null)
+            bill.setAmount(tariffService.computeAmount(billDTO.getBillType(), billDTO.getUsage()));
+        if (bill.getDueDate() == null)
+            bill.setDueDate(billDunningScheduler.defaultDueDate(
+                    bill.getCreatedAt() != null ? bill.getCreatedAt().toLocalDate() : LocalDate.now()));
         Bill saved = billRepository.save(bill);
+        billDunningScheduler.schedule(saved.getBillId(), saved.getDueDate());
         User user = userRepository.findById(billDTO.getUserId()).orElseThrow(()->
                 new ResourceNotFoundException("Invalid UserId :" + billDTO.getUserId()));
+        resourceVersionService.markChanged(Resource.BILLS, saved.getUserId());
+        notificationService.enqueue(user.getUserId(), NotificationType.BILL_CREATED,
+                "New " + saved.getBillType() + " bill #" + saved.getBillId(),
+                "A new bill of " + saved.getAmount() + " has been issued to your account.");
 
         log.info("Bill created with id={}", saved.getBillId());
         return modelMapper.map(saved, BillDTO.class);
@@ -46,6 +71,7 @@ public class BillServiceImpl implements BillService {
         Bill bill = billRepository.findById(billId)
                 .orElseThrow(() -> new BillNotFoundException("Bill not found with id: " + billId));
 
+        resourceVersionService.markChanged(Resource.BILLS, bill.getUserId());
         bill.setBillType(billDTO.getBillType());
         bill.setAmount(billDTO.getAmount());
         bill.setUserId(billDTO.getUserId());
@@ -53,14 +79,17 @@ public class BillServiceImpl implements BillService {
 
         if (billDTO.getPaid() != null && billDTO.getPaid() && bill.getPaidAt() == null) {
             bill.setPaidAt(LocalDateTime.now());
+            billDunningScheduler.cancel(billId);
         }
 
         Bill updated = billRepository.save(bill);
+        resourceVersionService.markChanged(Resource.BILLS, updated.getUserId());
         log.info("Bill updated with id={}", updated.getBillId());
         return modelMapper.map(updated, BillDTO.class);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BillDTO> getAllBills() {
         User user = getCurrentUser();
         List<Bill>allBills;
@@ -76,6 +105,15 @@ public class BillServiceImpl implements BillService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getBillFields(List<String> fields) {
+        User user = getCurrentUser();
+        Long ownerId = user.hasRole("ADMIN") ? null : user.getUserId();
+        return fieldProjectionRepository.findFields(FieldSet.BILL, fields, ownerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BillDTO getBillById(Long billId) {
         Bill bill = billRepository.findById(billId)
                 .orElseThrow(() -> new BillNotFoundException("Bill not found with id: " + billId));
@@ -92,6 +130,8 @@ public class BillServiceImpl implements BillService {
             bill.setPaid(true);
             bill.setPaidAt(LocalDateTime.now());
             billRepository.save(bill);
+            billDunningScheduler.cancel(billId);
+            resourceVersionService.markChanged(Resource.BILLS, bill.getUserId());
             log.info("Bill marked as paid with id={}", billId);
         }
     }
@@ -0,0 +1,291 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.dto.ComplaintEventDTO;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.event.ComplaintChangedEvent;
+import com.smartcity.smartcityserver.service.ComplaintEventService;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans complaint changes out to SSE subscribers.
+ * <p>
+ * One dispatcher thread numbers the events and hands them to the subscribers, so every client sees
+ * them in id order. The dispatcher never writes to a socket itself: each subscriber has a bounded queue
+ * drained by its own virtual thread, and a subscriber whose queue is full is disconnected. A slow or
+ * half-dead client therefore only delays itself; it reconnects with {@code Last-Event-ID} and catches
+ * up from the replay buffer.
+ */
+@Service
+@Slf4j
+public class ComplaintEventServiceImpl implements ComplaintEventService {
+
+    private static final String RESET_EVENT = "reset";
+
+    private final JsonMapper jsonMapper;
+    private final TenantRegistry tenants;
+    private final long emitterTimeoutMs;
+    private final int subscriberQueueSize;
+    private final Counter laggingDisconnects;
+
+    // Replay buffer: ring of the most recent events, indexed by eventId % capacity
+    private final ComplaintEventDTO[] replayBuffer;
+    private final String[] replayPayloads;
+    private final int[] replayTenants;
+    private long lastEventId = 0;
+
+    // Event ids are shared, but subscribers only ever see their own tenant's events
+    private final ConcurrentHashMap<Integer, Set<Subscriber>> adminSubscribers = new ConcurrentHashMap<>();
+    // Keyed by the tenant-scoped user id
+    private final ConcurrentHashMap<Long, Set<Subscriber>> userSubscribers = new ConcurrentHashMap<>();
+
+    // Numbers events and queues them for subscribers; never blocks on a client
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "complaint-sse-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Socket writes, at most one running task per subscriber
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ComplaintEventServiceImpl(JsonMapper jsonMapper,
+                                     TenantRegistry tenants,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${smartcity.sse.replay-buffer-size:1024}") int replayBufferSize,
+                                     @Value("${smartcity.sse.subscriber-queue-size:256}") int subscriberQueueSize,
+                                     @Value("${smartcity.sse.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.jsonMapper = jsonMapper;
+        this.tenants = tenants;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.laggingDisconnects = Counter.builder("smartcity.sse.lagging_disconnects")
+                .description("Subscribers disconnected because their send queue was full")
+                .register(meterRegistry);
+        this.replayBuffer = new ComplaintEventDTO[replayBufferSize];
+        this.replayPayloads = new String[replayBufferSize];
+        this.replayTenants = new int[replayBufferSize];
+    }
+
+    @Override
+    public SseEmitter subscribeToMyComplaints(Long lastEventId) {
+        Long userId = getCurrentUser().getUserId();
+        SseEmitter emitter = register(tenants.currentIndex(), userId, lastEventId);
+        log.info("User {} subscribed to complaint events, lastEventId={}", userId, lastEventId);
+        return emitter;
+    }
+
+    @Override
+    public SseEmitter subscribeToAllComplaints(Long lastEventId) {
+        SseEmitter emitter = register(tenants.currentIndex(), null, lastEventId);
+        log.info("Admin {} subscribed to complaint events, lastEventId={}", getCurrentUser().getUserId(), lastEventId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onComplaintChanged(ComplaintChangedEvent event) {
+        int tenant = tenants.currentIndex();
+        dispatcher.execute(() -> {
+            ComplaintEventDTO dto = new ComplaintEventDTO(++lastEventId, event.getType(), event.getComplaintId(),
+                    event.getUserId(), event.getStatus(), event.getPriority(), LocalDateTime.now());
+            // Serialise once and fan the same payload out to every subscriber
+            String payload = jsonMapper.writeValueAsString(dto);
+            int slot = (int) (dto.getEventId() % replayBuffer.length);
+            replayBuffer[slot] = dto;
+            replayPayloads[slot] = payload;
+            replayTenants[slot] = tenant;
+
+            Set<DataWithMediaType> sseEvent = toSseEvent(dto, payload);
+            Set<Subscriber> admins = adminSubscribers.get(tenant);
+            if (admins != null)
+                admins.forEach(subscriber -> subscriber.offer(sseEvent));
+            Set<Subscriber> owners = userSubscribers.get(TenantRegistry.scope(tenant, dto.getUserId()));
+            if (owners != null)
+                owners.forEach(subscriber -> subscriber.offer(sseEvent));
+        });
+    }
+
+    @Scheduled(fixedRateString = "${smartcity.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeat() {
+        dispatcher.execute(() -> {
+            Set<DataWithMediaType> heartbeat = frame(SseEmitter.event().comment("heartbeat"));
+            adminSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.offer(heartbeat)));
+            userSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.offer(heartbeat)));
+            userSubscribers.values().removeIf(Set::isEmpty);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        adminSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        userSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    // userId == null registers an admin subscriber that receives every event
+    private SseEmitter register(int tenant, Long userId, Long resumeFrom) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, tenant, userId);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(ex -> unregister(subscriber));
+
+        // Replay and registration happen on the dispatcher so no live event can slip in between
+        dispatcher.execute(() -> {
+            if (resumeFrom != null && !replay(subscriber, resumeFrom))
+                return;
+            subscribersOf(subscriber).add(subscriber);
+        });
+        return emitter;
+    }
+
+    private Set<Subscriber> subscribersOf(Subscriber subscriber) {
+        return subscriber.userId == null
+                ? adminSubscribers.computeIfAbsent(subscriber.tenant, t -> ConcurrentHashMap.newKeySet())
+                : userSubscribers.computeIfAbsent(TenantRegistry.scope(subscriber.tenant, subscriber.userId), id -> ConcurrentHashMap.newKeySet());
+    }
+
+    private void unregister(Subscriber subscriber) {
+        Set<Subscriber> subscribers = subscriber.userId == null
+                ? adminSubscribers.get(subscriber.tenant)
+                : userSubscribers.get(TenantRegistry.scope(subscriber.tenant, subscriber.userId));
+        if (subscribers != null)
+            subscribers.remove(subscriber);
+    }
+
+    // Queues the missed events; false when the subscriber was dropped
+    private boolean replay(Subscriber subscriber, long resumeFrom) {
+        long oldestAvailable = Math.max(1, lastEventId - replayBuffer.length + 1);
+        if (resumeFrom <= lastEventId && resumeFrom + 1 >= oldestAvailable) {
+            boolean complete = true;
+            for (long id = resumeFrom + 1; id <= lastEventId && complete; id++) {
+                int slot = (int) (id % replayBuffer.length);
+                if (replayTenants[slot] == subscriber.tenant
+                        && (subscriber.userId == null || subscriber.userId.equals(replayBuffer[slot].getUserId())))
+                    complete = subscriber.queue.offer(toSseEvent(replayBuffer[slot], replayPayloads[slot]));
+            }
+            if (complete) {
+                subscriber.drain();
+                return true;
+            }
+            // More missed events than the queue holds; fall through and have the client refetch
+            subscriber.queue.clear();
+        }
+        // The client missed events we no longer hold; it has to refetch its list
+        return subscriber.offer(frame(SseEmitter.event().id(String.valueOf(lastEventId)).name(RESET_EVENT).data("")));
+    }
+
+    private Set<DataWithMediaType> toSseEvent(ComplaintEventDTO dto, String payload) {
+        return frame(SseEmitter.event()
+                .id(String.valueOf(dto.getEventId()))
+                .name(dto.getType().name())
+                .data(payload));
+    }
+
+    // Built once on the dispatcher: build() appends to the builder, so a builder must never be shared between senders
+    private static Set<DataWithMediaType> frame(SseEmitter.SseEventBuilder event) {
+        return Collections.unmodifiableSet(event.build());
+    }
+
+    // Helper to fetch currently logged-in user
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    /**
+     * One connected client: events are queued by the dispatcher and written, in queue order, by at
+     * most one sender task at a time.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final int tenant;
+        private final Long userId;
+        // Fully built frames, shared read-only between subscribers
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int tenant, Long userId) {
+            this.emitter = emitter;
+            this.tenant = tenant;
+            this.userId = userId;
+            this.queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+        }
+
+        // Called on the dispatcher; never blocks
+        boolean offer(Set<DataWithMediaType> event) {
+            if (closed.get())
+                return false;
+            if (!queue.offer(event)) {
+                laggingDisconnects.increment();
+                log.info("Disconnecting complaint event subscriber that fell {} events behind", queue.size());
+                close(null);
+                return false;
+            }
+            drain();
+            return true;
+        }
+
+        void drain() {
+            if (sending.compareAndSet(false, true))
+                senders.execute(this::send);
+        }
+
+        private void send() {
+            while (true) {
+                Set<DataWithMediaType> event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException ex) {
+                        close(ex);
+                        return;
+                    }
+                }
+                sending.set(false);
+                // An event queued after the last poll but before the flag was cleared needs a new pass
+                if (queue.isEmpty() || !sending.compareAndSet(false, true))
+                    return;
+            }
+        }
+
+        private void close(Throwable cause) {
+            if (!closed.compareAndSet(false, true))
+                return;
+            queue.clear();
+            unregister(this);
+            if (cause == null)
+                emitter.complete();
+            else
+                emitter.completeWithError(cause);
+        }
+    }
+}
@@ -1,23 +1,43 @@
 package com.smartcity.smartcityserver.service.impl;
 
+import com.smartcity.smartcityserver.archive.ComplaintArchive;
 import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.dto.FieldSet;
+import com.smartcity.smartcityserver.dto.StatusTransitionDTO;
 import com.smartcity.smartcityserver.entity.Complaint;
 import com.smartcity.smartcityserver.entity.User;
-
+import com.smartcity.smartcityserver.entity.enums.ComplaintEventType;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import com.smartcity.smartcityserver.event.ComplaintChangedEvent;
 import com.smartcity.smartcityserver.exception.ComplaintNotFoundException;
 import com.smartcity.smartcityserver.exception.ResourceNotFoundException;
+import com.smartcity.smartcityserver.journal.StatusHistoryJournal;
 import com.smartcity.smartcityserver.repositoriy.ComplaintRepository;
+import com.smartcity.smartcityserver.repositoriy.FieldProjectionRepository;
 import com.smartcity.smartcityserver.service.ComplaintService;
+import com.smartcity.smartcityserver.service.NotificationService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.sla.SlaAction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -27,6 +47,12 @@ public class ComplaintServiceImpl implements ComplaintService {
 
     private final ModelMapper modelMapper;
     private final ComplaintRepository complaintRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersionService resourceVersionService;
+    private final ComplaintArchive complaintArchive;
+    private final StatusHistoryJournal statusHistoryJournal;
+    private final NotificationService notificationService;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
     @Override
     @Transactional
@@ -34,8 +60,12 @@ public class ComplaintServiceImpl implements ComplaintService {
         User user = getCurrentUser();
         Complaint complaint = modelMapper.map(complaintDTO, Complaint.class);
         complaint.setUser(user);
+        // Only SLA rules set these
+        complaint.setEscalatedAt(null);
+        complaint.setSlaBreachedAt(null);
 
         Complaint saved = complaintRepository.save(complaint);
+        publishChange(ComplaintEventType.CREATED, saved, saved.getStatus(), user);
         log.info("Complaint created with id={} by user={}", saved.getId(), user.getUserId());
 
         return modelMapper.map(saved, ComplaintDTO.class);
@@ -56,12 +86,14 @@ public class ComplaintServiceImpl implements ComplaintService {
         complaint.setComplaintType(complaintDTO.getComplaintType());
         complaint.setDescription(complaintDTO.getDescription());
         Complaint updated = complaintRepository.save(complaint);
+        publishChange(ComplaintEventType.UPDATED, updated, updated.getStatus(), user);
 
         log.info("Complaint updated with id={} by user={}", updated.getId(), user.getUserId());
         return modelMapper.map(updated, ComplaintDTO.class);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ComplaintDTO> getComplaints() {
         User user = getCurrentUser();
         List<Complaint> complaints;
@@ -80,30 +112,116 @@ public class ComplaintServiceImpl implements ComplaintService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getComplaintFields(List<String> fields) {
+        User user = getCurrentUser();
+        Long ownerId = user.hasRole("ADMIN") ? null : user.getUserId();
+        return fieldProjectionRepository.findFields(FieldSet.COMPLAINT, fields, ownerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ComplaintDTO> getComplaints(boolean includeArchived) {
+        List<ComplaintDTO> hot = getComplaints();
+        if (!includeArchived)
+            return hot;
+
+        User user = getCurrentUser();
+        List<ComplaintDTO> archived = user.hasRole("ADMIN")
+                ? complaintArchive.findAll()
+                : complaintArchive.findByUserId(user.getUserId());
+        // A row can briefly exist in both places while it is being archived; the hot copy wins
+        Set<Long> hotIds = hot.stream().map(ComplaintDTO::getId).collect(Collectors.toSet());
+        return Stream.concat(hot.stream(), archived.stream().filter(c -> !hotIds.contains(c.getId())))
+                .sorted(Comparator.comparing(ComplaintDTO::getId))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public ComplaintDTO getComplaintById(Long id) {
         User user = getCurrentUser();
-        Complaint complaint = complaintRepository.findById(id)
+        ComplaintDTO complaint = complaintRepository.findById(id)
+                .map(c -> modelMapper.map(c, ComplaintDTO.class))
+                .or(() -> complaintArchive.findById(id))
                 .orElseThrow(() -> new ComplaintNotFoundException("Complaint not found with id: " + id));
 
-        if (!user.hasRole("ADMIN") && !complaint.getUser().getUserId().equals(user.getUserId())) {
+        if (!user.hasRole("ADMIN") && !complaint.getUserId().equals(user.getUserId())) {
             log.warn("User {} attempted to access complaint {} without permission", user.getUserId(), id);
             throw new AccessDeniedException("Access denied");
         }
 
         log.info("Complaint fetched with id={} by user={}", id, user.getUserId());
-        return modelMapper.map(complaint, ComplaintDTO.class);
+        return complaint;
     }
 
     @Override
     public ComplaintDTO changeComplaintStatus(Long id, ComplaintDTO complaintDTO) {
         Complaint complaint = complaintRepository.findById(id).orElseThrow(()->
                 new ResourceNotFoundException("Invalid complain number:"+ id));
+        ComplaintStatus previousStatus = complaint.getStatus();
         complaint.setStatus(complaintDTO.getStatus());
+        if (previousStatus != complaint.getStatus()) {
+            complaint.setStatusChangedAt(LocalDateTime.now());
+            complaint.setSlaBreachedAt(null);
+        }
         Complaint updatedComplaint = complaintRepository.save(complaint);
+        publishChange(ComplaintEventType.STATUS_CHANGED, updatedComplaint, previousStatus, getCurrentUser());
+        if (previousStatus != updatedComplaint.getStatus())
+            notificationService.enqueue(updatedComplaint.getUser().getUserId(), NotificationType.COMPLAINT_STATUS_CHANGED,
+                    "Complaint #" + id + " is now " + updatedComplaint.getStatus(),
+                    "Your " + updatedComplaint.getComplaintType() + " complaint changed from " + previousStatus
+                            + " to " + updatedComplaint.getStatus() + ".");
 
         return modelMapper.map(updatedComplaint,ComplaintDTO.class);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<StatusTransitionDTO> getStatusTimeline(Long id) {
+        // Checks existence and ownership; the history itself comes from the journal, not the database
+        getComplaintById(id);
+        return statusHistoryJournal.timeline(id);
+    }
+
+    @Override
+    public boolean applySlaAction(Long id, ComplaintStatus status, Priority priority, SlaAction action) {
+        Complaint complaint = complaintRepository.findForUpdateById(id).orElse(null);
+        // Changed since the deadline was computed; that change has rescheduled it
+        if (complaint == null || complaint.getStatus() != status || complaint.getPriority() != priority)
+            return false;
+
+        if (action == SlaAction.ESCALATE) {
+            if (priority == Priority.CRITICAL)
+                return false;
+            Priority escalated = Priority.values()[priority.ordinal() + 1];
+            complaint.setPriority(escalated);
+            complaint.setEscalatedAt(LocalDateTime.now());
+            Complaint updated = complaintRepository.save(complaint);
+            publishChange(ComplaintEventType.ESCALATED, updated, status, null);
+            notificationService.enqueue(updated.getUser().getUserId(), NotificationType.COMPLAINT_ESCALATED,
+                    "Complaint #" + id + " escalated to " + escalated,
+                    "Your " + updated.getComplaintType() + " complaint has been " + status
+                            + " for longer than expected, so its priority was raised from " + priority + " to " + escalated + ".");
+            log.info("Complaint {} escalated from {} to {} after SLA breach in {}", id, priority, escalated, status);
+        } else {
+            if (complaint.getSlaBreachedAt() != null)
+                return false;
+            complaint.setSlaBreachedAt(LocalDateTime.now());
+            Complaint updated = complaintRepository.save(complaint);
+            publishChange(ComplaintEventType.SLA_BREACHED, updated, status, null);
+            log.info("Complaint {} flagged for SLA breach in {} at priority {}", id, status, priority);
+        }
+        return true;
+    }
+
+    // Delivered to listeners once the surrounding transaction commits; a null actor is the system
+    private void publishChange(ComplaintEventType type, Complaint complaint, ComplaintStatus previousStatus, User actor) {
+        resourceVersionService.markChanged(Resource.COMPLAINTS, complaint.getUser().getUserId());
+        eventPublisher.publishEvent(new ComplaintChangedEvent(type, complaint.getId(), complaint.getUser().getUserId(),
+                previousStatus, complaint.getStatus(), complaint.getPriority(), actor == null ? null : actor.getUserId()));
+    }
+
     // Helper to fetch currently logged-in user
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
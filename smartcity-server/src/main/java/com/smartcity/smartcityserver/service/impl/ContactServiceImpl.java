@@ -1,11 +1,18 @@
 package com.smartcity.smartcityserver.service.impl;
 
 import com.smartcity.smartcityserver.dto.ContactDTO;
+import com.smartcity.smartcityserver.dto.FieldSet;
 import com.smartcity.smartcityserver.entity.Contact;
 import com.smartcity.smartcityserver.entity.User;
 import com.smartcity.smartcityserver.exception.ContactNotFoundException;
+import com.smartcity.smartcityserver.journal.ContactJournal;
+import com.smartcity.smartcityserver.journal.PendingContact;
 import com.smartcity.smartcityserver.repositoriy.ContactRepository;
+import com.smartcity.smartcityserver.repositoriy.FieldProjectionRepository;
 import com.smartcity.smartcityserver.service.ContactService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -13,9 +20,14 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -25,21 +37,36 @@ public class ContactServiceImpl implements ContactService {
 
     private final ModelMapper modelMapper;
     private final ContactRepository contactRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final ContactJournal contactJournal;
+    private final TenantRegistry tenants;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
+    // Write-behind: the message is journaled to disk and inserted later in a batch, so no DB work happens here
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ContactDTO createContact(ContactDTO contactDTO) {
         User user = getCurrentUser();
-
-        Contact contact = modelMapper.map(contactDTO, Contact.class);
-        contact.setUser(user);
-
-        Contact saved = contactRepository.save(contact);
-        log.info("Contact created with id={} by user={}", saved.getId(), user.getUserId());
-
-        return modelMapper.map(saved, ContactDTO.class);
+        long submittedAt = System.currentTimeMillis();
+
+        long sequence = contactJournal.append(PendingContact.builder()
+                // Scoped, so the flusher knows which city's database the message belongs to
+                .userId(tenants.scope(user.getUserId()))
+                .name(contactDTO.getName())
+                .email(contactDTO.getEmail())
+                .phoneNumber(contactDTO.getPhoneNumber())
+                .message(contactDTO.getMessage())
+                .submittedAt(submittedAt)
+                .build());
+        log.debug("Contact accepted with sequence={} by user={}", sequence, user.getUserId());
+
+        contactDTO.setId(null);
+        contactDTO.setSubmittedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(submittedAt), ZoneId.systemDefault()));
+        return contactDTO;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ContactDTO getContactById(Long id) {
         User user = getCurrentUser();
 
@@ -56,6 +83,7 @@ public class ContactServiceImpl implements ContactService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContactDTO> getAllContacts() {
         User user = getCurrentUser();
 
@@ -86,10 +114,12 @@ public class ContactServiceImpl implements ContactService {
         }
 
         contactRepository.delete(contact);
+        resourceVersionService.markChanged(Resource.CONTACTS, contact.getUser().getUserId());
         log.info("Contact deleted with id={} by user={}", id, user.getUserId());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContactDTO> getContactsByUserId(Long userId) {
         List<Contact> contacts = contactRepository.findByUser_UserId(userId);
 
@@ -99,6 +129,7 @@ public class ContactServiceImpl implements ContactService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ContactDTO getContactByIdAndUserId(Long id, Long userId) {
         Contact contact = contactRepository.findByIdAndUser_UserId(id, userId)
                 .orElseThrow(() -> new ContactNotFoundException("Contact not found with id: " + id + " and userId: " + userId));
@@ -107,6 +138,7 @@ public class ContactServiceImpl implements ContactService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContactDTO> getContacts() {
         User user = getCurrentUser();
 
@@ -122,6 +154,14 @@ public class ContactServiceImpl implements ContactService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getContactFields(List<String> fields) {
+        User user = getCurrentUser();
+        Long ownerId = user.hasRole("ADMIN") ? null : user.getUserId();
+        return fieldProjectionRepository.findFields(FieldSet.CONTACT, fields, ownerId);
+    }
+
     // Helper to fetch currently logged-in user
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
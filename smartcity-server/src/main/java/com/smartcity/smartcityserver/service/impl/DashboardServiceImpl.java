@@ -0,0 +1,149 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.dto.BillDTO;
+import com.smartcity.smartcityserver.dto.CitizenDashboardDTO;
+import com.smartcity.smartcityserver.dto.ComplaintDTO;
+import com.smartcity.smartcityserver.dto.ContactDTO;
+import com.smartcity.smartcityserver.dto.UserDTO;
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.metrics.RequestTimings;
+import com.smartcity.smartcityserver.service.BillService;
+import com.smartcity.smartcityserver.service.ComplaintService;
+import com.smartcity.smartcityserver.service.ContactService;
+import com.smartcity.smartcityserver.service.DashboardService;
+import com.smartcity.smartcityserver.service.UserService;
+import com.smartcity.smartcityserver.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the dashboard sections on one virtual thread each, so the response takes as long as the
+ * slowest section rather than the sum of all four. Each section runs the same service call as its
+ * own endpoint, in its own read-only transaction, with the caller's security context and request timings.
+ * <p>
+ * The fan-out is scoped to the call: sections still running when their timeout expires are
+ * interrupted and reported as unavailable, and no branch outlives the request.
+ */
+@Service
+@Slf4j
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final List<ComplaintStatus> OPEN_STATUSES = List.of(ComplaintStatus.PENDING, ComplaintStatus.IN_PROGRESS);
+
+    private final UserService userService;
+    private final BillService billService;
+    private final ComplaintService complaintService;
+    private final ContactService contactService;
+    private final MeterRegistry meterRegistry;
+    private final Duration branchTimeout;
+
+    private record Branch<T>(String name, Future<T> future, RequestTimings timings) {
+    }
+
+    public DashboardServiceImpl(UserService userService,
+                                BillService billService,
+                                ComplaintService complaintService,
+                                ContactService contactService,
+                                MeterRegistry meterRegistry,
+                                @Value("${smartcity.dashboard.branch-timeout:2s}") Duration branchTimeout) {
+        this.userService = userService;
+        this.billService = billService;
+        this.complaintService = complaintService;
+        this.contactService = contactService;
+        this.meterRegistry = meterRegistry;
+        this.branchTimeout = branchTimeout;
+    }
+
+    @Override
+    public CitizenDashboardDTO getCitizenDashboard(Long userId) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            // Every branch gets branch-timeout from the moment all of them are started
+            Branch<UserDTO> profileBranch = fork(executor, context, "profile", () -> userService.getUserById(userId));
+            Branch<List<BillDTO>> billsBranch = fork(executor, context, "bills", billService::getAllBills);
+            Branch<List<ComplaintDTO>> complaintsBranch = fork(executor, context, "complaints", () -> complaintService.getComplaints(false));
+            Branch<List<ContactDTO>> contactsBranch = fork(executor, context, "contacts", contactService::getContacts);
+            long deadline = System.nanoTime() + branchTimeout.toNanos();
+
+            List<String> unavailable = new ArrayList<>();
+            UserDTO profile = join(profileBranch, deadline, unavailable);
+            List<BillDTO> bills = join(billsBranch, deadline, unavailable);
+            List<ComplaintDTO> complaints = join(complaintsBranch, deadline, unavailable);
+            List<ContactDTO> contacts = join(contactsBranch, deadline, unavailable);
+
+            return CitizenDashboardDTO.builder()
+                    .profile(profile)
+                    .bills(bills)
+                    .complaints(complaints)
+                    .contacts(contacts)
+                    .summary(summarize(bills, complaints, contacts))
+                    .unavailable(unavailable)
+                    .build();
+        } finally {
+            // Interrupts sections that timed out instead of waiting for them
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> Branch<T> fork(ExecutorService executor, SecurityContext context, String name, Callable<T> task) {
+        RequestTimings timings = RequestTimings.fork();
+        Callable<T> branch = new DelegatingSecurityContextCallable<>(TenantContext.wrap(RequestTimings.bind(timings, task)), context);
+        return new Branch<>(name, executor.submit(branch), timings);
+    }
+
+    private <T> T join(Branch<T> branch, long deadline, List<String> unavailable) {
+        try {
+            T result = branch.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            RequestTimings.join(branch.timings());
+            return result;
+        } catch (TimeoutException ex) {
+            branch.future().cancel(true);
+            log.warn("Dashboard section {} timed out after {} ms", branch.name(), branchTimeout.toMillis());
+        } catch (ExecutionException ex) {
+            RequestTimings.join(branch.timings());
+            log.warn("Dashboard section {} failed: {}", branch.name(), ex.getCause().getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            branch.future().cancel(true);
+        }
+        meterRegistry.counter("smartcity.dashboard.unavailable", "section", branch.name()).increment();
+        unavailable.add(branch.name());
+        return null;
+    }
+
+    private static CitizenDashboardDTO.Summary summarize(List<BillDTO> bills, List<ComplaintDTO> complaints, List<ContactDTO> contacts) {
+        CitizenDashboardDTO.Summary.SummaryBuilder summary = CitizenDashboardDTO.Summary.builder();
+        if (bills != null) {
+            List<BillDTO> unpaid = bills.stream().filter(bill -> !Boolean.TRUE.equals(bill.getPaid())).toList();
+            summary.unpaidBills(unpaid.size())
+                    .amountDue(unpaid.stream().mapToDouble(BillDTO::getAmount).sum());
+        }
+        if (complaints != null) {
+            summary.openComplaints((int) complaints.stream().filter(c -> OPEN_STATUSES.contains(c.getStatus())).count())
+                    .complaintsByStatus(complaints.stream().collect(Collectors.groupingBy(ComplaintDTO::getStatus,
+                            () -> new EnumMap<>(ComplaintStatus.class), Collectors.counting())));
+        }
+        if (contacts != null)
+            summary.contacts(contacts.size());
+        return summary.build();
+    }
+}
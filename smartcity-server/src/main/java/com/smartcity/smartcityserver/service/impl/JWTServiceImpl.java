@@ -3,9 +3,12 @@ package com.smartcity.smartcityserver.service.impl;
 
 import com.smartcity.smartcityserver.entity.User;
 import com.smartcity.smartcityserver.service.JWTService;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -16,8 +19,14 @@ import java.util.Date;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class JWTServiceImpl implements JWTService {
 
+    private static final String EMAIL_VERIFICATION = "email-verification";
+    private static final String TENANT = "tenant";
+
+    private final TenantRegistry tenants;
+
     @Value("${jwt.secretKey}")
     private String jwtSecretKey;
 
@@ -26,12 +35,18 @@ public class JWTServiceImpl implements JWTService {
         return Keys.hmacShaKeyFor(jwtSecretKey.getBytes(StandardCharsets.UTF_8));
     }
 
+    // Left out when tenancy is off, so enabling it later keeps old tokens on the default tenant
+    private String tenantClaim() {
+        return tenants.isEnabled() ? tenants.current() : null;
+    }
+
     public String generateAccessToken(User user) {
         return Jwts.builder()
                 .subject(String.valueOf(user.getUserId()))
                 .claim("email",user.getEmail())
                 .claim("name",user.getName())
                 .claim("role",user.getRole())
+                .claim(TENANT, tenantClaim())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 1000*60*60*15))
                 .signWith(getSecretKey())
@@ -42,6 +57,7 @@ public class JWTServiceImpl implements JWTService {
     public String generateRefreshToken(User user) {
         return Jwts.builder()
                 .subject(user.getEmail())
+                .claim(TENANT, tenantClaim())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 1000*60*60*24*15L))
                 .signWith(getSecretKey())
@@ -59,4 +75,42 @@ public class JWTServiceImpl implements JWTService {
         return claims.get("email",String.class);
     }
 
+    public String getTenantFromToken(String token) {
+        Claims claims = Jwts.parser()
+                .verifyWith(getSecretKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+
+        return claims.get(TENANT, String.class);
+    }
+
+    public String generateEmailVerificationToken(User user) {
+        return Jwts.builder()
+                .subject(user.getEmail())
+                .claim("purpose", EMAIL_VERIFICATION)
+                .claim(TENANT, tenantClaim())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 1000*60*60*24))
+                .signWith(getSecretKey())
+                .compact();
+    }
+
+    public String getEmailFromVerificationToken(String token) {
+        Claims claims = Jwts.parser()
+                .verifyWith(getSecretKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+
+        // Access and refresh tokens are signed with the same key, so check what this one was issued for
+        if (!EMAIL_VERIFICATION.equals(claims.get("purpose", String.class)))
+            throw new JwtException("Not an email verification token");
+        // The link carries the tenant separately; the signed claim decides which city's user is verified
+        String tenant = claims.get(TENANT, String.class);
+        if (tenant != null && !tenant.equals(tenants.current()))
+            throw new JwtException("Verification token was issued for another tenant");
+        return claims.getSubject();
+    }
+
 }
@@ -0,0 +1,86 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.entity.OutboxEvent;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+import com.smartcity.smartcityserver.exception.UserNotFoundException;
+import com.smartcity.smartcityserver.repositoriy.OutboxEventRepository;
+import com.smartcity.smartcityserver.repositoriy.UserRepository;
+import com.smartcity.smartcityserver.service.JWTService;
+import com.smartcity.smartcityserver.service.NotificationService;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import com.smartcity.smartcityserver.service.ResourceVersionService.Resource;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationServiceImpl implements NotificationService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserRepository userRepository;
+    private final JWTService jwtService;
+    private final ResourceVersionService resourceVersionService;
+    private final TenantRegistry tenants;
+
+    @Value("${smartcity.notifications.verify-url}")
+    private String verifyUrl;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long userId, NotificationType type, String subject, String body) {
+        OutboxEvent event = new OutboxEvent();
+        event.setUserId(userId);
+        event.setType(type);
+        event.setSubject(subject);
+        event.setBody(body);
+        outboxEventRepository.save(event);
+        log.debug("Notification {} queued for user={}", type, userId);
+    }
+
+    @Override
+    @Transactional
+    public void requestEmailVerification() {
+        User user = getCurrentUser();
+        if (Boolean.TRUE.equals(user.getEmailVerified())) {
+            log.info("Email of user {} is already verified", user.getUserId());
+            return;
+        }
+        String link = verifyUrl + "?token=" + jwtService.generateEmailVerificationToken(user);
+        // The link is opened without a bearer token, so it has to say which city's database to use
+        if (tenants.isEnabled())
+            link += "&tenant=" + tenants.current();
+        enqueue(user.getUserId(), NotificationType.EMAIL_VERIFICATION, "Confirm your email address",
+                "Hi " + user.getName() + ",\n\nPlease confirm your email address by opening this link:\n" + link
+                        + "\n\nThe link is valid for 24 hours.");
+        log.info("Email verification requested by user={}", user.getUserId());
+    }
+
+    @Override
+    @Transactional
+    public void verifyEmail(String token) {
+        String email = jwtService.getEmailFromVerificationToken(token);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+        if (!Boolean.TRUE.equals(user.getEmailVerified())) {
+            user.setEmailVerified(true);
+            userRepository.save(user);
+            resourceVersionService.markChanged(Resource.USERS, user.getUserId());
+        }
+        log.info("Email verified for user={}", user.getUserId());
+    }
+
+    // Helper to fetch currently logged-in user
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+}
@@ -0,0 +1,129 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.datasource.RecentWriteTracker;
+import com.smartcity.smartcityserver.service.ResourceVersionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Version stamps in the {@code resource_versions} table, so a write handled by one instance
+ * invalidates the tags every other instance handed out.
+ * <p>
+ * Inside a transaction the bumps are collected and written just before it commits, in key order:
+ * the stamp becomes visible together with the rows it describes, the hot collection rows are locked
+ * only for the duration of the commit, and two transactions always lock them in the same order.
+ * Tenants need no key prefix since each has its own database.
+ * <p>
+ * With a read replica, stamps are read in a read-only transaction, so they are routed like the body
+ * read after them. A stamp from a lagging replica is never newer than a body read later from that replica.
+ * A stamp read from the primary could be, and would put the new tag on the replica's old body.
+ */
+@Service
+@Slf4j
+public class ResourceVersionServiceImpl implements ResourceVersionService {
+
+    private static final String SELECT_SQL = "SELECT version, last_modified FROM resource_versions WHERE resource_key = ?";
+    private static final String BUMP_SQL = "INSERT INTO resource_versions (resource_key, version, last_modified) VALUES (?, 1, ?) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1, last_modified = GREATEST(last_modified, ?)";
+
+    private final RecentWriteTracker writeTracker;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Stands in for resources that were never written; fixed so every instance hands out the same tag
+    private static final long NEVER_WRITTEN = 0;
+
+    public ResourceVersionServiceImpl(RecentWriteTracker writeTracker,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${smartcity.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        this.writeTracker = writeTracker;
+        this.jdbcTemplate = jdbcTemplate;
+        if (replicaEnabled) {
+            readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+        } else {
+            readOnlyTransaction = null;
+        }
+    }
+
+    @Override
+    public VersionStamp getStamp(Resource resource, Long userId) {
+        String key = keyOf(resource, userId);
+        return readOnlyTransaction == null ? readStamp(key) : readOnlyTransaction.execute(status -> readStamp(key));
+    }
+
+    private VersionStamp readStamp(String key) {
+        return jdbcTemplate.query(SELECT_SQL, rs -> rs.next()
+                ? new VersionStamp(key, rs.getLong("version"), rs.getLong("last_modified"))
+                : new VersionStamp(key, 0, NEVER_WRITTEN), key);
+    }
+
+    @Override
+    public void markChanged(Resource resource, Long userId) {
+        // No transaction (or a suspended one, e.g. in an after-commit listener): the write is already visible
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            writeTracker.recordWrite(userId);
+            bump(keysOf(resource, userId));
+            return;
+        }
+        PendingBumps pending = (PendingBumps) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingBumps();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.keys.addAll(keysOf(resource, userId));
+        pending.users.add(userId);
+    }
+
+    private void bump(Set<String> keys) {
+        // Last-Modified has one second resolution; round so If-Modified-Since compares cleanly
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        for (String key : keys)
+            jdbcTemplate.update(BUMP_SQL, key, now, now);
+        log.debug("Version bumped for {}", keys);
+    }
+
+    private Set<String> keysOf(Resource resource, Long userId) {
+        Set<String> keys = new TreeSet<>();
+        keys.add(keyOf(resource, null));
+        if (userId != null)
+            keys.add(keyOf(resource, userId));
+        return keys;
+    }
+
+    private String keyOf(Resource resource, Long userId) {
+        String name = resource.name().toLowerCase();
+        return userId == null ? name : name + "-u" + userId;
+    }
+
+    // The bumps of one transaction
+    private final class PendingBumps implements TransactionSynchronization {
+
+        private final Set<String> keys = new TreeSet<>();
+        private final Set<Long> users = new HashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Record the writes first: a reader that sees the new version must also be kept off a lagging replica
+            users.forEach(writeTracker::recordWrite);
+            bump(keys);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ResourceVersionServiceImpl.this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartcity.smartcityserver.service.impl;
+
+import com.smartcity.smartcityserver.entity.enums.BillType;
+import com.smartcity.smartcityserver.exception.TariffNotDefinedException;
+import com.smartcity.smartcityserver.service.TariffService;
+import com.smartcity.smartcityserver.tariff.CompiledTariffs;
+import com.smartcity.smartcityserver.tariff.TariffSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Loads the tariff set from {@code smartcity.tariffs.file}, or the bundled {@code tariffs.json} when
+ * none is configured, and swaps in a new compiled set whenever the file changes. A file that does not
+ * parse or compile is logged and ignored, and the previous tariffs stay active.
+ */
+@Service
+@Slf4j
+public class TariffServiceImpl implements TariffService {
+
+    private static final String BUNDLED_TARIFFS = "/tariffs.json";
+
+    private record Active(TariffSet definition, CompiledTariffs compiled) {
+    }
+
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+    private final Path file;
+    private volatile Active active;
+    private FileTime lastSeen;
+
+    public TariffServiceImpl(JsonMapper jsonMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${smartcity.tariffs.file:}") String file) throws IOException {
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+        this.file = file.isBlank() ? null : Path.of(file);
+        // Fail startup rather than run without tariffs
+        if (this.file == null) {
+            try (InputStream bundled = TariffServiceImpl.class.getResourceAsStream(BUNDLED_TARIFFS)) {
+                TariffSet definition = jsonMapper.readValue(bundled, TariffSet.class);
+                this.active = new Active(definition, CompiledTariffs.compile(definition));
+            }
+        } else {
+            this.lastSeen = Files.getLastModifiedTime(this.file);
+            TariffSet definition = jsonMapper.readValue(this.file.toFile(), TariffSet.class);
+            this.active = new Active(definition, CompiledTariffs.compile(definition));
+        }
+        log.info("Tariff set {} loaded from {}", active.definition().version(), this.file == null ? "classpath" : this.file);
+    }
+
+    @Override
+    public CompiledTariffs getCompiledTariffs() {
+        return active.compiled();
+    }
+
+    @Override
+    public TariffSet getTariffSet() {
+        return active.definition();
+    }
+
+    @Override
+    public double computeAmount(BillType billType, double usage) {
+        CompiledTariffs tariffs = active.compiled();
+        if (!tariffs.defines(billType))
+            throw new TariffNotDefinedException("No tariff is defined for " + billType);
+        return tariffs.amount(billType.ordinal(), usage, CompiledTariffs.NO_SLOT);
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.tariffs.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        if (file == null)
+            return;
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            // Also skips a broken file until it is written again
+            if (modified.equals(lastSeen))
+                return;
+            lastSeen = modified;
+            TariffSet definition = jsonMapper.readValue(file.toFile(), TariffSet.class);
+            active = new Active(definition, CompiledTariffs.compile(definition));
+            meterRegistry.counter("smartcity.tariffs.reloads", "outcome", "success").increment();
+            log.info("Tariff set {} reloaded from {}", definition.version(), file);
+        } catch (IOException | JacksonException | IllegalArgumentException ex) {
+            meterRegistry.counter("smartcity.tariffs.reloads", "outcome", "failure").increment();
+            log.error("Tariff file {} ignored, keeping tariff set {}: {}", file, active.definition().version(), ex.getMessage());
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.smartcity.smartcityserver.service.impl;
 
+import com.smartcity.smartcityserver.dto.FieldSet;
 import com.smartcity.smartcityserver.dto.UserDTO;
 import com.smartcity.smartcityserver.entity.User;
 import com.smartcity.smartcityserver.exception.UserNotFoundException;
+import com.smartcity.smartcityserver.repositoriy.FieldProjectionRepository;
 import com.smartcity.smartcityserver.repositoriy.UserRepository;
 import com.smartcity.smartcityserver.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -19,8 +23,12 @@ public class UserServiceImpl implements UserService {
 
     private final ModelMapper modelMapper;
     private final UserRepository userRepository;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
+    // Not read-only: this loads the principal before any Authentication exists, so the replica
+    // could not tell it is the user's own recent write (new password, role change) being read
     @Override
+    @Transactional
     public User getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> {
@@ -32,6 +40,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
@@ -43,6 +52,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         List<User> users = userRepository.findAll();
         log.info("Fetched all users, count={}", users.size());
@@ -50,4 +60,10 @@ public class UserServiceImpl implements UserService {
                 .map(user -> modelMapper.map(user, UserDTO.class))
                 .toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUserFields(List<String> fields) {
+        return fieldProjectionRepository.findFields(FieldSet.USER, fields, null);
+    }
 }
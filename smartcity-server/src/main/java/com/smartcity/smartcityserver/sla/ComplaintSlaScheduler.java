@@ -0,0 +1,252 @@
+package com.smartcity.smartcityserver.sla;
+
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+import com.smartcity.smartcityserver.event.ComplaintChangedEvent;
+import com.smartcity.smartcityserver.service.ComplaintService;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import com.smartcity.smartcityserver.utils.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.LongStream;
+
+/**
+ * Escalates or flags complaints that stay in one status longer than their {@link SlaRuleSet} allows.
+ * Every open complaint with an applicable rule sits in a {@link TimingWheel} under its next SLA
+ * deadline, so each tick reads only the complaints whose deadline has passed, however many are open.
+ * <p>
+ * The wheel is filled from {@code complaints} once on startup and then follows
+ * {@link ComplaintChangedEvent}s: creation, status changes, edits and the SLA actions themselves each
+ * recompute the complaint's deadline. Actions go through {@link ComplaintService#applySlaAction},
+ * which re-checks the complaint under a row lock, so a deadline that another instance, or an admin,
+ * got to first does nothing.
+ * <p>
+ * One wheel serves every tenant: complaints are kept under their tenant-scoped id and processed as
+ * their own tenant.
+ */
+@Component
+@Slf4j
+public class ComplaintSlaScheduler {
+
+    private static final String BUNDLED_RULES = "/sla-rules.json";
+    private static final String COLUMNS = "id, complaint_type, status, priority, "
+            + "COALESCE(status_changed_at, created_at) AS status_changed_at, escalated_at, sla_breached_at";
+    private static final String OPEN = "status IN ('PENDING', 'IN_PROGRESS')";
+    private static final String PAGE_SQL = "SELECT " + COLUMNS + " FROM complaints WHERE id > ? AND " + OPEN + " ORDER BY id LIMIT ?";
+    private static final String ONE_SQL = "SELECT " + COLUMNS + " FROM complaints WHERE id = ? AND " + OPEN;
+    private static final String DUE_SQL = "SELECT " + COLUMNS + " FROM complaints WHERE " + OPEN + " AND id IN (%s)";
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private record Tracked(long id, String complaintType, ComplaintStatus status, Priority priority,
+                           LocalDateTime statusChangedAt, LocalDateTime escalatedAt, boolean breached) {
+    }
+
+    private record Step(SlaAction action, long atMillis) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ComplaintService complaintService;
+    private final TenantRegistry tenants;
+    private final MeterRegistry meterRegistry;
+    private final SlaRuleSet rules;
+    private final TimingWheel wheel;
+
+    @Value("${smartcity.sla.batch-size:500}")
+    private int batchSize;
+
+    public ComplaintSlaScheduler(JdbcTemplate jdbcTemplate,
+                                 ComplaintService complaintService,
+                                 TenantRegistry tenants,
+                                 MeterRegistry meterRegistry,
+                                 JsonMapper jsonMapper,
+                                 @Value("${smartcity.sla.rules-file:}") String rulesFile,
+                                 @Value("${smartcity.sla.tick-ms:60000}") long tickMs) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.complaintService = complaintService;
+        this.tenants = tenants;
+        this.meterRegistry = meterRegistry;
+        // Fail startup rather than run with rules nobody asked for
+        if (rulesFile.isBlank()) {
+            try (InputStream bundled = ComplaintSlaScheduler.class.getResourceAsStream(BUNDLED_RULES)) {
+                this.rules = jsonMapper.readValue(bundled, SlaRuleSet.class);
+            }
+        } else {
+            this.rules = jsonMapper.readValue(Path.of(rulesFile).toFile(), SlaRuleSet.class);
+        }
+        this.wheel = new TimingWheel(Duration.ofMillis(tickMs), System.currentTimeMillis(), 1024);
+        Gauge.builder("smartcity.sla.scheduled", this, ComplaintSlaScheduler::scheduled)
+                .description("Open complaints waiting for an SLA deadline")
+                .register(meterRegistry);
+        log.info("{} SLA rule(s) loaded from {}", rules.rules().size(), rulesFile.isBlank() ? "classpath" : rulesFile);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        tenants.forEach(() -> {
+            long after = 0;
+            int page;
+            do {
+                List<Tracked> rows = jdbcTemplate.query(PAGE_SQL, (rs, rowNum) -> tracked(rs), after, batchSize);
+                synchronized (this) {
+                    rows.forEach(this::schedule);
+                }
+                page = rows.size();
+                if (page > 0)
+                    after = rows.getLast().id();
+            } while (page == batchSize);
+        });
+        log.info("SLA schedule rebuilt with {} open complaint(s) in {} ms", scheduled(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    // Any change can move the deadline: a new status or priority restarts the clock, a new type changes the rules
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onComplaintChanged(ComplaintChangedEvent event) {
+        long id = event.getComplaintId();
+        if (event.getStatus() != ComplaintStatus.PENDING && event.getStatus() != ComplaintStatus.IN_PROGRESS) {
+            synchronized (this) {
+                wheel.cancel(tenants.scope(id));
+            }
+            return;
+        }
+        List<Tracked> rows = jdbcTemplate.query(ONE_SQL, (rs, rowNum) -> tracked(rs), id);
+        synchronized (this) {
+            if (rows.isEmpty())
+                wheel.cancel(tenants.scope(id));
+            else
+                schedule(rows.getFirst());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${smartcity.sla.tick-ms:60000}")
+    public void processDue() {
+        LongStream.Builder expired = LongStream.builder();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), expired::add);
+        }
+        tenants.forEachBatch(expired.build().toArray(), batchSize, batch -> {
+            try {
+                processBatch(batch);
+            } catch (DataAccessException | TransactionException ex) {
+                // Put the batch back so it is retried on the next tick
+                log.error("SLA batch of {} complaint(s) failed, will retry: {}", batch.length, ex.getMessage());
+                retry(batch);
+            }
+        });
+    }
+
+    private void processBatch(long[] complaintIds) {
+        String sql = String.format(DUE_SQL, String.join(",", Collections.nCopies(complaintIds.length, "?")));
+        Object[] args = LongStream.of(complaintIds).boxed().toArray();
+        long now = System.currentTimeMillis();
+        for (Tracked complaint : jdbcTemplate.query(sql, (rs, rowNum) -> tracked(rs), args)) {
+            Step step = nextStep(complaint);
+            if (step == null)
+                continue;
+            // Changed on another instance since it was scheduled
+            if (step.atMillis() > now) {
+                synchronized (this) {
+                    wheel.schedule(tenants.scope(complaint.id()), step.atMillis());
+                }
+                continue;
+            }
+            try {
+                // On success the resulting change event schedules the next deadline
+                if (complaintService.applySlaAction(complaint.id(), complaint.status(), complaint.priority(), step.action()))
+                    meterRegistry.counter("smartcity.sla.actions",
+                            "action", step.action().name().toLowerCase(Locale.ROOT),
+                            "priority", complaint.priority().name()).increment();
+                else
+                    retry(new long[]{complaint.id()});
+            } catch (DataAccessException | TransactionException ex) {
+                log.error("SLA {} of complaint {} failed, will retry: {}", step.action(), complaint.id(), ex.getMessage());
+                retry(new long[]{complaint.id()});
+            }
+        }
+    }
+
+    // Re-reads the complaints of the current tenant on the next tick
+    private synchronized void retry(long[] complaintIds) {
+        long now = System.currentTimeMillis();
+        for (long id : complaintIds)
+            wheel.schedule(tenants.scope(id), now);
+    }
+
+    // Caller holds the lock
+    private void schedule(Tracked complaint) {
+        Step step = nextStep(complaint);
+        if (step == null)
+            wheel.cancel(tenants.scope(complaint.id()));
+        else
+            wheel.schedule(tenants.scope(complaint.id()), step.atMillis());
+    }
+
+    // The earliest action still to be taken in the current status, or null when no rule applies
+    private Step nextStep(Tracked complaint) {
+        if (complaint.priority() == null)
+            return null;
+        Step next = null;
+        if (complaint.priority() != Priority.CRITICAL) {
+            SlaRuleSet.Rule rule = rules.match(complaint.complaintType(), complaint.status(), complaint.priority(), SlaAction.ESCALATE);
+            if (rule != null) {
+                LocalDateTime since = complaint.escalatedAt() != null && complaint.escalatedAt().isAfter(complaint.statusChangedAt())
+                        ? complaint.escalatedAt() : complaint.statusChangedAt();
+                next = new Step(SlaAction.ESCALATE, millis(since.plus(rule.after())));
+            }
+        }
+        if (!complaint.breached()) {
+            SlaRuleSet.Rule rule = rules.match(complaint.complaintType(), complaint.status(), complaint.priority(), SlaAction.FLAG);
+            if (rule != null) {
+                long at = millis(complaint.statusChangedAt().plus(rule.after()));
+                if (next == null || at < next.atMillis())
+                    next = new Step(SlaAction.FLAG, at);
+            }
+        }
+        return next;
+    }
+
+    private static Tracked tracked(ResultSet rs) throws SQLException {
+        String priority = rs.getString("priority");
+        Timestamp escalatedAt = rs.getTimestamp("escalated_at");
+        return new Tracked(rs.getLong("id"), rs.getString("complaint_type"),
+                ComplaintStatus.valueOf(rs.getString("status")),
+                priority == null ? null : Priority.valueOf(priority),
+                rs.getTimestamp("status_changed_at").toLocalDateTime(),
+                escalatedAt == null ? null : escalatedAt.toLocalDateTime(),
+                rs.getTimestamp("sla_breached_at") != null);
+    }
+
+    private static long millis(LocalDateTime at) {
+        return at.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private synchronized double scheduled() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartcity.smartcityserver.sla;
+
+/**
+ * What happens to a complaint that has stayed too long in one status.
+ */
+public enum SlaAction {
+    /** Raise the priority one level; the rule's clock then restarts at the new priority. */
+    ESCALATE,
+    /** Mark the complaint as breaching its SLA, once per status. */
+    FLAG
+}
@@ -0,0 +1,69 @@
+package com.smartcity.smartcityserver.sla;
+
+import com.smartcity.smartcityserver.entity.enums.ComplaintStatus;
+import com.smartcity.smartcityserver.entity.enums.Priority;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * SLA rules as written in the rules file.
+ * <p>
+ * For each action, a complaint follows the most specific rule for its type, status and priority:
+ * a rule naming the complaint type beats {@code "*"}, and then a rule naming the priority beats one without.
+ */
+public record SlaRuleSet(List<Rule> rules) {
+
+    private static final String ANY_TYPE = "*";
+
+    /**
+     * @param complaintType complaint type the rule covers, matched ignoring case, or {@code "*"} for every type
+     * @param priority      priority the rule covers, or {@code null} for every priority
+     * @param status        {@code PENDING} or {@code IN_PROGRESS}
+     * @param after         time allowed in the status, as an ISO-8601 duration such as {@code P3D}; for
+     *                      {@link SlaAction#ESCALATE} counted from the last escalation when that is later
+     */
+    public record Rule(String complaintType, Priority priority, ComplaintStatus status, Duration after, SlaAction action) {
+
+        public Rule {
+            if (complaintType == null || complaintType.isBlank())
+                throw new IllegalArgumentException("SLA rule without complaintType; use \"*\" for every type");
+            if (status != ComplaintStatus.PENDING && status != ComplaintStatus.IN_PROGRESS)
+                throw new IllegalArgumentException("SLA rule status must be PENDING or IN_PROGRESS, was " + status);
+            if (after == null || after.isNegative() || after.isZero())
+                throw new IllegalArgumentException("SLA rule for " + complaintType + "/" + status + " needs a positive 'after'");
+            if (action == null)
+                throw new IllegalArgumentException("SLA rule for " + complaintType + "/" + status + " has no action");
+            if (action == SlaAction.ESCALATE && priority == Priority.CRITICAL)
+                throw new IllegalArgumentException("CRITICAL complaints cannot be escalated");
+        }
+    }
+
+    public SlaRuleSet {
+        rules = rules == null ? List.of() : List.copyOf(rules);
+    }
+
+    /**
+     * @return the rule for the action that applies to a complaint, or {@code null} when none does
+     */
+    public Rule match(String complaintType, ComplaintStatus status, Priority priority, SlaAction action) {
+        Rule best = null;
+        int bestScore = -1;
+        for (Rule rule : rules) {
+            if (rule.action() != action || rule.status() != status)
+                continue;
+            boolean anyType = ANY_TYPE.equals(rule.complaintType());
+            if (!anyType && !rule.complaintType().equalsIgnoreCase(complaintType))
+                continue;
+            if (rule.priority() != null && rule.priority() != priority)
+                continue;
+            int score = (anyType ? 0 : 2) + (rule.priority() == null ? 0 : 1);
+            // Ties keep the rule written first
+            if (score > bestScore) {
+                best = rule;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+}
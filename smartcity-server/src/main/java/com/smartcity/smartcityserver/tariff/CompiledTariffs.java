@@ -0,0 +1,178 @@
+package com.smartcity.smartcityserver.tariff;
+
+import com.smartcity.smartcityserver.entity.enums.BillType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link TariffSet} flattened into primitive arrays indexed by {@link BillType#ordinal()}, so that
+ * pricing a reading is a short tier scan and a few array loads, with no boxing, maps or allocation.
+ * <p>
+ * Tiers of all bill types share one set of arrays; the tiers of type {@code t} are
+ * {@code tierStart[t]} to {@code tierStart[t + 1]} and store their lower bound, rate and the charge
+ * accumulated below them. Time-of-use multipliers are one value per hour of the week.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledTariffs {
+
+    /** Hours in a week; slot 0 is Monday 00:00-01:00. */
+    public static final int SLOTS = 7 * 24;
+
+    /** Slot of a reading without a time of day; no time-of-use multiplier applies. */
+    public static final int NO_SLOT = -1;
+
+    // Below this many readings per core, splitting a batch costs more than it saves
+    private static final int MIN_PARALLEL_RANGE = 16 * 1024;
+
+    private final String version;
+    private final int[] tierStart;
+    private final double[] tierLower;
+    private final double[] tierRate;
+    private final double[] tierBase;
+    private final double[] fixedCharge;
+    private final double[] multiplier;
+
+    private CompiledTariffs(String version, int[] tierStart, double[] tierLower, double[] tierRate,
+                            double[] tierBase, double[] fixedCharge, double[] multiplier) {
+        this.version = version;
+        this.tierStart = tierStart;
+        this.tierLower = tierLower;
+        this.tierRate = tierRate;
+        this.tierBase = tierBase;
+        this.fixedCharge = fixedCharge;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a definition is inconsistent
+     */
+    public static CompiledTariffs compile(TariffSet set) {
+        BillType[] types = BillType.values();
+        int tierCount = 0;
+        for (TariffSet.Tariff tariff : set.tariffs().values())
+            tierCount += tariff.tiers() == null ? 0 : tariff.tiers().size();
+
+        int[] tierStart = new int[types.length + 1];
+        double[] tierLower = new double[tierCount];
+        double[] tierRate = new double[tierCount];
+        double[] tierBase = new double[tierCount];
+        double[] fixedCharge = new double[types.length];
+        double[] multiplier = new double[types.length * SLOTS];
+        Arrays.fill(multiplier, 1.0);
+
+        int next = 0;
+        for (BillType type : types) {
+            int t = type.ordinal();
+            tierStart[t] = next;
+            TariffSet.Tariff tariff = set.tariffs().get(type);
+            if (tariff == null)
+                continue;
+            if (tariff.tiers() == null || tariff.tiers().isEmpty())
+                throw new IllegalArgumentException(type + ": at least one tier is required");
+            if (tariff.fixedCharge() < 0)
+                throw new IllegalArgumentException(type + ": fixedCharge must be zero or more");
+            fixedCharge[t] = tariff.fixedCharge();
+
+            double lower = 0;
+            double base = 0;
+            List<TariffSet.Tier> tiers = tariff.tiers();
+            for (int i = 0; i < tiers.size(); i++) {
+                TariffSet.Tier tier = tiers.get(i);
+                boolean last = i == tiers.size() - 1;
+                if (tier.rate() < 0)
+                    throw new IllegalArgumentException(type + ": tier " + (i + 1) + " has a negative rate");
+                if (last != (tier.upTo() == null))
+                    throw new IllegalArgumentException(type + ": only the last tier, and always the last tier, has no upTo");
+                if (!last && tier.upTo() <= lower)
+                    throw new IllegalArgumentException(type + ": tier " + (i + 1) + " must end above " + lower);
+                tierLower[next] = lower;
+                tierRate[next] = tier.rate();
+                tierBase[next] = base;
+                next++;
+                if (!last) {
+                    base += (tier.upTo() - lower) * tier.rate();
+                    lower = tier.upTo();
+                }
+            }
+
+            if (tariff.timeOfUse() != null)
+                for (TariffSet.TimeOfUse window : tariff.timeOfUse())
+                    apply(type, window, multiplier, t * SLOTS);
+        }
+        tierStart[types.length] = next;
+        return new CompiledTariffs(set.version(), tierStart, tierLower, tierRate, tierBase, fixedCharge, multiplier);
+    }
+
+    private static void apply(BillType type, TariffSet.TimeOfUse window, double[] multiplier, int offset) {
+        if (window.fromHour() < 0 || window.fromHour() > 23 || window.toHour() < 0 || window.toHour() > 24)
+            throw new IllegalArgumentException(type + ": time-of-use hours must be within 0-24");
+        if (!(window.multiplier() > 0))
+            throw new IllegalArgumentException(type + ": time-of-use multiplier must be positive");
+        List<DayOfWeek> days = window.days() == null || window.days().isEmpty() ? List.of(DayOfWeek.values()) : window.days();
+        int hours = Math.floorMod(window.toHour() - window.fromHour() - 1, 24) + 1;
+        for (DayOfWeek day : days) {
+            // A window that wraps past midnight continues into the next day's early hours
+            for (int h = 0; h < hours; h++) {
+                int slot = (day.ordinal() * 24 + window.fromHour() + h) % SLOTS;
+                multiplier[offset + slot] = window.multiplier();
+            }
+        }
+    }
+
+    public static int slot(LocalDateTime time) {
+        return time.getDayOfWeek().ordinal() * 24 + time.getHour();
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public boolean defines(BillType type) {
+        return tierStart[type.ordinal()] != tierStart[type.ordinal() + 1];
+    }
+
+    /**
+     * @param type  a {@link BillType#ordinal()}
+     * @param slot  hour of the week from {@link #slot}, or {@link #NO_SLOT}
+     * @return the amount rounded to two decimals, or {@code NaN} if the type has no tariff or the usage is negative
+     */
+    public double amount(int type, double usage, int slot) {
+        int first = tierStart[type];
+        int tier = tierStart[type + 1] - 1;
+        if (tier < first || !(usage >= 0))
+            return Double.NaN;
+        while (tier > first && usage < tierLower[tier])
+            tier--;
+        double charge = tierBase[tier] + (usage - tierLower[tier]) * tierRate[tier];
+        if (slot >= 0)
+            charge *= multiplier[type * SLOTS + slot];
+        return Math.round((fixedCharge[type] + charge) * 100) / 100.0;
+    }
+
+    /**
+     * Prices readings {@code from} (inclusive) to {@code to} (exclusive) of the given arrays into {@code amounts}.
+     */
+    public void compute(int[] types, double[] usage, int[] slots, double[] amounts, int from, int to) {
+        for (int i = from; i < to; i++)
+            amounts[i] = amount(types[i], usage[i], slots[i]);
+    }
+
+    /**
+     * Same as {@link #compute} over the first {@code length} readings, split across the common fork-join pool.
+     */
+    public void computeParallel(int[] types, double[] usage, int[] slots, double[] amounts, int length) {
+        int parts = Math.min(ForkJoinPool.getCommonPoolParallelism(), length / MIN_PARALLEL_RANGE);
+        if (parts <= 1) {
+            compute(types, usage, slots, amounts, 0, length);
+            return;
+        }
+        IntStream.range(0, parts).parallel().forEach(part -> compute(types, usage, slots, amounts,
+                (int) ((long) length * part / parts), (int) ((long) length * (part + 1) / parts)));
+    }
+}
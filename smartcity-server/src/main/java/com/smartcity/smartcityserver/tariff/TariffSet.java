@@ -0,0 +1,39 @@
+package com.smartcity.smartcityserver.tariff;
+
+import com.smartcity.smartcityserver.entity.enums.BillType;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tariff definitions as written in the tariffs file; {@link CompiledTariffs#compile} turns them into lookup tables.
+ *
+ * @param version free-form label of the tariff set, e.g. "2026-10"
+ * @param tariffs bill types without an entry cannot be priced from usage
+ */
+public record TariffSet(String version, Map<BillType, Tariff> tariffs) {
+
+    /**
+     * @param fixedCharge charged once per bill, whatever the usage
+     * @param tiers       in ascending order; the last one has no {@code upTo}
+     * @param timeOfUse   multipliers for the usage charge; later entries win where they overlap
+     */
+    public record Tariff(double fixedCharge, List<Tier> tiers, List<TimeOfUse> timeOfUse) {
+    }
+
+    /**
+     * @param upTo usage at which the next tier starts, or {@code null} for the last tier
+     * @param rate price per unit within this tier
+     */
+    public record Tier(Double upTo, double rate) {
+    }
+
+    /**
+     * Hours run from {@code fromHour} inclusive to {@code toHour} exclusive and may wrap past midnight.
+     *
+     * @param days weekdays the window applies to; empty or missing means every day
+     */
+    public record TimeOfUse(List<DayOfWeek> days, int fromHour, int toHour, double multiplier) {
+    }
+}
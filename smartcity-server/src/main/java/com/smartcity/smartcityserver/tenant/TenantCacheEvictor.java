@@ -0,0 +1,35 @@
+package com.smartcity.smartcityserver.tenant;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts single entities from the second-level cache for the current tenant.
+ * <p>
+ * With multi-tenancy on, Hibernate keys cached entities by id and tenant, but
+ * {@link jakarta.persistence.Cache#evict(Class, Object)} builds its key without a tenant and so
+ * misses them; this goes to the region with the tenant-qualified key instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TenantRegistry tenants;
+
+    public void evict(Class<?> entityType, Object id) {
+        if (!tenants.isEnabled()) {
+            entityManagerFactory.getCache().evict(entityType, id);
+            return;
+        }
+        SessionFactoryImplementor factory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(entityType);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access != null)
+            access.evict(access.generateCacheKey(id, persister, factory, tenants.current()));
+    }
+}
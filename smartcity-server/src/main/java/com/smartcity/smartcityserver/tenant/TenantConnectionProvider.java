@@ -0,0 +1,67 @@
+package com.smartcity.smartcityserver.tenant;
+
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Gives Hibernate connections of a named tenant from the tenant-routing data source.
+ * Going through the application's {@code dataSource} bean keeps statement counting and
+ * per-tenant admission control in the path.
+ */
+public class TenantConnectionProvider implements MultiTenantConnectionProvider<String> {
+
+    private final DataSource dataSource;
+
+    public TenantConnectionProvider(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Used at bootstrap and for schema tooling; follows the current thread's tenant
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        String previous = TenantContext.get();
+        TenantContext.set(tenantIdentifier);
+        try {
+            return dataSource.getConnection();
+        } finally {
+            TenantContext.set(previous);
+        }
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this) || unwrapType.isInstance(dataSource);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this))
+            return unwrapType.cast(this);
+        if (unwrapType.isInstance(dataSource))
+            return unwrapType.cast(dataSource);
+        throw new IllegalArgumentException("Cannot unwrap " + getClass().getName() + " as " + unwrapType.getName());
+    }
+}
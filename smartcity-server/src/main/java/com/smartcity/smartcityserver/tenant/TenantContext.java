@@ -0,0 +1,74 @@
+package com.smartcity.smartcityserver.tenant;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The tenant the current thread works for. Set per request by
+ * {@link com.smartcity.smartcityserver.filter.JWTFilter} and by background jobs through
+ * {@link TenantRegistry#forEach}; unset means the default tenant.
+ * <p>
+ * The static helpers do not propagate to other threads by themselves; wrap work handed to an
+ * executor with {@link #wrap}.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return the tenant id, or null for the default tenant
+     */
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param tenantId the tenant id, or null for the default tenant
+     */
+    public static void set(String tenantId) {
+        if (tenantId == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs the action for the given tenant and then restores the caller's tenant.
+     */
+    public static void runAs(String tenantId, Runnable action) {
+        String previous = CURRENT.get();
+        set(tenantId);
+        try {
+            action.run();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * Binds the caller's tenant to work that will run on another thread.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String tenantId = CURRENT.get();
+        return () -> {
+            String previous = CURRENT.get();
+            set(tenantId);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    public static Runnable wrap(Runnable task) {
+        String tenantId = CURRENT.get();
+        return () -> runAs(tenantId, task);
+    }
+}
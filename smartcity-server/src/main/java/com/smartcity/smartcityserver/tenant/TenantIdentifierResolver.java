@@ -0,0 +1,26 @@
+package com.smartcity.smartcityserver.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Opens every Hibernate session for the current thread's tenant.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    private final TenantRegistry tenants;
+
+    public TenantIdentifierResolver(TenantRegistry tenants) {
+        this.tenants = tenants;
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return tenants.current();
+    }
+
+    // A session keeps the tenant it was opened with; jobs switch tenants only between transactions
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,166 @@
+package com.smartcity.smartcityserver.tenant;
+
+import com.smartcity.smartcityserver.exception.UnknownTenantException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * The configured tenants. Without {@code smartcity.tenancy.enabled} there is a single default tenant
+ * and everything here is a no-op, so callers don't need to check.
+ * <p>
+ * Each tenant also has a small number, its index: 0 for the default tenant, then the others in the order
+ * of {@code smartcity.tenancy.ids}. In-memory indexes and journals keyed by row id use
+ * {@link #scope(long)} to keep the same id of two tenants apart. Because index 0 leaves an id unchanged,
+ * data written before tenancy was enabled stays with the default tenant. New tenants must be added at the
+ * end of the list so existing ones keep their index.
+ */
+@Component
+@Slf4j
+public class TenantRegistry {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,62}");
+    private static final int ID_BITS = 48;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int MAX_TENANTS = 1 << (63 - ID_BITS);
+
+    private final boolean enabled;
+    // Index order; the default tenant comes first
+    private final List<String> ids;
+
+    public TenantRegistry(@Value("${smartcity.tenancy.enabled:false}") boolean enabled,
+                          @Value("${smartcity.tenancy.ids:}") List<String> ids,
+                          @Value("${smartcity.tenancy.default-tenant:}") String defaultTenant) {
+        this.enabled = enabled;
+        if (!enabled) {
+            this.ids = List.of(defaultTenant.isBlank() ? "default" : defaultTenant);
+            return;
+        }
+        List<String> configured = ids.stream().map(String::trim).filter(id -> !id.isEmpty()).distinct().toList();
+        if (configured.isEmpty())
+            throw new IllegalStateException("smartcity.tenancy.enabled is set but smartcity.tenancy.ids lists no tenants");
+        for (String id : configured) {
+            if (!TENANT_ID.matcher(id).matches())
+                throw new IllegalStateException("Tenant id '" + id + "' must be lowercase letters, digits and dashes");
+        }
+        if (configured.size() > MAX_TENANTS)
+            throw new IllegalStateException("At most " + MAX_TENANTS + " tenants are supported");
+        String first = defaultTenant.isBlank() ? configured.getFirst() : defaultTenant;
+        if (!configured.contains(first))
+            throw new IllegalStateException("Default tenant '" + first + "' is not in smartcity.tenancy.ids");
+        List<String> ordered = new ArrayList<>(configured.size());
+        ordered.add(first);
+        configured.stream().filter(id -> !id.equals(first)).forEach(ordered::add);
+        this.ids = List.copyOf(ordered);
+        log.info("Multi-tenancy enabled for {} tenant(s), default {}", this.ids.size(), first);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> ids() {
+        return ids;
+    }
+
+    public String defaultTenant() {
+        return ids.getFirst();
+    }
+
+    /**
+     * @return the tenant of the current thread
+     */
+    public String current() {
+        String tenantId = TenantContext.get();
+        return tenantId == null ? defaultTenant() : tenantId;
+    }
+
+    /**
+     * Checks a tenant id taken from a request or token.
+     *
+     * @param requested the tenant id, or null for the default tenant
+     * @return the tenant to work for; always the default tenant when multi-tenancy is off
+     * @throws UnknownTenantException when the id is not configured
+     */
+    public String resolve(String requested) {
+        if (!enabled || requested == null || requested.isBlank())
+            return defaultTenant();
+        if (!ids.contains(requested))
+            throw new UnknownTenantException("Unknown tenant: " + requested);
+        return requested;
+    }
+
+    public int currentIndex() {
+        return enabled ? indexOf(current()) : 0;
+    }
+
+    /**
+     * @return the id with the current tenant's index in its top bits
+     */
+    public long scope(long id) {
+        return scope(currentIndex(), id);
+    }
+
+    public static long scope(int tenantIndex, long id) {
+        return ((long) tenantIndex << ID_BITS) | id;
+    }
+
+    public static long unscope(long scopedId) {
+        return scopedId & ID_MASK;
+    }
+
+    public String tenantOf(long scopedId) {
+        return ids.get((int) (scopedId >>> ID_BITS));
+    }
+
+    public int indexOf(String tenantId) {
+        int index = ids.indexOf(tenantId);
+        if (index < 0)
+            throw new UnknownTenantException("Unknown tenant: " + tenantId);
+        return index;
+    }
+
+    /**
+     * Runs the action for batches of tenant-scoped ids, each as the tenant its ids belong to and with
+     * the ids unscoped. A batch holds at most {@code batchSize} ids of a single tenant.
+     * Sorts {@code scopedIds} in place.
+     */
+    public void forEachBatch(long[] scopedIds, int batchSize, Consumer<long[]> action) {
+        // Scoped ids sort by tenant first, so each tenant's ids form one run
+        Arrays.sort(scopedIds);
+        for (int from = 0; from < scopedIds.length; ) {
+            long tenantIndex = scopedIds[from] >>> ID_BITS;
+            int to = from + 1;
+            while (to < scopedIds.length && to - from < batchSize && scopedIds[to] >>> ID_BITS == tenantIndex)
+                to++;
+            long[] batch = new long[to - from];
+            for (int i = 0; i < batch.length; i++)
+                batch[i] = unscope(scopedIds[from + i]);
+            TenantContext.runAs(ids.get((int) tenantIndex), () -> action.accept(batch));
+            from = to;
+        }
+    }
+
+    /**
+     * Runs the action once for every tenant. A failure is logged and does not stop the remaining tenants.
+     */
+    public void forEach(Runnable action) {
+        if (!enabled) {
+            action.run();
+            return;
+        }
+        for (String tenantId : ids) {
+            try {
+                TenantContext.runAs(tenantId, action);
+            } catch (RuntimeException ex) {
+                log.error("Task for tenant {} failed: {}", tenantId, ex.getMessage(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartcity.smartcityserver.tenant;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.SchemaManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@code spring.jpa.hibernate.ddl-auto} to every tenant database. Hibernate's own schema
+ * export runs once at bootstrap and only reaches the default tenant.
+ * <p>
+ * {@code create}/{@code create-drop} recreate and {@code validate} validates each extra tenant;
+ * {@code update} is not applied, so extra tenants must be migrated alongside the default one.
+ */
+@Component
+@ConditionalOnProperty(name = "smartcity.tenancy.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TenantSchemaInitializer {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TenantRegistry tenants;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @PostConstruct
+    public void initialize() {
+        SchemaManager schema = entityManagerFactory.getSchemaManager();
+        for (String tenantId : tenants.ids()) {
+            if (tenantId.equals(tenants.defaultTenant()))
+                continue;
+            TenantContext.runAs(tenantId, () -> {
+                switch (ddlAuto) {
+                    case "create", "create-drop" -> {
+                        schema.drop(false);
+                        schema.create(false);
+                        log.info("Created schema for tenant {}", tenantId);
+                    }
+                    case "validate" -> schema.validate();
+                    case "update" -> log.warn("ddl-auto=update is not applied to tenant {}; migrate its database separately", tenantId);
+                    default -> {
+                    }
+                }
+            });
+        }
+    }
+}
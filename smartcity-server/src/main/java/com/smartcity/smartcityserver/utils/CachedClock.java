@@ -0,0 +1,44 @@
+package com.smartcity.smartcityserver.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+public class CachedClock {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static volatile Tick current = new Tick(System.currentTimeMillis());
+
+    // Local time, shared by every caller within the same millisecond
+    public static LocalDateTime now() {
+        return tick().dateTime;
+    }
+
+    // ISO-8601 form of now(), formatted once per millisecond
+    public static String isoNow() {
+        return tick().iso;
+    }
+
+    private static Tick tick() {
+        long millis = System.currentTimeMillis();
+        Tick tick = current;
+        if (tick.millis != millis) {
+            tick = new Tick(millis);
+            current = tick;
+        }
+        return tick;
+    }
+
+    private static final class Tick {
+        private final long millis;
+        private final LocalDateTime dateTime;
+        private final String iso;
+
+        private Tick(long millis) {
+            this.millis = millis;
+            this.dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+            this.iso = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartcity.smartcityserver.utils;
+
+/**
+ * Open-addressing map from non-zero long keys to long values, without boxing.
+ * Not thread-safe; callers synchronise.
+ */
+public final class LongLongIndex {
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    public LongLongIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public long get(long key, long missing) {
+        // 0 marks an empty slot, so probing for it would return whatever that slot holds
+        if (key == 0)
+            return missing;
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key)
+                return values[slot];
+            if (keys[slot] == 0)
+                return missing;
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == 0)
+            throw new IllegalArgumentException("Key 0 is reserved");
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            // Keep the load factor at or below one half
+            if (++size * 2 > keys.length) {
+                values[slot] = value;
+                grow();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * @return whether the key was present
+     */
+    public boolean remove(long key) {
+        if (key == 0)
+            throw new IllegalArgumentException("Key 0 is reserved");
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == 0)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        // Pull later keys of the same probe run back over the hole, so no lookup stops short of them
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != 0)
+                put(oldKeys[i], oldValues[i]);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
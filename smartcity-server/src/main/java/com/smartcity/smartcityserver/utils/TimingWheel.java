@@ -0,0 +1,157 @@
+package com.smartcity.smartcityserver.utils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of long ids, each with one deadline. Five wheels of 64 slots, where a slot
+ * of each wheel spans one full turn of the wheel below; with one-minute ticks the top wheel reaches
+ * about two thousand years ahead.
+ * <p>
+ * Scheduling and cancelling are constant time. Advancing visits one slot per tick, and an entry is
+ * moved down at most once per wheel on its way to firing, so deadlines are never scanned or sorted.
+ * <p>
+ * Rescheduling or cancelling only updates the id's deadline in the index; the copy left in its old
+ * slot no longer matches and is dropped when that slot comes up.
+ * <p>
+ * Not thread-safe; callers synchronise.
+ */
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 5;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static final class Slot {
+        private long[] ids = new long[8];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+
+    private final long tickMillis;
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    // id -> deadline tick
+    private final LongLongIndex deadlines;
+    // Next tick to expire; every earlier tick has fired
+    private long currentTick;
+
+    /**
+     * @param tick      resolution of deadlines; entries fire on the first tick at or after their deadline
+     * @param nowMillis the current time, in epoch milliseconds
+     */
+    public TimingWheel(Duration tick, long nowMillis, int expectedSize) {
+        this.tickMillis = tick.toMillis();
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+        this.deadlines = new LongLongIndex(expectedSize);
+    }
+
+    /**
+     * Sets the id's deadline, replacing any earlier one. Deadlines in the past fire on the next advance.
+     *
+     * @param id non-zero
+     */
+    public void schedule(long id, long deadlineMillis) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick);
+        deadlines.put(id, tick);
+        file(id, tick);
+    }
+
+    /**
+     * @return whether the id had a deadline
+     */
+    public boolean cancel(long id) {
+        return deadlines.remove(id);
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Fires every id whose deadline is at or before {@code nowMillis}, in deadline order at tick resolution.
+     * The callback may schedule and cancel ids, including the one just fired.
+     *
+     * @return the number of ids fired
+     */
+    public int advance(long nowMillis, LongConsumer expired) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        int fired = 0;
+        while (currentTick <= target) {
+            if (deadlines.size() == 0) {
+                // Only stale copies are left; nothing can fire before new entries arrive
+                for (Slot[] wheel : wheels)
+                    Arrays.fill(wheel, null);
+                currentTick = target + 1;
+                break;
+            }
+            long tick = currentTick;
+            cascade(tick);
+            Slot due = detach(0, (int) (tick & (SLOTS - 1)));
+            currentTick = tick + 1;
+            if (due == null)
+                continue;
+            for (int i = 0; i < due.size; i++) {
+                long id = due.ids[i];
+                long deadline = deadlines.get(id, NONE);
+                // A later deadline means the id was rescheduled and its current copy sits elsewhere
+                if (deadline != NONE && deadline <= tick) {
+                    deadlines.remove(id);
+                    expired.accept(id);
+                    fired++;
+                }
+            }
+        }
+        return fired;
+    }
+
+    // On entering a new turn of a wheel, the matching slot of every wheel above moves down a level
+    private void cascade(long tick) {
+        int top = 0;
+        while (top + 1 < LEVELS && (tick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0)
+            top++;
+        for (int level = top; level >= 1; level--) {
+            int shift = SLOT_BITS * level;
+            Slot slot = detach(level, (int) ((tick >>> shift) & (SLOTS - 1)));
+            if (slot == null)
+                continue;
+            long block = tick >>> shift;
+            for (int i = 0; i < slot.size; i++) {
+                long id = slot.ids[i];
+                long deadline = deadlines.get(id, NONE);
+                if (deadline == NONE)
+                    continue;
+                long deadlineBlock = deadline >>> shift;
+                // Entries beyond the top wheel's reach go round it again
+                if (deadlineBlock == block || (level == LEVELS - 1 && deadlineBlock > block))
+                    file(id, deadline);
+            }
+        }
+    }
+
+    private void file(long id, long tick) {
+        long delta = Math.min(tick - currentTick, SPAN - 1);
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1)))
+            level++;
+        long placed = currentTick + delta;
+        int index = (int) ((placed >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        Slot slot = wheels[level][index];
+        if (slot == null)
+            slot = wheels[level][index] = new Slot();
+        slot.add(id);
+    }
+
+    private Slot detach(int level, int index) {
+        Slot slot = wheels[level][index];
+        wheels[level][index] = null;
+        return slot;
+    }
+}
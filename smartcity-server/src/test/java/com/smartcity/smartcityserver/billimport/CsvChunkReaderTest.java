@@ -0,0 +1,134 @@
+package com.smartcity.smartcityserver.billimport;
+
+import com.smartcity.smartcityserver.billimport.CsvChunkReader.Chunk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvChunkReaderTest {
+
+    private final List<Path> files = new ArrayList<>();
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        for (Path file : files)
+            Files.deleteIfExists(file);
+    }
+
+    @Test
+    void cutsWholeLinesAndReportsTheByteOffsetAfterEachChunk() throws IOException {
+        Path file = write("a,1\nbb,2\r\nccc,3\n");
+
+        List<Chunk> chunks = readAll(file, 8, 2, 0, 0);
+
+        assertEquals(2, chunks.size());
+        assertEquals(List.of("a,1", "bb,2"), chunks.get(0).lines());
+        assertEquals(1, chunks.get(0).firstLine());
+        assertEquals(10, chunks.get(0).endOffset());
+        assertEquals(List.of("ccc,3"), chunks.get(1).lines());
+        assertEquals(3, chunks.get(1).firstLine());
+        assertEquals(Files.size(file), chunks.get(1).endOffset());
+    }
+
+    @Test
+    void resumesAtAChunkEndOffsetWithTheSameLineNumbers() throws IOException {
+        Path file = write("h\n1\n2\n3\n4\n5\n6\n");
+        List<Chunk> all = readAll(file, 16, 3, 0, 0);
+        Chunk first = all.getFirst();
+
+        List<Chunk> resumed = readAll(file, 16, 3, first.endOffset(), first.lastLine());
+
+        assertEquals(all.subList(1, all.size()), resumed);
+        assertEquals(4, resumed.getFirst().firstLine());
+    }
+
+    @Test
+    void resumesFromEveryChunkBoundaryWhateverTheBufferSize() throws IOException {
+        StringBuilder csv = new StringBuilder("user_id,reading\n");
+        for (int i = 1; i <= 500; i++)
+            csv.append(i).append(',').append("x".repeat(i % 23)).append(i % 3 == 0 ? "\r\n" : "\n");
+        Path file = write(csv.toString());
+
+        for (int bufferSize : new int[]{32, 33, 64, 1000, 65_536}) {
+            for (int chunkLines : new int[]{1, 7, 100}) {
+                List<Chunk> all = readAll(file, bufferSize, chunkLines, 0, 0);
+                assertEquals(501, all.getLast().lastLine());
+                assertEquals(Files.size(file), all.getLast().endOffset());
+                for (int i = 0; i < all.size(); i++) {
+                    Chunk boundary = all.get(i);
+                    List<Chunk> resumed = readAll(file, bufferSize, chunkLines, boundary.endOffset(), boundary.lastLine());
+                    assertEquals(all.subList(i + 1, all.size()), resumed, "resume after chunk " + i + " with a " + bufferSize + "-byte buffer");
+                }
+            }
+        }
+    }
+
+    @Test
+    void readsALastLineWithoutLineBreak() throws IOException {
+        Path file = write("x\ny");
+
+        List<Chunk> chunks = readAll(file, 8, 10, 0, 0);
+
+        assertEquals(List.of("x", "y"), chunks.getFirst().lines());
+        assertEquals(3, chunks.getFirst().endOffset());
+    }
+
+    @Test
+    void countsOffsetsInBytesForMultiByteCharacters() throws IOException {
+        // é is two bytes in UTF-8; the 5-byte buffer also splits it across two reads
+        Path file = write("a\u00e9\n\u00e9\u00e9\n");
+
+        List<Chunk> chunks = readAll(file, 5, 1, 0, 0);
+
+        assertEquals(List.of("a\u00e9"), chunks.get(0).lines());
+        assertEquals(4, chunks.get(0).endOffset());
+        assertEquals(List.of("\u00e9\u00e9"), chunks.get(1).lines());
+        assertEquals(9, chunks.get(1).endOffset());
+    }
+
+    @Test
+    void rejectsALineLongerThanTheBuffer() throws IOException {
+        Path file = write("short\nthis line does not fit\n");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CsvChunkReader reader = new CsvChunkReader(channel, 8, 10, 0, 0);
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void returnsNullForAnEmptyFileOrAResumeAtTheEnd() throws IOException {
+        Path empty = write("");
+        Path file = write("a\nb\n");
+
+        assertTrue(readAll(empty, 8, 10, 0, 0).isEmpty());
+        assertTrue(readAll(file, 8, 10, Files.size(file), 2).isEmpty());
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile("bill-import", ".csv");
+        files.add(file);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<Chunk> readAll(Path file, int bufferSize, int chunkLines, long startOffset, long startLine) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CsvChunkReader reader = new CsvChunkReader(channel, bufferSize, chunkLines, startOffset, startLine);
+            List<Chunk> chunks = new ArrayList<>();
+            for (Chunk chunk; (chunk = reader.next()) != null; )
+                chunks.add(chunk);
+            return chunks;
+        }
+    }
+}
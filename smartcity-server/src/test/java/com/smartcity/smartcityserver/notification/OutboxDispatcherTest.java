@@ -0,0 +1,232 @@
+package com.smartcity.smartcityserver.notification;
+
+import com.smartcity.smartcityserver.entity.OutboxEvent;
+import com.smartcity.smartcityserver.entity.User;
+import com.smartcity.smartcityserver.entity.enums.NotificationType;
+import com.smartcity.smartcityserver.entity.enums.OutboxStatus;
+import com.smartcity.smartcityserver.repositoriy.OutboxEventRepository;
+import com.smartcity.smartcityserver.repositoriy.UserRepository;
+import com.smartcity.smartcityserver.tenant.TenantRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the dispatcher against an in-memory outbox and a recording channel instead of a mail server.
+ * Claimed events are the stored instances, as managed entities would be, so changes stick like a commit.
+ */
+class OutboxDispatcherTest {
+
+    private static final long LEASE_MS = 60_000;
+
+    private final Map<Long, OutboxEvent> outbox = new TreeMap<>();
+    private final Map<Long, User> users = new HashMap<>();
+    private final List<Notification> delivered = new ArrayList<>();
+
+    @Test
+    void groupsEventsOfOneUserIntoADigestAndSendsVerificationLinksAlone() {
+        User alice = user(1L, "Alice");
+        User bob = user(2L, "Bob");
+        event(1, alice, NotificationType.BILL_CREATED, "New bill");
+        event(2, alice, NotificationType.EMAIL_VERIFICATION, "Verify your email");
+        event(3, bob, NotificationType.BILL_REMINDER, "Bill due soon");
+        event(4, alice, NotificationType.COMPLAINT_STATUS_CHANGED, "Complaint resolved");
+
+        dispatcher(delivered::add, 8, 0).dispatch();
+
+        assertEquals(3, delivered.size());
+        assertEquals(List.of("Verify your email", "You have 2 updates from SmartCity"), subjectsFor(alice));
+        Notification digest = delivered.stream().filter(n -> n.getSubject().startsWith("You have")).findFirst().orElseThrow();
+        assertEquals("alice@smartcity.local", digest.getRecipient());
+        assertTrue(digest.getBody().contains("New bill"));
+        assertTrue(digest.getBody().contains("Complaint resolved"));
+        assertEquals(List.of("Bill due soon"), subjectsFor(bob));
+        outbox.values().forEach(event -> {
+            assertEquals(OutboxStatus.SENT, event.getStatus());
+            assertEquals(1, event.getAttempts());
+            assertNotNull(event.getSentAt());
+        });
+    }
+
+    @Test
+    void redeliversOnceTheLeaseOfACrashedDispatchExpires() {
+        User alice = user(1L, "Alice");
+        OutboxEvent event = event(1, alice, NotificationType.BILL_CREATED, "New bill");
+        boolean[] crashed = {false};
+        NotificationChannel channel = notification -> {
+            if (!crashed[0]) {
+                crashed[0] = true;
+                throw new ProcessDied();
+            }
+            delivered.add(notification);
+        };
+        OutboxDispatcher dispatcher = dispatcher(channel, 8, 0);
+
+        // Dies after claiming, before recording the outcome
+        assertThrows(ProcessDied.class, dispatcher::dispatch);
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+
+        // Still leased: nobody else picks it up
+        dispatcher.dispatch();
+        assertTrue(delivered.isEmpty());
+
+        event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        dispatcher.dispatch();
+
+        assertEquals(List.of("New bill"), subjectsFor(alice));
+        assertEquals(OutboxStatus.SENT, event.getStatus());
+        assertEquals(2, event.getAttempts());
+    }
+
+    @Test
+    void marksEventFailedAfterMaxAttempts() {
+        User alice = user(1L, "Alice");
+        OutboxEvent event = event(1, alice, NotificationType.BILL_CREATED, "New bill");
+        int[] calls = {0};
+        NotificationChannel channel = notification -> {
+            calls[0]++;
+            throw new IllegalStateException("SMTP server unavailable");
+        };
+        // No backoff, so every dispatch retries straight away
+        OutboxDispatcher dispatcher = dispatcher(channel, 3, 0);
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(2, event.getAttempts());
+
+        dispatcher.dispatch();
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertEquals("SMTP server unavailable", event.getLastError());
+
+        dispatcher.dispatch();
+        assertEquals(3, calls[0]);
+        assertEquals(3, event.getAttempts());
+    }
+
+    @Test
+    void failsEventsOfDeletedUsersWithoutCallingTheChannel() {
+        User ghost = user(9L, "Ghost");
+        OutboxEvent event = event(1, ghost, NotificationType.BILL_CREATED, "New bill");
+        users.remove(9L);
+
+        dispatcher(delivered::add, 1, 0).dispatch();
+
+        assertTrue(delivered.isEmpty());
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals("Recipient no longer exists", event.getLastError());
+    }
+
+    private OutboxDispatcher dispatcher(NotificationChannel channel, int maxAttempts, long initialBackoffMs) {
+        return new OutboxDispatcher(outboxRepository(), userRepository(), channel,
+                new TransactionTemplate(new NoOpTransactionManager()), new TenantRegistry(false, List.of(), ""),
+                100, maxAttempts, initialBackoffMs, 3_600_000, LEASE_MS, 7, new SimpleMeterRegistry());
+    }
+
+    private List<String> subjectsFor(User user) {
+        return delivered.stream()
+                .filter(notification -> notification.getUserId().equals(user.getUserId()))
+                .map(Notification::getSubject)
+                .toList();
+    }
+
+    private User user(long id, String name) {
+        User user = new User();
+        user.setUserId(id);
+        user.setName(name);
+        user.setEmail(name.toLowerCase() + "@smartcity.local");
+        users.put(id, user);
+        return user;
+    }
+
+    private OutboxEvent event(long id, User user, NotificationType type, String subject) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setUserId(user.getUserId());
+        event.setType(type);
+        event.setSubject(subject);
+        event.setBody(subject + " details");
+        event.prePersist();
+        outbox.put(id, event);
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboxEventRepository outboxRepository() {
+        return fake(OutboxEventRepository.class, (method, args) -> switch (method.getName()) {
+            case "findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc" -> outbox.values().stream()
+                    .filter(event -> event.getStatus() == args[0])
+                    .filter(event -> !event.getNextAttemptAt().isAfter((LocalDateTime) args[1]))
+                    .limit(((Limit) args[2]).max())
+                    .toList();
+            case "markSent" -> {
+                List<Long> ids = (List<Long>) args[0];
+                for (Long id : ids) {
+                    OutboxEvent event = outbox.get(id);
+                    event.setStatus(OutboxStatus.SENT);
+                    event.setSentAt((LocalDateTime) args[1]);
+                    event.setLastError(null);
+                }
+                yield ids.size();
+            }
+            case "saveAll" -> args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private UserRepository userRepository() {
+        return fake(UserRepository.class, (method, args) -> {
+            if (!method.getName().equals("findAllById"))
+                throw new UnsupportedOperationException(method.getName());
+            List<User> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) args[0])
+                if (users.containsKey(id))
+                    found.add(users.get(id));
+            return found;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, BiFunction<Method, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.apply(method, args));
+    }
+
+    // Stands in for the JVM going away mid-delivery; the dispatcher only handles Exceptions
+    private static final class ProcessDied extends Error {
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.smartcity.smartcityserver.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongIndexTest {
+
+    private static final long MISSING = -1;
+
+    @Test
+    void returnsMissingForUnknownKeys() {
+        LongLongIndex index = new LongLongIndex(4);
+
+        assertEquals(MISSING, index.get(42, MISSING));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void putOverwritesExistingKey() {
+        LongLongIndex index = new LongLongIndex(4);
+
+        index.put(7, 1);
+        index.put(7, 2);
+
+        assertEquals(2, index.get(7, MISSING));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rejectsReservedKey() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongIndex(4).put(0, 1));
+    }
+
+    @Test
+    void reservedKeyLeavesTheIndexUntouched() {
+        LongLongIndex index = new LongLongIndex(4);
+        index.put(7, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> index.remove(0));
+        assertEquals(MISSING, index.get(0, MISSING));
+        assertEquals(1, index.size());
+        assertEquals(1, index.get(7, MISSING));
+    }
+
+    @Test
+    void keepsEveryEntryAcrossGrowth() {
+        LongLongIndex index = new LongLongIndex(1);
+        for (long key = 1; key <= 10_000; key++)
+            index.put(key, key * 3);
+
+        assertEquals(10_000, index.size());
+        for (long key = 1; key <= 10_000; key++)
+            assertEquals(key * 3, index.get(key, MISSING));
+    }
+
+    @Test
+    void removeKeepsLaterKeysOfTheProbeRunReachable() {
+        LongLongIndex index = new LongLongIndex(1024);
+        for (long key = 1; key <= 600; key++)
+            index.put(key, key);
+
+        for (long key = 1; key <= 600; key += 2)
+            assertTrue(index.remove(key));
+
+        assertFalse(index.remove(1));
+        assertEquals(300, index.size());
+        for (long key = 1; key <= 600; key++)
+            assertEquals(key % 2 == 0 ? key : MISSING, index.get(key, MISSING));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        // Tenant-scoped ids put the tenant in the high bits, so cover negative and large keys too
+        Random random = new Random(20_260_101);
+        LongLongIndex index = new LongLongIndex(16);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(4) == 0 ? random.nextLong() : 1 + random.nextInt(2_000);
+            if (key == 0)
+                continue;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, index.remove(key));
+            } else {
+                long value = random.nextLong();
+                index.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        expected.forEach((key, value) -> assertEquals((long) value, index.get(key, MISSING)));
+    }
+}
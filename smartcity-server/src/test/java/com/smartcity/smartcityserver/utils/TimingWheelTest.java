@@ -0,0 +1,191 @@
+package com.smartcity.smartcityserver.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 60_000;
+    // Ticks covered by one slot of each wheel, and the reach of all five wheels
+    private static final long[] LEVEL_TICKS = {1, 64, 64 * 64, 64 * 64 * 64, 64L * 64 * 64 * 64};
+    private static final long SPAN = 64L * 64 * 64 * 64 * 64;
+
+    private final List<Long> fired = new ArrayList<>();
+
+    @Test
+    void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), 0, 16);
+        wheel.schedule(1, 90_000);
+
+        assertEquals(0, wheel.advance(119_999, fired::add));
+        assertEquals(1, wheel.advance(120_000, fired::add));
+        assertEquals(List.of(1L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesDeadlinesOnEitherSideOfEveryLevelBoundary() {
+        // Starting at a block boundary and part-way through one exercise different cascade paths
+        for (long startTick : new long[]{0, 37, 4_096, 262_143}) {
+            for (long levelTicks : LEVEL_TICKS) {
+                for (long offset : new long[]{levelTicks - 1, levelTicks, levelTicks + 1, 64 * levelTicks - 1}) {
+                    // The far end of the top wheel is covered below; walking to it once is enough
+                    if (offset > 0 && offset < SPAN - 1)
+                        assertFiresExactlyAt(startTick, offset);
+                }
+            }
+        }
+    }
+
+    @Test
+    void firesDeadlinesAtAndBeyondTheReachOfTheTopWheel() {
+        long startTick = 5;
+        // Parked in the top wheel's last reachable slot, then sent round again to a later one
+        long beyond = startTick + SPAN + 3 * LEVEL_TICKS[4] + 130;
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), startTick * TICK, 16);
+        wheel.schedule(1, (startTick + SPAN - 1) * TICK);
+        wheel.schedule(2, beyond * TICK);
+
+        wheel.advance((startTick + SPAN - 2) * TICK, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance((startTick + SPAN - 1) * TICK, fired::add);
+        assertEquals(List.of(1L), fired);
+        wheel.advance((beyond - 1) * TICK, fired::add);
+        assertEquals(List.of(1L), fired);
+        wheel.advance(beyond * TICK, fired::add);
+        assertEquals(List.of(1L, 2L), fired);
+    }
+
+    @Test
+    void firesPastDeadlinesOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), 10 * TICK, 16);
+        wheel.advance(20 * TICK, fired::add);
+        wheel.schedule(1, 3 * TICK);
+        wheel.schedule(2, 20 * TICK);
+
+        assertEquals(2, wheel.advance(21 * TICK, fired::add));
+        assertEquals(List.of(1L, 2L), fired);
+    }
+
+    @Test
+    void rescheduleMovesTheDeadlineEitherWay() {
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), 0, 16);
+        wheel.schedule(1, 5_000 * TICK);
+        wheel.schedule(2, 10 * TICK);
+        wheel.schedule(1, 20 * TICK);
+        wheel.schedule(2, 9_000 * TICK);
+
+        assertEquals(2, wheel.size());
+        wheel.advance(19 * TICK, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(20 * TICK, fired::add);
+        assertEquals(List.of(1L), fired);
+        wheel.advance(8_999 * TICK, fired::add);
+        assertEquals(List.of(1L), fired);
+        wheel.advance(9_000 * TICK, fired::add);
+        assertEquals(List.of(1L, 2L), fired);
+    }
+
+    @Test
+    void cancelledIdsNeverFire() {
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), 0, 16);
+        wheel.schedule(1, 10 * TICK);
+        wheel.schedule(2, 100_000 * TICK);
+        wheel.schedule(3, 10 * TICK);
+
+        assertTrue(wheel.cancel(1));
+        assertTrue(wheel.cancel(2));
+        assertFalse(wheel.cancel(2));
+        assertFalse(wheel.cancel(4));
+        assertEquals(1, wheel.size());
+
+        wheel.advance(200_000 * TICK, fired::add);
+        assertEquals(List.of(3L), fired);
+    }
+
+    @Test
+    void callbackMayRescheduleTheIdItWasGiven() {
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), 0, 16);
+        wheel.schedule(1, TICK);
+
+        wheel.advance(10 * TICK, id -> {
+            fired.add(id);
+            if (fired.size() < 3)
+                wheel.schedule(id, (fired.size() * 3 + 1) * TICK);
+        });
+
+        assertEquals(List.of(1L, 1L, 1L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void matchesAReferenceModelUnderRandomOperations() {
+        Random random = new Random(48);
+        long startTick = 1_000_003;
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), startTick * TICK, 64);
+        Map<Long, Long> expected = new HashMap<>();
+        long now = startTick;
+        for (int step = 0; step < 2_000; step++) {
+            for (int i = random.nextInt(20); i > 0; i--) {
+                long id = 1 + random.nextInt(500);
+                if (random.nextInt(5) == 0) {
+                    assertEquals(expected.remove(id) != null, wheel.cancel(id));
+                } else {
+                    // Mostly near deadlines, some a few levels up, some already past
+                    long ahead = switch (random.nextInt(4)) {
+                        case 0 -> random.nextInt(64);
+                        case 1 -> random.nextInt(300_000);
+                        case 2 -> random.nextInt(5_000);
+                        default -> -random.nextInt(100);
+                    };
+                    wheel.schedule(id, (now + ahead) * TICK);
+                    expected.put(id, Math.max(now + ahead, now));
+                }
+            }
+            now += random.nextInt(4) == 0 ? random.nextInt(20_000) : random.nextInt(100);
+            long target = now;
+
+            List<Long> firedNow = new ArrayList<>();
+            wheel.advance(target * TICK, firedNow::add);
+
+            Set<Long> due = new HashSet<>();
+            expected.forEach((id, deadline) -> {
+                if (deadline <= target)
+                    due.add(id);
+            });
+            assertEquals(due, new HashSet<>(firedNow), "ids fired at tick " + target);
+            assertEquals(due.size(), firedNow.size(), "ids fired twice at tick " + target);
+            for (int i = 1; i < firedNow.size(); i++)
+                assertTrue(expected.get(firedNow.get(i - 1)) <= expected.get(firedNow.get(i)), "fired out of deadline order");
+            due.forEach(expected::remove);
+            assertEquals(expected.size(), wheel.size());
+            now = target + 1;
+        }
+    }
+
+    private void assertFiresExactlyAt(long startTick, long ticksAhead) {
+        TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK), startTick * TICK, 16);
+        long deadlineTick = startTick + ticksAhead;
+        // A second entry keeps the wheel from skipping ahead once it is empty
+        wheel.schedule(1, deadlineTick * TICK);
+        wheel.schedule(2, (deadlineTick + 1) * TICK);
+        List<Long> firedHere = new ArrayList<>();
+
+        wheel.advance((deadlineTick - 1) * TICK, firedHere::add);
+        assertTrue(firedHere.isEmpty(), "fired early: start " + startTick + ", " + ticksAhead + " ticks ahead");
+        wheel.advance(deadlineTick * TICK, firedHere::add);
+        assertEquals(List.of(1L), firedHere, "start " + startTick + ", " + ticksAhead + " ticks ahead");
+        wheel.advance((deadlineTick + 1) * TICK, firedHere::add);
+        assertEquals(List.of(1L, 2L), firedHere);
+    }
+}